@@ -0,0 +1,247 @@
+package com.github.kongchen.swagger.docgen.benchmark;
+
+import com.github.kongchen.swagger.docgen.mavenplugin.ApiSource;
+import io.swagger.models.Info;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtField;
+import javassist.CtMethod;
+import javassist.CtNewMethod;
+import javassist.LoaderClassPath;
+import javassist.Modifier;
+import javassist.bytecode.AnnotationsAttribute;
+import javassist.bytecode.ConstPool;
+import javassist.bytecode.ParameterAnnotationsAttribute;
+import javassist.bytecode.annotation.Annotation;
+import javassist.bytecode.annotation.ArrayMemberValue;
+import javassist.bytecode.annotation.EnumMemberValue;
+import javassist.bytecode.annotation.MemberValue;
+import javassist.bytecode.annotation.StringMemberValue;
+import org.apache.commons.io.FileUtils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Synthetic api of configurable size, generated into a class directory of its own.
+ * <p>
+ * Every resource has the given number of operations. Operations alternately read and create one of the models,
+ * and every model refers to the next one in groups of four, so model resolution walks small type graphs.
+ * Classes are loaded by {@link #getClassLoader()}, which must be the context class loader while they are scanned.
+ */
+public class FixtureApi implements Closeable {
+
+    private static final int MODEL_GROUP = 4;
+
+    public enum Framework {
+        JAXRS, SPRINGMVC
+    }
+
+    private final Framework framework;
+
+    private final String packageName;
+
+    private final File classesDirectory;
+
+    private final URLClassLoader classLoader;
+
+    private final List<String> resourceNames = new ArrayList<>();
+
+    private final List<String> modelNames = new ArrayList<>();
+
+    /**
+     * @param framework  framework of resources
+     * @param resources  number of resources
+     * @param operations number of operations per resource
+     * @param models     number of models
+     * @throws Exception if classes cannot be generated
+     */
+    public FixtureApi(Framework framework, int resources, int operations, int models) throws Exception {
+        if (resources < 1 || operations < 1 || models < 1) {
+            throw new IllegalArgumentException("Fixture api needs at least one resource, operation and model");
+        }
+        this.framework = framework;
+        this.packageName = String.format("benchmark.fixture.%s.r%dx%dx%d",
+                framework.name().toLowerCase(), resources, operations, models);
+        this.classesDirectory = Files.createTempDirectory("swagger-fixture").toFile();
+
+        ClassPool pool = new ClassPool(true);
+        pool.appendClassPath(new LoaderClassPath(getClass().getClassLoader()));
+
+        List<CtClass> modelClasses = new ArrayList<>();
+        for (int i = 0; i < models; i++) {
+            String name = packageName + ".model.Model" + i;
+            modelClasses.add(pool.makeClass(name));
+            modelNames.add(name);
+        }
+        for (int i = 0; i < models; i++) {
+            writeModel(modelClasses.get(i), i + 1 < models && (i + 1) % MODEL_GROUP != 0 ? modelClasses.get(i + 1) : null);
+        }
+        for (int i = 0; i < resources; i++) {
+            String name = packageName + ".Resource" + i;
+            writeResource(pool.makeClass(name), i, operations, modelClasses);
+            resourceNames.add(name);
+        }
+
+        this.classLoader = new URLClassLoader(new URL[]{classesDirectory.toURI().toURL()}, getClass().getClassLoader());
+    }
+
+    public Framework getFramework() {
+        return framework;
+    }
+
+    /**
+     * @return package of all fixture classes, to be used as api source location
+     */
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public ClassLoader getClassLoader() {
+        return classLoader;
+    }
+
+    /**
+     * @return resource classes in order
+     * @throws ClassNotFoundException if classes are missing
+     */
+    public List<Class<?>> getResourceClasses() throws ClassNotFoundException {
+        return load(resourceNames);
+    }
+
+    /**
+     * @return model classes in order
+     * @throws ClassNotFoundException if classes are missing
+     */
+    public List<Class<?>> getModelClasses() throws ClassNotFoundException {
+        return load(modelNames);
+    }
+
+    /**
+     * Create an api source configured for the fixture, as the plugin configuration would declare it
+     *
+     * @param swaggerDirectory directory to write swagger documents to
+     * @return api source
+     */
+    public ApiSource newApiSource(File swaggerDirectory) {
+        ApiSource apiSource = new ApiSource();
+        apiSource.setSpringmvc(framework == Framework.SPRINGMVC);
+        apiSource.setLocations(Collections.singletonList(packageName));
+        apiSource.setBasePath("/api");
+        apiSource.setSwaggerDirectory(swaggerDirectory.getAbsolutePath());
+        Info info = new Info();
+        info.setTitle("Fixture api");
+        info.setVersion("1.0");
+        apiSource.setInfo(info);
+        return apiSource;
+    }
+
+    @Override
+    public void close() throws IOException {
+        classLoader.close();
+        FileUtils.deleteDirectory(classesDirectory);
+    }
+
+    private List<Class<?>> load(List<String> names) throws ClassNotFoundException {
+        List<Class<?>> classes = new ArrayList<>();
+        for (String name : names) {
+            classes.add(Class.forName(name, true, classLoader));
+        }
+        return classes;
+    }
+
+    private void writeModel(CtClass model, CtClass next) throws Exception {
+        model.addField(CtField.make("public String name;", model));
+        model.addField(CtField.make("public int count;", model));
+        model.addField(CtField.make("public java.util.Date created;", model));
+        if (next != null) {
+            CtField field = new CtField(next, "next", model);
+            field.setModifiers(Modifier.PUBLIC);
+            model.addField(field);
+        }
+        ConstPool constPool = model.getClassFile().getConstPool();
+        model.getClassFile().addAttribute(annotations(constPool,
+                annotation(constPool, "io.swagger.annotations.ApiModel", "description", model.getSimpleName())));
+        model.writeFile(classesDirectory.getAbsolutePath());
+    }
+
+    private void writeResource(CtClass resource, int index, int operations, List<CtClass> models) throws Exception {
+        ConstPool constPool = resource.getClassFile().getConstPool();
+        String path = "/resource" + index;
+        Annotation api = annotation(constPool, "io.swagger.annotations.Api", "value", "resource" + index);
+        if (framework == Framework.SPRINGMVC) {
+            resource.getClassFile().addAttribute(annotations(constPool, api,
+                    new Annotation("org.springframework.web.bind.annotation.RestController", constPool),
+                    annotation(constPool, "org.springframework.web.bind.annotation.RequestMapping", "value",
+                            stringArray(constPool, path))));
+        } else {
+            resource.getClassFile().addAttribute(annotations(constPool, api,
+                    annotation(constPool, "javax.ws.rs.Path", "value", path)));
+        }
+
+        for (int i = 0; i < operations; i++) {
+            CtClass model = models.get((index * operations + i) % models.size());
+            boolean create = i % 2 == 1;
+            String signature = "public " + model.getName() + " operation" + i
+                    + (create ? "(" + model.getName() + " body)" : "()") + " { return null; }";
+            CtMethod method = CtNewMethod.make(signature, resource);
+            resource.addMethod(method);
+
+            Annotation operation = annotation(constPool, "io.swagger.annotations.ApiOperation", "value", "Operation " + i);
+            if (framework == Framework.SPRINGMVC) {
+                Annotation mapping = annotation(constPool, "org.springframework.web.bind.annotation.RequestMapping", "value",
+                        stringArray(constPool, "/operation" + i));
+                EnumMemberValue requestMethod = new EnumMemberValue(constPool);
+                requestMethod.setType("org.springframework.web.bind.annotation.RequestMethod");
+                requestMethod.setValue(create ? "POST" : "GET");
+                ArrayMemberValue methods = new ArrayMemberValue(requestMethod, constPool);
+                methods.setValue(new MemberValue[]{requestMethod});
+                mapping.addMemberValue("method", methods);
+                method.getMethodInfo().addAttribute(annotations(constPool, operation, mapping));
+                if (create) {
+                    ParameterAnnotationsAttribute parameters =
+                            new ParameterAnnotationsAttribute(constPool, ParameterAnnotationsAttribute.visibleTag);
+                    parameters.setAnnotations(new Annotation[][]{{
+                            new Annotation("org.springframework.web.bind.annotation.RequestBody", constPool)}});
+                    method.getMethodInfo().addAttribute(parameters);
+                }
+            } else {
+                method.getMethodInfo().addAttribute(annotations(constPool, operation,
+                        new Annotation(create ? "javax.ws.rs.POST" : "javax.ws.rs.GET", constPool),
+                        annotation(constPool, "javax.ws.rs.Path", "value", "/operation" + i)));
+            }
+        }
+        resource.writeFile(classesDirectory.getAbsolutePath());
+    }
+
+    private static AnnotationsAttribute annotations(ConstPool constPool, Annotation... annotations) {
+        AnnotationsAttribute attribute = new AnnotationsAttribute(constPool, AnnotationsAttribute.visibleTag);
+        for (Annotation annotation : annotations) {
+            attribute.addAnnotation(annotation);
+        }
+        return attribute;
+    }
+
+    private static Annotation annotation(ConstPool constPool, String type, String member, String value) {
+        return annotation(constPool, type, member, new StringMemberValue(value, constPool));
+    }
+
+    private static Annotation annotation(ConstPool constPool, String type, String member, MemberValue value) {
+        Annotation annotation = new Annotation(type, constPool);
+        annotation.addMemberValue(member, value);
+        return annotation;
+    }
+
+    private static ArrayMemberValue stringArray(ConstPool constPool, String value) {
+        ArrayMemberValue array = new ArrayMemberValue(new StringMemberValue(constPool), constPool);
+        array.setValue(new MemberValue[]{new StringMemberValue(value, constPool)});
+        return array;
+    }
+}
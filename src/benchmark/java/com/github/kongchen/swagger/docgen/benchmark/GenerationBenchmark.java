@@ -0,0 +1,90 @@
+package com.github.kongchen.swagger.docgen.benchmark;
+
+import com.github.kongchen.swagger.docgen.AbstractDocumentSource;
+import com.github.kongchen.swagger.docgen.mavenplugin.ApiSource;
+import com.github.kongchen.swagger.docgen.mavenplugin.MavenDocumentSource;
+import com.github.kongchen.swagger.docgen.mavenplugin.SpringMavenDocumentSource;
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.monitor.logging.DefaultLog;
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.logging.Logger;
+import org.codehaus.plexus.logging.console.ConsoleLogger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generation of an api source end to end, as {@code ApiDocumentMojo} runs it:
+ * class scanning, reading, filtering and writing swagger documents
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class GenerationBenchmark {
+
+    static final Log LOG = new DefaultLog(new ConsoleLogger(Logger.LEVEL_ERROR, "benchmark"));
+
+    @Param({"JAXRS", "SPRINGMVC"})
+    private FixtureApi.Framework framework;
+
+    @Param("20")
+    private int resources;
+
+    @Param("10")
+    private int operations;
+
+    @Param("40")
+    private int models;
+
+    @Param("1")
+    private int readParallelism;
+
+    private FixtureApi api;
+
+    private File output;
+
+    @Setup
+    public void setUp() throws Exception {
+        api = new FixtureApi(framework, resources, operations, models);
+        Thread.currentThread().setContextClassLoader(api.getClassLoader());
+        output = Files.createTempDirectory("swagger-benchmark").toFile();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        Thread.currentThread().setContextClassLoader(getClass().getClassLoader());
+        api.close();
+        FileUtils.deleteDirectory(output);
+    }
+
+    @Benchmark
+    public AbstractDocumentSource generate() throws Exception {
+        ApiSource apiSource = api.newApiSource(output);
+        apiSource.setReadParallelism(readParallelism);
+        AbstractDocumentSource documentSource = apiSource.isSpringmvc()
+                ? new SpringMavenDocumentSource(apiSource, LOG, "UTF-8")
+                : new MavenDocumentSource(apiSource, null, LOG, "UTF-8");
+        documentSource.loadTypesToSkip();
+        documentSource.loadModelModifier();
+        documentSource.loadModelConverters();
+        documentSource.loadDocuments();
+        documentSource.toSwaggerDocuments(apiSource.getBasePath(), "json,yaml", "swagger", "UTF-8");
+        return documentSource;
+    }
+}
@@ -0,0 +1,159 @@
+package com.github.kongchen.swagger.docgen.benchmark;
+
+import com.github.kongchen.swagger.docgen.ModelCache;
+import com.github.kongchen.swagger.docgen.Utils;
+import com.github.kongchen.swagger.docgen.mavenplugin.ApiSource;
+import com.github.kongchen.swagger.docgen.mavenplugin.MavenDocumentSource;
+import com.github.kongchen.swagger.docgen.reader.JaxrsReader;
+import com.github.kongchen.swagger.docgen.reader.ModelModifier;
+import io.swagger.annotations.Api;
+import io.swagger.converter.ModelConverterContextImpl;
+import io.swagger.converter.ModelConverters;
+import io.swagger.models.Model;
+import io.swagger.models.Swagger;
+import io.swagger.util.Json;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single stages of the generation pipeline on a JAX-RS fixture api
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PipelineBenchmark {
+
+    @Param("20")
+    private int resources;
+
+    @Param("10")
+    private int operations;
+
+    @Param("40")
+    private int models;
+
+    private FixtureApi api;
+
+    private File output;
+
+    private Set<Class<?>> resourceClasses;
+
+    private List<Class<?>> modelClasses;
+
+    private ModelModifier modelModifier;
+
+    private Swagger swagger;
+
+    private MavenDocumentSource documentSource;
+
+    private ModelCache modelCache;
+
+    @Setup
+    public void setUp() throws Exception {
+        api = new FixtureApi(FixtureApi.Framework.JAXRS, resources, operations, models);
+        Thread.currentThread().setContextClassLoader(api.getClassLoader());
+        output = Files.createTempDirectory("swagger-benchmark").toFile();
+
+        resourceClasses = new LinkedHashSet<>(api.getResourceClasses());
+        modelClasses = api.getModelClasses();
+        modelModifier = new ModelModifier(Json.mapper());
+        modelModifier.addModelSubstitute("java.util.Date", "java.lang.String");
+        swagger = readSwagger();
+
+        documentSource = new MavenDocumentSource(api.newApiSource(output), null, GenerationBenchmark.LOG, "UTF-8");
+        documentSource.loadDocuments();
+
+        modelCache = new ModelCache(ModelCache.DEFAULT_CAPACITY);
+        for (Class<?> modelClass : modelClasses) {
+            modelCache.readAll(modelClass);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        Thread.currentThread().setContextClassLoader(getClass().getClassLoader());
+        api.close();
+        FileUtils.deleteDirectory(output);
+    }
+
+    /**
+     * Class scanning with a fresh class index, as every build does it
+     */
+    @Benchmark
+    public Set<Class<?>> getValidClasses() {
+        ApiSource apiSource = api.newApiSource(output);
+        return apiSource.getValidClasses(Api.class);
+    }
+
+    @Benchmark
+    public Swagger jaxrsRead() {
+        return readSwagger();
+    }
+
+    @Benchmark
+    public void modelModifierResolve(Blackhole blackhole) {
+        for (Class<?> modelClass : modelClasses) {
+            Model model = new ModelConverterContextImpl(modelModifier).resolve(modelClass);
+            blackhole.consume(model);
+        }
+    }
+
+    /**
+     * Model resolution without cache, the baseline of {@link #modelCacheHit(Blackhole)}
+     */
+    @Benchmark
+    public void modelResolve(Blackhole blackhole) {
+        for (Class<?> modelClass : modelClasses) {
+            blackhole.consume(ModelConverters.getInstance().readAll(modelClass));
+        }
+    }
+
+    /**
+     * Model resolution served by the cache, including the copy every hit returns
+     */
+    @Benchmark
+    public void modelCacheHit(Blackhole blackhole) {
+        for (Class<?> modelClass : modelClasses) {
+            blackhole.consume(modelCache.readAll(modelClass));
+        }
+    }
+
+    @Benchmark
+    public Swagger sortSwagger() throws Exception {
+        Utils.sortSwagger(swagger);
+        return swagger;
+    }
+
+    @Benchmark
+    public void toSwaggerDocuments() throws Exception {
+        documentSource.toSwaggerDocuments("/api", "json,yaml", "swagger", "UTF-8");
+    }
+
+    private Swagger readSwagger() {
+        JaxrsReader reader = new JaxrsReader(new Swagger(), GenerationBenchmark.LOG);
+        reader.read(resourceClasses);
+        return reader.getSwagger();
+    }
+}
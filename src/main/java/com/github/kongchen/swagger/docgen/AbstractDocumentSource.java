@@ -1,9 +1,13 @@
 package com.github.kongchen.swagger.docgen;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.PrettyPrinter;
 import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import com.fasterxml.jackson.module.jaxb.JaxbAnnotationModule;
 import com.fasterxml.jackson.module.jaxb.JaxbAnnotationModule.Priority;
 import com.github.jknack.handlebars.Handlebars;
@@ -16,11 +20,11 @@ import com.github.kongchen.swagger.docgen.mavenplugin.ApiSource;
 import com.github.kongchen.swagger.docgen.mavenplugin.SecurityDefinition;
 import com.github.kongchen.swagger.docgen.reader.AbstractReader;
 import com.github.kongchen.swagger.docgen.reader.ClassSwaggerReader;
+import com.github.kongchen.swagger.docgen.reader.JaxrsReader;
 import com.github.kongchen.swagger.docgen.reader.ModelModifier;
 import io.swagger.annotations.Api;
-import io.swagger.config.FilterFactory;
+import io.swagger.annotations.SwaggerDefinition;
 import io.swagger.converter.ModelConverter;
-import io.swagger.converter.ModelConverters;
 import io.swagger.core.filter.SpecFilter;
 import io.swagger.core.filter.SwaggerSpecFilter;
 import io.swagger.jaxrs.ext.SwaggerExtension;
@@ -45,18 +49,22 @@ import org.slf4j.LoggerFactory;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Type;
 import java.net.MalformedURLException;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
@@ -64,6 +72,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.TreeSet;
 
 import static org.apache.commons.lang3.StringUtils.defaultString;
 import static org.apache.commons.lang3.StringUtils.isEmpty;
@@ -78,6 +87,7 @@ public abstract class AbstractDocumentSource<D extends AbstractReader> {
     protected final Log log;
     protected final ApiSource apiSource;
     protected final List<Type> typesToSkip = new ArrayList<>();
+    protected final DocumentContext context = new DocumentContext();
     protected Swagger swagger;
     protected String swaggerSchemaConverter;
     private final String outputPath;
@@ -88,6 +98,11 @@ public abstract class AbstractDocumentSource<D extends AbstractReader> {
     private ObjectMapper mapper = Json.mapper();
     private boolean isSorted = false;
     protected String encoding = "UTF-8";
+    private DocumentState state;
+    private String buildKey;
+    private String stateKey;
+    private Set<Class<?>> tagClasses = Collections.emptySet();
+    private final List<File> outputFiles = new ArrayList<>();
 
     public AbstractDocumentSource(Log log, ApiSource apiSource, String encoding) throws MojoFailureException {
         this.log = log;
@@ -122,6 +137,8 @@ public abstract class AbstractDocumentSource<D extends AbstractReader> {
         swagger.setBasePath(apiSource.getBasePath());
         swagger.setExternalDocs(apiSource.getExternalDocs());
 
+        context.setModelCache(new ModelCache(apiSource.getModelCacheSize()));
+
         this.apiSource = apiSource;
         if (encoding != null) {
             this.encoding = encoding;
@@ -129,13 +146,188 @@ public abstract class AbstractDocumentSource<D extends AbstractReader> {
     }
 
     public void loadDocuments() throws GenerateException {
-        ClassSwaggerReader reader = resolveApiReader();
-        loadSwaggerExtensions();
-        reader.read(getValidClasses());
-        removeBasePathFromEndpoints();
-        addSecurityDefinitions();
-        removeEmptyTags();
-        doFilter();
+        context.run(() -> {
+            ClassSwaggerReader reader = resolveApiReaderInContext();
+            loadSwaggerExtensions();
+            if (state != null) {
+                context.addConverter(state.recorder());
+            }
+            Set<Class<?>> classes = getValidClasses();
+            reader.read(classes);
+            if (reader instanceof JaxrsReader) {
+                tagClasses = ((JaxrsReader) reader).getTagClasses();
+            }
+            if (state != null) {
+                classes.forEach(state::recordResource);
+            }
+            removeBasePathFromEndpoints();
+            addSecurityDefinitions();
+            removeEmptyTags();
+            doFilter();
+        });
+        ModelCache models = context.getModelCache();
+        log.debug(String.format("Model cache: %d hits, %d misses", models.getHits(), models.getMisses()));
+    }
+
+    /**
+     * Keep the state of this source between builds, so a later build skips the source
+     * while nothing its documents are generated from changes
+     *
+     * @param directory directory of states, {@code null} to generate the documents on every build
+     * @param buildKey  identity of the execution generating the source, e.g. the plugin version
+     */
+    public void setStateDirectory(File directory, String buildKey) {
+        this.state = directory == null ? null : new DocumentState(directory);
+        this.buildKey = buildKey;
+        this.stateKey = null;
+    }
+
+    /**
+     * @return {@code true} if the documents of this source were generated by an earlier build
+     * from the same configuration, classes and files, and are unchanged since
+     */
+    public boolean isUpToDate() {
+        return state != null && state.isUpToDate(getStateKey());
+    }
+
+    /**
+     * Store the inputs of the generated documents, so a later build can skip this source while they are unchanged
+     */
+    public void saveState() {
+        if (state == null) {
+            return;
+        }
+        recordInputs(state, true);
+        state.save(getStateKey());
+    }
+
+    /**
+     * Record the configured classes, resources and files the documents of this source are generated from
+     *
+     * @param state   state to record the inputs to
+     * @param outputs if the written outputs are recorded as well
+     */
+    void recordInputs(DocumentState state, boolean outputs) {
+        for (String className : Arrays.asList(apiSource.getSwaggerApiReader(), apiSource.getSwaggerInternalFilter(),
+                apiSource.getApiSortComparator())) {
+            if (className != null) {
+                state.record(DocumentState.CLASS + className);
+            }
+        }
+        Optional.ofNullable(apiSource.getSwaggerExtensions()).ifPresent(names ->
+                names.forEach(name -> state.record(DocumentState.CLASS + name)));
+        Optional.ofNullable(apiSource.getModelConverters()).ifPresent(names ->
+                names.forEach(name -> state.record(DocumentState.CLASS + name)));
+        // tags, info, host, base path and schemes are taken from definitions
+        for (Class<?> definition : getDefinitionClasses()) {
+            state.record(DocumentState.CLASS + definition.getName());
+        }
+        if (modelSubstitute != null) {
+            state.record(DocumentState.resource(getClass(), modelSubstitute));
+        }
+        if (templatePath != null) {
+            if (templatePath.startsWith(Utils.CLASSPATH)) {
+                String resource = templatePath.substring(Utils.CLASSPATH.length());
+                state.record(DocumentState.resource(getClass(), resource.startsWith("/") ? resource : "/" + resource));
+            } else {
+                state.record(DocumentState.FILE + new File(templatePath).getAbsolutePath());
+            }
+        }
+        if (apiSource.getSecurityDefinitions() != null) {
+            for (SecurityDefinition definition : apiSource.getSecurityDefinitions()) {
+                if (definition.getJson() != null) {
+                    state.record(DocumentState.resource(SecurityDefinition.class, definition.getJson()));
+                } else if (definition.getJsonPath() != null) {
+                    state.record(DocumentState.FILE + new File(definition.getJsonPath()).getAbsolutePath());
+                }
+            }
+        }
+        if (apiSource.getDescriptionFile() != null) {
+            state.record(DocumentState.FILE + apiSource.getDescriptionFile().getAbsolutePath());
+        }
+        if (outputs) {
+            for (File output : outputFiles) {
+                state.record(DocumentState.FILE + output.getAbsolutePath());
+            }
+        }
+        getStateInputs().forEach(state::record);
+    }
+
+    /**
+     * @return files written by this source
+     */
+    List<File> getOutputFiles() {
+        return outputFiles;
+    }
+
+    private String getStateKey() {
+        if (stateKey == null) {
+            Set<String> classes = new TreeSet<>();
+            for (Class<?> cls : getValidClasses()) {
+                classes.add(cls.getName());
+            }
+            for (Class<?> cls : apiSource.getValidClasses(SwaggerDefinition.class)) {
+                classes.add(cls.getName());
+            }
+            Object configuration = getStateConfiguration();
+            stateKey = String.join("\n",
+                    String.valueOf(buildKey),
+                    DocumentState.configuration(apiSource),
+                    configuration == null ? "" : DocumentState.configuration(configuration),
+                    String.valueOf(classes));
+        }
+        return stateKey;
+    }
+
+    /**
+     * @return classes annotated with {@link SwaggerDefinition} in the api source and those the reader took tags from
+     */
+    private Set<Class<?>> getDefinitionClasses() {
+        Set<Class<?>> classes = new LinkedHashSet<>(apiSource.getValidClasses(SwaggerDefinition.class));
+        classes.addAll(tagClasses);
+        return classes;
+    }
+
+    /**
+     * @return configuration object of this source besides its api source, {@code null} if none
+     */
+    protected Object getStateConfiguration() {
+        return null;
+    }
+
+    /**
+     * @return inputs of the documents of this source besides classes, resources and files of its api source
+     */
+    protected Collection<String> getStateInputs() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Resolve the reader within the context of this source. Extensions the reader appends to the JVM-wide list
+     * are added to the context. If the reader replaces the JVM-wide list by an extended copy,
+     * the added extensions are moved into the context, so they neither accumulate over sources
+     * and executions nor apply to other sources.
+     */
+    private ClassSwaggerReader resolveApiReaderInContext() throws GenerateException {
+        synchronized (SwaggerExtensions.class) {
+            DocumentContext.exposeExtensions();
+            List<SwaggerExtension> installed = SwaggerExtensions.getExtensions();
+            List<SwaggerExtension> before = new ArrayList<>(installed);
+            ClassSwaggerReader reader = resolveApiReader();
+            List<SwaggerExtension> after = SwaggerExtensions.getExtensions();
+            if (after != installed && after.size() > before.size() && after.subList(0, before.size()).equals(before)) {
+                context.getExtensions().addAll(after.subList(before.size(), after.size()));
+                SwaggerExtensions.setExtensions(installed);
+            }
+            return reader;
+        }
+    }
+
+    /**
+     * @return extensions, model converters and filter of this source
+     */
+    public DocumentContext getContext() {
+        return context;
     }
 
     private void removeEmptyTags() {
@@ -161,13 +353,13 @@ public abstract class AbstractDocumentSource<D extends AbstractReader> {
         if (filterClassName != null) {
             try {
                 log.debug(String.format("Setting filter configuration: %s", filterClassName));
-                FilterFactory.setFilter((SwaggerSpecFilter) Class.forName(filterClassName).newInstance());
+                context.setFilter((SwaggerSpecFilter) Class.forName(filterClassName).newInstance());
             } catch (Exception e) {
                 throw new GenerateException("Cannot load: " + filterClassName, e);
             }
         }
 
-        SwaggerSpecFilter filter = FilterFactory.getFilter();
+        SwaggerSpecFilter filter = context.getFilter();
         if (filter == null) {
             return;
         }
@@ -198,8 +390,7 @@ public abstract class AbstractDocumentSource<D extends AbstractReader> {
      */
     private void loadSwaggerExtensions() throws GenerateException {
         if (apiSource.getSwaggerExtensions() != null) {
-            List<SwaggerExtension> extensions = SwaggerExtensions.getExtensions();
-            extensions.addAll(resolveSwaggerExtensions());
+            context.getExtensions().addAll(resolveSwaggerExtensions());
         }
     }
 
@@ -239,28 +430,81 @@ public abstract class AbstractDocumentSource<D extends AbstractReader> {
         }
 
         fileName = defaultString(fileName, "swagger");
+        Charset charset = encoding == null ? Charset.defaultCharset() : Charset.forName(encoding);
 
+        Set<Output> outputs = EnumSet.noneOf(Output.class);
         for (String format : outputFormats.split(",")) {
             try {
-                Output output = Output.valueOf(format.toLowerCase());
-                switch (output) {
-                    case json:
-                        ObjectWriter jsonWriter = mapper.writer(new DefaultPrettyPrinter());
-                        FileUtils.write(new File(dir, fileName + ".json"), jsonWriter.writeValueAsString(swagger), encoding);
-                        break;
-                    case yaml:
-                        FileUtils.write(new File(dir, fileName + ".yaml"), Yaml.pretty().writeValueAsString(swagger), encoding);
-                        break;
+                outputs.add(Output.valueOf(format.toLowerCase()));
+            } catch (IllegalArgumentException e) {
+                throw new GenerateException(String.format("Declared output format [%s] is not supported.", format), e);
+            }
+        }
+
+        List<DocumentFile> files = new ArrayList<>();
+        if (outputs.contains(Output.json)) {
+            TokenBuffer document = null;
+            if (apiSource.isMinifiedJson()) {
+                // the model is introspected once for both json documents, which are copied from the buffered tokens
+                document = new TokenBuffer(mapper, false);
+                try {
+                    mapper.writeValue(document, swagger);
+                } catch (IOException e) {
+                    throw new GenerateException("Failed to serialize swagger document", e);
                 }
-            } catch (Exception e) {
-                throw new GenerateException(String.format("Declared output format [%s] is not supported.", format));
+                files.add(new DocumentFile(new File(dir, fileName + ".min.json"), mapper.getFactory(), document, null));
             }
+            files.add(new DocumentFile(new File(dir, fileName + ".json"), mapper.getFactory(), document,
+                    new DefaultPrettyPrinter()));
+        }
+        if (outputs.contains(Output.yaml)) {
+            // the yaml mapper keeps empty arrays and plain example values, so yaml is serialized on its own
+            files.add(new DocumentFile(new File(dir, fileName + ".yaml"), Yaml.mapper().getFactory(), null, null));
+        }
+        for (DocumentFile file : files) {
+            outputFiles.add(file.file);
+        }
+
+        try {
+            files.parallelStream().forEach(file -> {
+                try {
+                    writeDocument(file, charset);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(file.file.getPath(), e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw new GenerateException(String.format("Failed to write swagger document [%s].", e.getMessage()),
+                    e.getCause());
+        }
+    }
+
+    private void writeDocument(DocumentFile file, Charset charset) throws IOException {
+        boolean written = OutputFiles.write(file.file, charset, out -> {
+            try (JsonGenerator generator = file.factory.createGenerator(out)) {
+                if (file.prettyPrinter != null) {
+                    generator.setPrettyPrinter(file.prettyPrinter);
+                }
+                if (file.document == null) {
+                    generator.getCodec().writeValue(generator, swagger);
+                } else {
+                    JsonParser parser = file.document.asParser();
+                    parser.nextToken();
+                    generator.copyCurrentStructure(parser);
+                }
+            }
+        });
+        if (!written) {
+            LOGGER.debug("Swagger document {} is unchanged", file.file);
         }
     }
 
     public void loadModelModifier() throws GenerateException, IOException {
         ObjectMapper objectMapper = Json.mapper();
         if (apiSource.isUseJAXBAnnotationProcessor()) {
+            // modules are registered on a copy, so they do not leak to other sources and executions
+            objectMapper = objectMapper.copy();
+            mapper = objectMapper;
             JaxbAnnotationModule jaxbAnnotationModule = new JaxbAnnotationModule();
             if (apiSource.isUseJAXBAnnotationProcessorAsPrimary()) {
                 jaxbAnnotationModule.setPriority(Priority.PRIMARY);
@@ -302,7 +546,7 @@ public abstract class AbstractDocumentSource<D extends AbstractReader> {
             }
         }
 
-        ModelConverters.getInstance().addConverter(modelModifier);
+        context.addConverter(modelModifier);
     }
 
     public void loadModelConverters() throws MojoExecutionException {
@@ -316,7 +560,7 @@ public abstract class AbstractDocumentSource<D extends AbstractReader> {
                 final Class<?> modelConverterClass = Class.forName(modelConverter);
                 if (ModelConverter.class.isAssignableFrom(modelConverterClass)) {
                     final ModelConverter modelConverterInstance = (ModelConverter) modelConverterClass.newInstance();
-                    ModelConverters.getInstance().addConverter(modelConverterInstance);
+                    context.addConverter(modelConverterInstance);
                 } else {
                     throw new MojoExecutionException(String.format("Class %s has to be a subclass of %s", modelConverterClass.getName(), ModelConverter.class));
                 }
@@ -388,9 +632,6 @@ public abstract class AbstractDocumentSource<D extends AbstractReader> {
         log.info("Writing doc to " + outputPath + "...");
 
         try {
-            FileOutputStream fileOutputStream = new FileOutputStream(outputPath);
-            OutputStreamWriter writer = new OutputStreamWriter(fileOutputStream, Charset.forName("UTF-8"));
-
             TemplatePath tp = Utils.parseTemplateUrl(templatePath);
 
             Handlebars handlebars = new Handlebars(tp.loader);
@@ -398,9 +639,13 @@ public abstract class AbstractDocumentSource<D extends AbstractReader> {
 
             Template template = handlebars.compile(tp.name);
 
-            template.apply(swagger, writer);
-            writer.close();
-            log.info("Done!");
+            File output = new File(outputPath);
+            outputFiles.add(output);
+            if (OutputFiles.write(output, Charset.forName("UTF-8"), writer -> template.apply(swagger, writer))) {
+                log.info("Done!");
+            } else {
+                log.info("Unchanged.");
+            }
         } catch (MalformedURLException e) {
             throw new GenerateException(e);
         } catch (IOException e) {
@@ -454,11 +699,19 @@ public abstract class AbstractDocumentSource<D extends AbstractReader> {
             reader.setTypesToSkip(this.typesToSkip);
             reader.setOperationIdFormat(this.apiSource.getOperationIdFormat());
             reader.setResponseMessageOverrides(this.apiSource.getResponseMessageOverrides());
+            reader.setParallelism(this.apiSource.getReadParallelism());
+            if (reader instanceof JaxrsReader) {
+                ((JaxrsReader) reader).setClassIndex(this.apiSource.getClassIndex());
+            }
             return reader;
         } else {
             ClassSwaggerReader customApiReader = getCustomApiReader(customReaderClassName);
             if (customApiReader instanceof AbstractReader) {
                 ((AbstractReader) customApiReader).setOperationIdFormat(this.apiSource.getOperationIdFormat());
+                ((AbstractReader) customApiReader).setParallelism(this.apiSource.getReadParallelism());
+            }
+            if (customApiReader instanceof JaxrsReader) {
+                ((JaxrsReader) customApiReader).setClassIndex(this.apiSource.getClassIndex());
             }
             return customApiReader;
         }
@@ -525,6 +778,23 @@ enum Output {
     yaml
 }
 
+class DocumentFile {
+    final File file;
+    final JsonFactory factory;
+    /**
+     * Buffered tokens of the document, {@code null} to serialize the model by the codec of the factory
+     */
+    final TokenBuffer document;
+    final PrettyPrinter prettyPrinter;
+
+    DocumentFile(File file, JsonFactory factory, TokenBuffer document, PrettyPrinter prettyPrinter) {
+        this.file = file;
+        this.factory = factory;
+        this.document = document;
+        this.prettyPrinter = prettyPrinter;
+    }
+}
+
 class TemplatePath {
     String prefix;
     String name;
@@ -0,0 +1,64 @@
+package com.github.kongchen.swagger.docgen;
+
+import com.google.common.collect.Iterators;
+import io.swagger.converter.ModelConverter;
+import io.swagger.converter.ModelConverterContext;
+import io.swagger.converter.ModelConverters;
+import io.swagger.models.Model;
+import io.swagger.models.properties.Property;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Iterator;
+
+/**
+ * Head of the JVM-wide converter chain, which runs the converters of the current {@link DocumentContext}
+ * ahead of the rest of the chain
+ */
+class ContextModelConverter implements ModelConverter {
+
+    private static final ContextModelConverter INSTANCE = new ContextModelConverter();
+
+    private static boolean installed;
+
+    /**
+     * Put the converter at the head of the JVM-wide chain, once
+     */
+    static synchronized void install() {
+        if (!installed) {
+            ModelConverters.getInstance().addConverter(INSTANCE);
+            installed = true;
+        }
+    }
+
+    /**
+     * Remove the converter from the JVM-wide chain, if it is installed
+     */
+    static synchronized void uninstall() {
+        if (installed) {
+            ModelConverters.getInstance().removeConverter(INSTANCE);
+            installed = false;
+        }
+    }
+
+    @Override
+    public Property resolveProperty(Type type, ModelConverterContext context, Annotation[] annotations,
+                                    Iterator<ModelConverter> chain) {
+        Iterator<ModelConverter> converters = withContextConverters(chain);
+        return converters.hasNext() ? converters.next().resolveProperty(type, context, annotations, converters) : null;
+    }
+
+    @Override
+    public Model resolve(Type type, ModelConverterContext context, Iterator<ModelConverter> chain) {
+        Iterator<ModelConverter> converters = withContextConverters(chain);
+        return converters.hasNext() ? converters.next().resolve(type, context, converters) : null;
+    }
+
+    private static Iterator<ModelConverter> withContextConverters(Iterator<ModelConverter> chain) {
+        DocumentContext current = DocumentContext.current();
+        if (current == null || current.getConverters().isEmpty()) {
+            return chain;
+        }
+        return Iterators.concat(current.getConverters().iterator(), chain);
+    }
+}
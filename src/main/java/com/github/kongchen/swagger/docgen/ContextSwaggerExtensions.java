@@ -0,0 +1,90 @@
+package com.github.kongchen.swagger.docgen;
+
+import io.swagger.jaxrs.ext.SwaggerExtension;
+import io.swagger.jaxrs.ext.SwaggerExtensions;
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JVM-wide extension list, which ends with the extensions of the current {@link DocumentContext}.
+ * <p>
+ * Readers like the swagger-core one only know {@link SwaggerExtensions#chain()}, and reader constructors
+ * append their extensions to {@link SwaggerExtensions#getExtensions()}. Through this list, both see
+ * the extensions of the source on the calling thread only, so they are never published to other sources.
+ * Elements added past the JVM-wide ones while a context is bound are added to the context.
+ */
+class ContextSwaggerExtensions extends AbstractList<SwaggerExtension> {
+
+    private final List<SwaggerExtension> base;
+
+    private ContextSwaggerExtensions(List<SwaggerExtension> base) {
+        this.base = base;
+    }
+
+    /**
+     * Wrap the JVM-wide extension list, unless it is already wrapped
+     */
+    static void install() {
+        if (SwaggerExtensions.getExtensions() instanceof ContextSwaggerExtensions) {
+            return;
+        }
+        synchronized (SwaggerExtensions.class) {
+            List<SwaggerExtension> extensions = SwaggerExtensions.getExtensions();
+            if (!(extensions instanceof ContextSwaggerExtensions)) {
+                SwaggerExtensions.setExtensions(new ContextSwaggerExtensions(extensions));
+            }
+        }
+    }
+
+    /**
+     * Put back the JVM-wide extension list wrapped by {@link #install()}, if it is wrapped
+     */
+    static void uninstall() {
+        synchronized (SwaggerExtensions.class) {
+            List<SwaggerExtension> extensions = SwaggerExtensions.getExtensions();
+            if (extensions instanceof ContextSwaggerExtensions) {
+                SwaggerExtensions.setExtensions(((ContextSwaggerExtensions) extensions).base);
+            }
+        }
+    }
+
+    private static List<SwaggerExtension> contextExtensions() {
+        DocumentContext context = DocumentContext.current();
+        return context == null ? Collections.emptyList() : context.getExtensions();
+    }
+
+    @Override
+    public SwaggerExtension get(int index) {
+        int size = base.size();
+        return index < size ? base.get(index) : contextExtensions().get(index - size);
+    }
+
+    @Override
+    public int size() {
+        return base.size() + contextExtensions().size();
+    }
+
+    @Override
+    public SwaggerExtension set(int index, SwaggerExtension element) {
+        int size = base.size();
+        return index < size ? base.set(index, element) : contextExtensions().set(index - size, element);
+    }
+
+    @Override
+    public void add(int index, SwaggerExtension element) {
+        int size = base.size();
+        if (index < size || DocumentContext.current() == null) {
+            base.add(index, element);
+        } else {
+            contextExtensions().add(index - size, element);
+        }
+    }
+
+    @Override
+    public SwaggerExtension remove(int index) {
+        int size = base.size();
+        return index < size ? base.remove(index) : contextExtensions().remove(index - size);
+    }
+}
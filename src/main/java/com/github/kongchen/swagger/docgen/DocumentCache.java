@@ -0,0 +1,268 @@
+package com.github.kongchen.swagger.docgen;
+
+import com.github.kongchen.swagger.docgen.mavenplugin.ApiSource;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Generated documents of api sources, shared by builds of any workspace.
+ * <p>
+ * An entry is keyed by the execution, the configuration of an api source and a digest of the whole classpath:
+ * the content of the files in class directories and the checksums of the entries of jars.
+ * The key is computed without scanning or loading any class, so a hit restores the documents
+ * without reading the api source at all. Files the documents were generated from besides the classpath,
+ * like nginx configs, templates and security definitions, are verified by their fingerprints before restoring.
+ * <p>
+ * Neither the key nor an entry depends on where the project is checked out: classpath elements are keyed
+ * by their content only, paths within the project directory are stored relative to it, and documents
+ * relative to the output directories of the api source, which they are restored into.
+ */
+public final class DocumentCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DocumentCache.class);
+
+    private static final int MAGIC = 0x53574743;
+
+    private static final int VERSION = 2;
+
+    private static final String OUTPUTS = "outputs.bin";
+
+    private final File directory;
+
+    private final String basedir;
+
+    private final List<String> classpath;
+
+    private String classpathDigest;
+
+    /**
+     * @param directory directory of the cache
+     * @param basedir   directory of the project, {@code null} to key paths within it as they are
+     * @param classpath classpath elements the documents are generated from
+     */
+    public DocumentCache(File directory, File basedir, List<String> classpath) {
+        this.directory = directory;
+        this.basedir = basedir == null ? null : basedir.getAbsolutePath();
+        this.classpath = classpath;
+    }
+
+    /**
+     * @param buildKey       identity of the execution, e.g. the plugin version
+     * @param configurations configuration objects of the api source, {@code null} elements are skipped
+     * @return key of the documents of the api source
+     * @throws IOException if the classpath failed to be digested
+     */
+    public String key(String buildKey, Object... configurations) throws IOException {
+        StringBuilder sb = new StringBuilder(String.valueOf(buildKey));
+        for (Object configuration : configurations) {
+            sb.append('\n').append(configuration == null
+                    ? ""
+                    : DocumentState.relativize(DocumentState.configuration(configuration), basedir));
+        }
+        return sb.append('\n').append(getClasspathDigest()).toString();
+    }
+
+    private synchronized String getClasspathDigest() throws IOException {
+        if (classpathDigest == null) {
+            try {
+                String digests = classpath.parallelStream()
+                        .map(element -> digest(new File(element)))
+                        .collect(Collectors.joining("\n"));
+                classpathDigest = hash(digests);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        return classpathDigest;
+    }
+
+    private static String digest(File element) {
+        try {
+            if (element.isDirectory()) {
+                Path root = element.toPath();
+                try (Stream<Path> files = Files.walk(root)) {
+                    List<Path> sorted = files.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+                    StringBuilder sb = new StringBuilder();
+                    for (Path file : sorted) {
+                        try (InputStream in = Files.newInputStream(file)) {
+                            sb.append(root.relativize(file).toString().replace(File.separatorChar, '/'))
+                                    .append(' ').append(DocumentState.hash(in)).append('\n');
+                        }
+                    }
+                    return hash(sb.toString());
+                }
+            }
+            if (element.isFile()) {
+                // checksums are read from the central directory, so no entry is inflated
+                try (ZipFile zip = new ZipFile(element)) {
+                    List<ZipEntry> entries = zip.stream()
+                            .sorted((a, b) -> a.getName().compareTo(b.getName()))
+                            .collect(Collectors.toList());
+                    StringBuilder sb = new StringBuilder();
+                    for (ZipEntry entry : entries) {
+                        sb.append(entry.getName()).append(' ').append(entry.getCrc())
+                                .append(' ').append(entry.getSize()).append('\n');
+                    }
+                    return hash(sb.toString());
+                }
+            }
+            return "-";
+        } catch (IOException e) {
+            throw new UncheckedIOException(element.getPath(), e);
+        }
+    }
+
+    private static String hash(String value) throws IOException {
+        return DocumentState.hash(new ByteArrayInputStream(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private File entry(String key) throws IOException {
+        return new File(directory, hash(key));
+    }
+
+    /**
+     * Restore the documents of a key, unless they are missing or a file they were generated from changed
+     *
+     * @param key       key of the documents
+     * @param apiSource api source of the documents, whose output directories they are restored into
+     * @return {@code true} if the documents were restored
+     */
+    public boolean restore(String key, ApiSource apiSource) {
+        try {
+            File entry = entry(key);
+            File index = new File(entry, OUTPUTS);
+            if (!index.isFile() || !new DocumentState(entry, toFile(basedir)).isUpToDate(key)) {
+                return false;
+            }
+            List<File> roots = outputRoots(apiSource);
+            List<File> outputs = new ArrayList<>();
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(index)))) {
+                if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                    return false;
+                }
+                for (int i = in.readInt(); i > 0; i--) {
+                    int root = in.readInt();
+                    String path = in.readUTF();
+                    if (root < 0 || root >= roots.size() || roots.get(root) == null) {
+                        return false;
+                    }
+                    outputs.add(path.isEmpty() ? roots.get(root) : new File(roots.get(root), path));
+                }
+            }
+            for (int i = 0; i < outputs.size(); i++) {
+                if (!new File(entry, String.valueOf(i)).isFile()) {
+                    return false;
+                }
+            }
+            for (int i = 0; i < outputs.size(); i++) {
+                Path copy = new File(entry, String.valueOf(i)).toPath();
+                File output = outputs.get(i);
+                FileUtils.forceMkdir(output.getAbsoluteFile().getParentFile());
+                OutputFiles.write(output, out -> Files.copy(copy, out));
+            }
+            LOGGER.debug("Restored {} documents from {}", outputs.size(), entry);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Unable to restore documents from cache {}: {}", directory, e.toString());
+            return false;
+        }
+    }
+
+    /**
+     * @return template output and swagger directory of the api source, {@code null} elements if not configured
+     */
+    private static List<File> outputRoots(ApiSource apiSource) {
+        return Arrays.asList(toFile(apiSource.getOutputPath()), toFile(apiSource.getSwaggerDirectory()));
+    }
+
+    private static File toFile(String path) {
+        return path == null ? null : new File(path);
+    }
+
+    /**
+     * Store the documents written by a source, along with the files they were generated from
+     *
+     * @param key    key of the documents
+     * @param source source which wrote the documents
+     */
+    public void store(String key, AbstractDocumentSource<?> source) {
+        List<File> outputs = source.getOutputFiles();
+        if (outputs.isEmpty()) {
+            return;
+        }
+        List<File> roots = outputRoots(source.apiSource);
+        try {
+            File entry = entry(key);
+            FileUtils.forceMkdir(directory);
+            Path tmp = Files.createTempDirectory(directory.toPath(), entry.getName() + ".");
+            try {
+                DocumentState state = new DocumentState(tmp.toFile(), toFile(basedir));
+                source.recordInputs(state, false);
+                state.save(key);
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                        new FileOutputStream(new File(tmp.toFile(), OUTPUTS))))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    out.writeInt(outputs.size());
+                    for (int i = 0; i < outputs.size(); i++) {
+                        File output = outputs.get(i);
+                        writeOutput(out, roots, output);
+                        Files.copy(output.toPath(), tmp.resolve(String.valueOf(i)));
+                    }
+                }
+                // an outdated entry of the key is replaced
+                FileUtils.deleteDirectory(entry);
+                Files.move(tmp, entry.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                if (Files.exists(tmp)) {
+                    FileUtils.deleteDirectory(tmp.toFile());
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Unable to store documents in cache {}: {}", directory, e.toString());
+        }
+    }
+
+    /**
+     * Write the output as the index of the first output root containing it and its path relative to that root
+     */
+    private static void writeOutput(DataOutputStream out, List<File> roots, File output) throws IOException {
+        Path path = output.toPath().toAbsolutePath().normalize();
+        for (int i = 0; i < roots.size(); i++) {
+            if (roots.get(i) == null) {
+                continue;
+            }
+            Path root = roots.get(i).toPath().toAbsolutePath().normalize();
+            if (path.startsWith(root)) {
+                out.writeInt(i);
+                out.writeUTF(root.relativize(path).toString().replace(File.separatorChar, '/'));
+                return;
+            }
+        }
+        throw new IOException("Document " + output + " is outside of the output directories");
+    }
+}
@@ -0,0 +1,194 @@
+package com.github.kongchen.swagger.docgen;
+
+import com.google.common.collect.Iterators;
+import io.swagger.config.FilterFactory;
+import io.swagger.converter.ModelConverter;
+import io.swagger.converter.ModelConverters;
+import io.swagger.core.filter.SwaggerSpecFilter;
+import io.swagger.jaxrs.ext.SwaggerExtension;
+import io.swagger.jaxrs.ext.SwaggerExtensions;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Swagger extensions, model converters and spec filter of a single document source.
+ * <p>
+ * swagger-core keeps these in JVM-wide singletons. While a context is bound to a thread,
+ * the extension chain, model resolution by {@link ModelConverters#getInstance()} and spec filtering
+ * use the context instead, so document sources can be generated concurrently
+ * without seeing each other's configuration.
+ */
+public class DocumentContext {
+
+    private static final ThreadLocal<DocumentContext> CURRENT = new ThreadLocal<>();
+
+    private static int executions;
+
+    private final List<ModelConverter> converters = new CopyOnWriteArrayList<>();
+
+    private final List<SwaggerExtension> extensions = new CopyOnWriteArrayList<>();
+
+    private volatile SwaggerSpecFilter filter = FilterFactory.getFilter();
+
+    private volatile ModelCache modelCache = new ModelCache(ModelCache.DEFAULT_CAPACITY);
+
+    /**
+     * @return context bound to the current thread, {@code null} if none
+     */
+    public static DocumentContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @return extension chain of the current context, or the JVM-wide one if no context is bound
+     */
+    public static Iterator<SwaggerExtension> extensionChain() {
+        DocumentContext context = current();
+        if (context == null || context.extensions.isEmpty()
+                || SwaggerExtensions.getExtensions() instanceof ContextSwaggerExtensions) {
+            return SwaggerExtensions.chain();
+        }
+        return Iterators.concat(SwaggerExtensions.chain(), context.extensions.iterator());
+    }
+
+    /**
+     * Make the JVM-wide extension list end with the extensions of the context bound to the calling thread,
+     * for readers which only know {@link SwaggerExtensions#chain()}.
+     * Extensions appended to the JVM-wide list while a context is bound are added to the context.
+     */
+    public static void exposeExtensions() {
+        ContextSwaggerExtensions.install();
+    }
+
+    /**
+     * Start an execution using contexts, e.g. a plugin execution generating its sources in parallel
+     */
+    public static synchronized void beginExecution() {
+        executions++;
+    }
+
+    /**
+     * End an execution started by {@link #beginExecution()}.
+     * Once no execution is running, the JVM-wide extension list and converter chain contexts were installed into
+     * are restored, so swagger-core is left as it was found.
+     */
+    public static synchronized void endExecution() {
+        if (executions > 0 && --executions == 0) {
+            ContextSwaggerExtensions.uninstall();
+            ContextModelConverter.uninstall();
+        }
+    }
+
+    /**
+     * Wrap a task to run within the context bound to the calling thread, e.g. on a worker thread
+     *
+     * @param task task
+     * @param <T>  result type
+     * @return task running within the context
+     */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        DocumentContext context = current();
+        return context == null ? task : () -> context.call(task);
+    }
+
+    /**
+     * Get the extensions of this context, which follow the JVM-wide ones in its chain.
+     * The list may be modified to change the extensions of this context only.
+     *
+     * @return mutable list of extensions
+     */
+    public List<SwaggerExtension> getExtensions() {
+        return extensions;
+    }
+
+    /**
+     * Add a model converter ahead of the converters of this context,
+     * as {@link ModelConverters#addConverter(ModelConverter)} does for the JVM-wide chain.
+     * Cached models of this context are dropped.
+     *
+     * @param converter model converter
+     */
+    public void addConverter(ModelConverter converter) {
+        ContextModelConverter.install();
+        converters.add(0, converter);
+        modelCache.clear();
+    }
+
+    /**
+     * @return converters of this context, in chain order
+     */
+    public List<ModelConverter> getConverters() {
+        return converters;
+    }
+
+    /**
+     * @return cache of models resolved by the converters of this context
+     */
+    public ModelCache getModelCache() {
+        return modelCache;
+    }
+
+    public void setModelCache(ModelCache modelCache) {
+        this.modelCache = modelCache;
+    }
+
+    public SwaggerSpecFilter getFilter() {
+        return filter;
+    }
+
+    public void setFilter(SwaggerSpecFilter filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Run an action with this context bound to the current thread
+     *
+     * @param action action
+     * @param <E>    exception thrown by the action
+     * @throws E if the action fails
+     */
+    public <E extends Exception> void run(Action<E> action) throws E {
+        DocumentContext previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            action.run();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Call a task with this context bound to the current thread
+     *
+     * @param task task
+     * @param <T>  result type
+     * @return task result
+     * @throws Exception if the task fails
+     */
+    public <T> T call(Callable<T> task) throws Exception {
+        DocumentContext previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return task.call();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    private static void restore(DocumentContext previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Action<E extends Exception> {
+
+        void run() throws E;
+    }
+}
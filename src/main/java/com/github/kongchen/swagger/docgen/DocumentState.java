@@ -0,0 +1,392 @@
+package com.github.kongchen.swagger.docgen;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.github.kongchen.swagger.docgen.nginx.NginxConfigCache;
+import io.swagger.converter.ModelConverter;
+import io.swagger.converter.ModelConverterContext;
+import io.swagger.models.Model;
+import io.swagger.models.properties.Property;
+import io.swagger.util.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * State of a document source kept between builds.
+ * <p>
+ * Along with the configuration of the source and the resource classes it read, every input of the generation
+ * is stored with its fingerprint: the class files of the resources, their supertypes and signature types,
+ * of every model class resolved and of configured classes, configured resources and files,
+ * nginx config files and the written outputs. While all of them are unchanged the documents of the source
+ * would be generated the same, so the source needs neither be read nor written again.
+ */
+class DocumentState {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DocumentState.class);
+
+    private static final int MAGIC = 0x53574753;
+
+    private static final int VERSION = 1;
+
+    static final String CLASS = "class:";
+
+    static final String RESOURCE = "resource:";
+
+    static final String FILE = "file:";
+
+    private static final String MISSING = "-";
+
+    private static final ObjectMapper CONFIGURATION_MAPPER = Json.mapper().copy()
+            .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+            .configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
+
+    private static final String BASEDIR = "${basedir}";
+
+    private final File directory;
+
+    private final String basedir;
+
+    private final Set<String> inputs = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param directory directory of states
+     */
+    DocumentState(File directory) {
+        this(directory, null);
+    }
+
+    /**
+     * @param directory directory of states
+     * @param basedir   directory paths of stored inputs are relative to, so the state holds for any checkout
+     *                  of the project, {@code null} to store absolute paths
+     */
+    DocumentState(File directory, File basedir) {
+        this.directory = directory;
+        this.basedir = basedir == null ? null : basedir.getAbsolutePath();
+    }
+
+    /**
+     * @param value   rendered value
+     * @param basedir base directory, {@code null} to keep the value as is
+     * @return value with the base directory, also as escaped in JSON, replaced by a placeholder
+     */
+    static String relativize(String value, String basedir) {
+        if (basedir == null) {
+            return value;
+        }
+        String escaped = basedir.replace("\\", "\\\\");
+        return value.replace(basedir, BASEDIR).replace(escaped, BASEDIR);
+    }
+
+    private String resolve(String input) {
+        return basedir == null ? input : input.replace(BASEDIR, basedir);
+    }
+
+    /**
+     * Render the fields of a configuration object, in a stable order.
+     * Transient fields hold derived state and are not rendered.
+     *
+     * @param configuration configuration object
+     * @return rendered parameters
+     */
+    static String configuration(Object configuration) {
+        Map<String, String> parameters = new TreeMap<>();
+        for (Class<?> type = configuration.getClass(); type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (field.isSynthetic() || Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) {
+                    continue;
+                }
+                try {
+                    field.setAccessible(true);
+                    Object value = field.get(configuration);
+                    String rendered;
+                    try {
+                        rendered = CONFIGURATION_MAPPER.writeValueAsString(value);
+                    } catch (IOException | RuntimeException e) {
+                        rendered = String.valueOf(value);
+                    }
+                    parameters.putIfAbsent(field.getName(), rendered);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+        return parameters.toString();
+    }
+
+    /**
+     * @param base class the resource is loaded by
+     * @param name name of the resource, as given to {@link Class#getResourceAsStream(String)}
+     * @return input of the resource
+     */
+    static String resource(Class<?> base, String name) {
+        if (name.startsWith("/")) {
+            return RESOURCE + name.substring(1);
+        }
+        String packageName = base.getName().substring(0, base.getName().lastIndexOf('.') + 1);
+        return RESOURCE + packageName.replace('.', '/') + name;
+    }
+
+    /**
+     * @param input input of a generation
+     * @return current fingerprint of the input
+     */
+    static String fingerprint(String input) {
+        try {
+            if (input.startsWith(CLASS)) {
+                return fingerprintResource(input.substring(CLASS.length()).replace('.', '/') + ".class");
+            }
+            if (input.startsWith(RESOURCE)) {
+                return fingerprintResource(input.substring(RESOURCE.length()));
+            }
+            if (input.startsWith(FILE)) {
+                File file = new File(input.substring(FILE.length()));
+                if (!file.isFile()) {
+                    return MISSING;
+                }
+                try (InputStream in = new FileInputStream(file)) {
+                    return hash(in);
+                }
+            }
+            String fingerprint = NginxConfigCache.fingerprint(input);
+            return fingerprint == null ? MISSING : fingerprint;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.debug("Unable to fingerprint {}: {}", input, e.toString());
+            return MISSING;
+        }
+    }
+
+    private static String fingerprintResource(String name) throws IOException {
+        ClassLoader loader = DocumentState.class.getClassLoader();
+        try (InputStream in = loader.getResourceAsStream(name)) {
+            return in == null ? MISSING : hash(in);
+        }
+    }
+
+    static String hash(InputStream in) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    private File file(String key) throws IOException {
+        return new File(directory, hash(new ByteArrayInputStream(key.getBytes(StandardCharsets.UTF_8))) + ".bin");
+    }
+
+    /**
+     * @return inputs recorded
+     */
+    Set<String> getInputs() {
+        return new TreeSet<>(inputs);
+    }
+
+    /**
+     * Record an input of the generation
+     *
+     * @param input input, e.g. {@link #FILE} followed by the absolute path of a file
+     */
+    void record(String input) {
+        inputs.add(input);
+    }
+
+    /**
+     * Record a class with its supertypes. Classes of the platform are not recorded.
+     *
+     * @param cls class
+     */
+    void record(Class<?> cls) {
+        while (cls != null && cls.isArray()) {
+            cls = cls.getComponentType();
+        }
+        if (cls == null || cls.isPrimitive() || cls.getClassLoader() == null
+                || !inputs.add(CLASS + cls.getName())) {
+            return;
+        }
+        record(cls.getSuperclass());
+        for (Class<?> anInterface : cls.getInterfaces()) {
+            record(anInterface);
+        }
+    }
+
+    /**
+     * Record the classes of a type, including its type arguments
+     *
+     * @param type type
+     */
+    void record(Type type) {
+        if (type != null) {
+            record(TypeFactory.defaultInstance().constructType(type));
+        }
+    }
+
+    private void record(JavaType type) {
+        record(type.getRawClass());
+        for (int i = 0; i < type.containedTypeCount(); i++) {
+            record(type.containedType(i));
+        }
+    }
+
+    /**
+     * Record a resource class, its supertypes and the types of the signatures of its methods
+     *
+     * @param cls resource class
+     */
+    void recordResource(Class<?> cls) {
+        record(cls);
+        for (Method method : cls.getMethods()) {
+            record(method.getGenericReturnType());
+            for (Type type : method.getGenericParameterTypes()) {
+                record(type);
+            }
+        }
+    }
+
+    /**
+     * @return model converter recording every type resolved by the converters following it
+     */
+    ModelConverter recorder() {
+        return new ModelConverter() {
+            @Override
+            public Property resolveProperty(Type type, ModelConverterContext context, Annotation[] annotations,
+                                            Iterator<ModelConverter> chain) {
+                record(type);
+                return chain.hasNext() ? chain.next().resolveProperty(type, context, annotations, chain) : null;
+            }
+
+            @Override
+            public Model resolve(Type type, ModelConverterContext context, Iterator<ModelConverter> chain) {
+                record(type);
+                return chain.hasNext() ? chain.next().resolve(type, context, chain) : null;
+            }
+        };
+    }
+
+    /**
+     * @param key identity of the generation: the configuration and the resource classes of the source
+     * @return {@code true} if the state of a generation with the key is stored and all its inputs are unchanged
+     */
+    boolean isUpToDate(String key) {
+        try {
+            File file = file(key);
+            if (!file.isFile()) {
+                return false;
+            }
+            Map<String, String> stored = new TreeMap<>();
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                if (in.readInt() != MAGIC || in.readInt() != VERSION || !key.equals(readString(in))) {
+                    return false;
+                }
+                for (int i = in.readInt(); i > 0; i--) {
+                    stored.put(resolve(in.readUTF()), in.readUTF());
+                }
+            }
+            return stored.entrySet().parallelStream().allMatch(input -> {
+                if (input.getValue().equals(fingerprint(input.getKey()))) {
+                    return true;
+                }
+                LOGGER.debug("Outdated document state {}: {} changed", file, input.getKey());
+                return false;
+            });
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Ignoring unreadable document state in {}: {}", directory, e.toString());
+            return false;
+        }
+    }
+
+    /**
+     * Store the recorded inputs with their current fingerprints
+     *
+     * @param key identity of the generation
+     */
+    void save(String key) {
+        Map<String, String> fingerprints = new TreeMap<>();
+        inputs.parallelStream().forEach(input -> {
+            String fingerprint = fingerprint(input);
+            synchronized (fingerprints) {
+                fingerprints.put(input, fingerprint);
+            }
+        });
+        try {
+            File file = file(key);
+            Files.createDirectories(directory.toPath());
+            File tmp = File.createTempFile(file.getName(), ".tmp", directory);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                writeString(out, key);
+                out.writeInt(fingerprints.size());
+                for (Map.Entry<String, String> input : fingerprints.entrySet()) {
+                    out.writeUTF(relativize(input.getKey(), basedir));
+                    out.writeUTF(input.getValue());
+                }
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to write document state to {}: {}", directory, e.toString());
+        }
+    }
+
+    /**
+     * Keys may exceed the length limit of {@link DataOutputStream#writeUTF(String)}
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Invalid string length: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
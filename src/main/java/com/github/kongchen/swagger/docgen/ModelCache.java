@@ -0,0 +1,458 @@
+package com.github.kongchen.swagger.docgen;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.TreeNode;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.jsontype.NamedType;
+import com.fasterxml.jackson.databind.jsontype.TypeDeserializer;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.jsontype.impl.StdTypeResolverBuilder;
+import io.swagger.converter.ModelConverters;
+import io.swagger.models.Model;
+import io.swagger.models.properties.Property;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of model resolution by {@link ModelConverters}, keyed by type.
+ * <p>
+ * Every resolution introspects the whole type graph again, although readers resolve
+ * the same request and response types for many operations. Results depend on the converter chain,
+ * including the model modifier with its substitutions, so a cache belongs to a single {@link DocumentContext}
+ * and is cleared whenever a converter is added to it.
+ * <p>
+ * Resolved models are mutable and callers change them while building operations,
+ * so results are deep copied into and out of the cache: every caller gets its own instances,
+ * equal to a fresh resolution. Swagger models are copied field by field, sharing only immutable values
+ * like references. Models and properties of custom converters are copied by a JSON round trip of their fields.
+ * Results which can not be copied are not cached.
+ */
+public class ModelCache {
+
+    /**
+     * Default maximum number of cached results
+     */
+    public static final int DEFAULT_CAPACITY = 1000;
+
+    private static final ModelCache DISABLED = new ModelCache(0);
+
+    private static final Object NULL = new Object();
+
+    private static final Object UNCACHEABLE = new Object();
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ModelCache.class);
+
+    private static final String MODELS_PACKAGE = "io.swagger.models.";
+
+    private static final Map<Class<?>, Copier> COPIERS = new ConcurrentHashMap<>();
+
+    /**
+     * Mapper writing the fields of custom converter values along with their classes, regardless of their
+     * JSON annotations, so values are read back as exact copies of the same classes
+     */
+    private static final ObjectMapper COPY_MAPPER = new ObjectMapper()
+            .configure(MapperFeature.USE_ANNOTATIONS, false)
+            .configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false)
+            .setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE)
+            .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
+            .setDefaultTyping(new CopyTyping());
+
+    private final int capacity;
+
+    private final Map<Key, Object> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param capacity maximum number of cached results, 0 to disable caching
+     */
+    public ModelCache(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Cache capacity must not be negative: " + capacity);
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<Key, Object>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+                return size() > ModelCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * @return cache of the current {@link DocumentContext}, or a disabled one if no context is bound
+     */
+    public static ModelCache current() {
+        DocumentContext context = DocumentContext.current();
+        return context == null ? DISABLED : context.getModelCache();
+    }
+
+    /**
+     * @param type type
+     * @return models as {@link ModelConverters#read(Type)} resolves them
+     */
+    public Map<String, Model> read(Type type) {
+        return get(Kind.READ, type, () -> ModelConverters.getInstance().read(type));
+    }
+
+    /**
+     * @param type type
+     * @return models as {@link ModelConverters#readAll(Type)} resolves them
+     */
+    public Map<String, Model> readAll(Type type) {
+        return get(Kind.READ_ALL, type, () -> ModelConverters.getInstance().readAll(type));
+    }
+
+    /**
+     * @param type type
+     * @return property as {@link ModelConverters#readAsProperty(Type)} resolves it
+     */
+    public Property readAsProperty(Type type) {
+        return get(Kind.PROPERTY, type, () -> ModelConverters.getInstance().readAsProperty(type));
+    }
+
+    /**
+     * Drop every cached result, e.g. when the converter chain changes
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(Kind kind, Type type, Supplier<T> resolver) {
+        if (capacity == 0 || type == null) {
+            return resolver.get();
+        }
+        Key key = new Key(kind, type);
+        Object cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+        if (cached == NULL) {
+            hits.incrementAndGet();
+            return null;
+        }
+        if (cached != null && cached != UNCACHEABLE) {
+            Object value = copyOrNull(cached);
+            if (value != null) {
+                hits.incrementAndGet();
+                return (T) value;
+            }
+        }
+        misses.incrementAndGet();
+        T result = resolver.get();
+        if (cached == null) {
+            Object entry = result == null ? NULL : copyOrNull(result);
+            synchronized (entries) {
+                entries.put(key, entry == null ? UNCACHEABLE : entry);
+            }
+        } else if (cached != UNCACHEABLE) {
+            synchronized (entries) {
+                entries.put(key, UNCACHEABLE);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return copy of the value, or {@code null} if it can not be copied and must not be cached
+     */
+    private static Object copyOrNull(Object value) {
+        try {
+            return copy(value, new IdentityHashMap<>());
+        } catch (NotCopyableException e) {
+            LOGGER.debug("Not caching {}: {}", value.getClass().getName(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Copy swagger models with their collections, keeping shared instances shared
+     */
+    @SuppressWarnings("unchecked")
+    private static Object copy(Object value, Map<Object, Object> copies) throws NotCopyableException {
+        if (value == null) {
+            return null;
+        }
+        Object copy = copies.get(value);
+        if (copy != null) {
+            return copy;
+        }
+        if (value instanceof Map) {
+            Map<Object, Object> map = (Map<Object, Object>) value;
+            Map<Object, Object> mapCopy = newMap(map);
+            copies.put(value, mapCopy);
+            for (Map.Entry<Object, Object> entry : map.entrySet()) {
+                mapCopy.put(entry.getKey(), copy(entry.getValue(), copies));
+            }
+            return mapCopy;
+        }
+        if (value instanceof Collection) {
+            Collection<Object> collection = (Collection<Object>) value;
+            Collection<Object> collectionCopy = value instanceof Set ? new LinkedHashSet<>() : new ArrayList<>();
+            copies.put(value, collectionCopy);
+            for (Object element : collection) {
+                collectionCopy.add(copy(element, copies));
+            }
+            return collectionCopy;
+        }
+        Class<?> type = value.getClass();
+        if (type.isEnum() || isImmutable(type)) {
+            return value;
+        }
+        if (value instanceof Date) {
+            return new Date(((Date) value).getTime());
+        }
+        if (type.getName().startsWith(MODELS_PACKAGE)) {
+            return COPIERS.computeIfAbsent(type, Copier::new).copy(value, copies);
+        }
+        if (type.getName().startsWith("java.")) {
+            throw new NotCopyableException("Unsupported value " + type.getName());
+        }
+        copy = readCopy(value);
+        copies.put(value, copy);
+        return copy;
+    }
+
+    private static boolean isImmutable(Class<?> type) {
+        Package p = type.getPackage();
+        return p != null && (p.getName().equals("java.lang") || p.getName().equals("java.math"))
+                && !StringBuilder.class.equals(type) && !StringBuffer.class.equals(type);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Object, Object> newMap(Map<Object, Object> map) throws NotCopyableException {
+        if (map instanceof SortedMap) {
+            return new TreeMap<>(((SortedMap<Object, Object>) map).comparator());
+        }
+        if (map.getClass() == LinkedHashMap.class) {
+            return new LinkedHashMap<>();
+        }
+        // entries are put in iteration order into a map grown the same way, which keeps hash map order
+        try {
+            Constructor<?> constructor = map.getClass().getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return (Map<Object, Object>) constructor.newInstance();
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return new LinkedHashMap<>();
+        }
+    }
+
+    /**
+     * Copy a value of a custom converter by a JSON round trip of its fields
+     */
+    private static Object readCopy(Object value) throws NotCopyableException {
+        try {
+            return COPY_MAPPER.readValue(COPY_MAPPER.writeValueAsBytes(new Entry(value)), Entry.class).value;
+        } catch (IOException | RuntimeException e) {
+            throw new NotCopyableException(e.toString());
+        }
+    }
+
+    /**
+     * Copier of a swagger model class: fields are copied into a new instance,
+     * and instances of classes without a default constructor and with final fields only are shared
+     */
+    private static final class Copier {
+
+        private final Class<?> type;
+
+        private final Constructor<?> constructor;
+
+        private final List<Field> fields = new ArrayList<>();
+
+        private final boolean immutable;
+
+        Copier(Class<?> type) {
+            this.type = type;
+            boolean allFinal = true;
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        field.setAccessible(true);
+                        fields.add(field);
+                        allFinal &= Modifier.isFinal(field.getModifiers());
+                    }
+                }
+            }
+            Constructor<?> defaultConstructor;
+            try {
+                defaultConstructor = type.getDeclaredConstructor();
+                defaultConstructor.setAccessible(true);
+            } catch (NoSuchMethodException | RuntimeException e) {
+                defaultConstructor = null;
+            }
+            this.constructor = defaultConstructor;
+            this.immutable = defaultConstructor == null && allFinal;
+        }
+
+        Object copy(Object value, Map<Object, Object> copies) throws NotCopyableException {
+            if (immutable) {
+                // final fields of shared instances must not hold mutable values
+                for (Field field : fields) {
+                    Object fieldValue = get(field, value);
+                    if (fieldValue != null && !fieldValue.getClass().isEnum() && !isImmutable(fieldValue.getClass())) {
+                        throw new NotCopyableException("Mutable field " + field + " of " + type.getName());
+                    }
+                }
+                copies.put(value, value);
+                return value;
+            }
+            if (constructor == null) {
+                throw new NotCopyableException("No default constructor of " + type.getName());
+            }
+            Object instance;
+            try {
+                instance = constructor.newInstance();
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                throw new NotCopyableException("Failed to create " + type.getName() + ": " + e);
+            }
+            copies.put(value, instance);
+            for (Field field : fields) {
+                try {
+                    field.set(instance, copy(get(field, value), copies));
+                } catch (IllegalAccessException e) {
+                    throw new NotCopyableException("Failed to copy " + field + ": " + e);
+                }
+            }
+            return instance;
+        }
+
+        private static Object get(Field field, Object value) throws NotCopyableException {
+            try {
+                return field.get(value);
+            } catch (IllegalAccessException e) {
+                throw new NotCopyableException("Failed to read " + field + ": " + e);
+            }
+        }
+    }
+
+    private static final class NotCopyableException extends Exception {
+
+        NotCopyableException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Holder of a copied value, so its type is written along with it
+     */
+    private static final class Entry {
+
+        private Object value;
+
+        private Entry() {
+        }
+
+        private Entry(Object value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * Type information of non-final types, written so every value is read back as its original class
+     */
+    private static final class CopyTyping extends StdTypeResolverBuilder {
+
+        CopyTyping() {
+            init(JsonTypeInfo.Id.CLASS, null);
+            inclusion(JsonTypeInfo.As.WRAPPER_ARRAY);
+        }
+
+        @Override
+        public TypeSerializer buildTypeSerializer(SerializationConfig config, JavaType baseType,
+                                                  Collection<NamedType> subtypes) {
+            return isTyped(baseType) ? super.buildTypeSerializer(config, baseType, subtypes) : null;
+        }
+
+        @Override
+        public TypeDeserializer buildTypeDeserializer(DeserializationConfig config, JavaType baseType,
+                                                      Collection<NamedType> subtypes) {
+            return isTyped(baseType) ? super.buildTypeDeserializer(config, baseType, subtypes) : null;
+        }
+
+        private static boolean isTyped(JavaType type) {
+            while (type.isArrayType()) {
+                type = type.getContentType();
+            }
+            return !type.isFinal() && !type.isPrimitive() && !TreeNode.class.isAssignableFrom(type.getRawClass());
+        }
+    }
+
+    private enum Kind {
+        READ, READ_ALL, PROPERTY
+    }
+
+    private static final class Key {
+
+        private final Kind kind;
+
+        private final Type type;
+
+        Key(Kind kind, Type type) {
+            this.kind = kind;
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return kind == key.kind && type.equals(key.type);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, type);
+        }
+    }
+}
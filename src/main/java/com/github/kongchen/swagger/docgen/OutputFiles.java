@@ -0,0 +1,114 @@
+package com.github.kongchen.swagger.docgen;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Writes of generated documents.
+ * <p>
+ * A document is written to a temporary file next to its output file, and hashed as it is written.
+ * The temporary file then replaces the output file, so readers never see a partially written document.
+ * An output file which already has the same content is left untouched instead,
+ * so its modification time doesn't trigger later build steps. The existing file is hashed as a stream.
+ * Unlike {@link Files#createTempFile}, the temporary file is created with the default permissions,
+ * so written documents are readable as any file the build creates.
+ */
+final class OutputFiles {
+
+    /**
+     * Content of a document
+     */
+    interface Content {
+
+        void writeTo(Writer writer) throws IOException;
+    }
+
+    /**
+     * Binary content of a document
+     */
+    interface BinaryContent {
+
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private OutputFiles() {
+    }
+
+    /**
+     * @param file    output file
+     * @param charset charset of the document
+     * @param content content of the document
+     * @return if the output file was written, {@code false} if it already had the same content
+     * @throws IOException if the document failed to be written
+     */
+    static boolean write(File file, Charset charset, Content content) throws IOException {
+        return write(file, out -> {
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, charset))) {
+                content.writeTo(writer);
+            }
+        });
+    }
+
+    /**
+     * @param file    output file
+     * @param content content of the document
+     * @return if the output file was written, {@code false} if it already had the same content
+     * @throws IOException if the document failed to be written
+     */
+    static boolean write(File file, BinaryContent content) throws IOException {
+        Path target = file.toPath().toAbsolutePath();
+        Path tmp = File.createTempFile("." + file.getName() + "-", ".tmp", target.getParent().toFile()).toPath();
+        try {
+            MessageDigest digest = newDigest();
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(tmp), digest)) {
+                content.writeTo(out);
+            }
+            if (Files.isRegularFile(target)
+                    && Files.size(target) == Files.size(tmp)
+                    && MessageDigest.isEqual(digest.digest(), hash(target))) {
+                return false;
+            }
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static byte[] hash(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return digest.digest();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -22,7 +22,7 @@ public class Utils {
     private Utils() {
     }
 
-    private static final java.lang.String CLASSPATH = "classpath:";
+    static final java.lang.String CLASSPATH = "classpath:";
 
     public static TemplatePath parseTemplateUrl(String templatePath) throws GenerateException {
         if (templatePath == null) {
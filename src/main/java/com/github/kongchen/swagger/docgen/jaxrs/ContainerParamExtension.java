@@ -31,11 +31,15 @@ public class ContainerParamExtension extends AbstractSwaggerExtension implements
 
     public static final Class<?>[] CONTAINER_PARAM_ANNOTATIONS = {BeanParam.class, InjectParam.class, SpringQueryMap.class};
 
-    private AbstractReader reader;
+    /**
+     * Reader per thread, since the extension is shared by document sources and forked readers
+     * which may run concurrently
+     */
+    private final ThreadLocal<AbstractReader> reader = new ThreadLocal<>();
 
     @Override
     public void setReader(AbstractReader reader) {
-        this.reader = reader;
+        this.reader.set(reader);
     }
 
     @Override
@@ -54,7 +58,7 @@ public class ContainerParamExtension extends AbstractSwaggerExtension implements
         for (Annotation annotation : annotations) {
             for (Class<?> validParameterAnnotation : CONTAINER_PARAM_ANNOTATIONS) {
                 if (validParameterAnnotation.isAssignableFrom(annotation.annotationType())) {
-                    return reader.extractTypes(cls, typesToSkip, new ArrayList<>());
+                    return reader.get().extractTypes(cls, typesToSkip, new ArrayList<>());
                 }
             }
         }
@@ -1,9 +1,9 @@
 package com.github.kongchen.swagger.docgen.jaxrs;
 
+import com.github.kongchen.swagger.docgen.ModelCache;
 import com.google.common.base.Strings;
 import com.google.common.collect.ClassToInstanceMap;
 import com.google.common.collect.MutableClassToInstanceMap;
-import io.swagger.converter.ModelConverters;
 import io.swagger.jaxrs.ext.AbstractSwaggerExtension;
 import io.swagger.jaxrs.ext.SwaggerExtension;
 import io.swagger.models.parameters.CookieParameter;
@@ -100,7 +100,7 @@ public class JaxrsParameterExtension extends AbstractSwaggerExtension {
         if (!Strings.isNullOrEmpty(defaultValue)) {
             queryParameter.setDefaultValue(defaultValue);
         }
-        Property schema = ModelConverters.getInstance().readAsProperty(type);
+        Property schema = ModelCache.current().readAsProperty(type);
         if (schema != null) {
             queryParameter.setProperty(schema);
         }
@@ -118,7 +118,7 @@ public class JaxrsParameterExtension extends AbstractSwaggerExtension {
         if (!Strings.isNullOrEmpty(defaultValue)) {
             pathParameter.setDefaultValue(defaultValue);
         }
-        Property schema = ModelConverters.getInstance().readAsProperty(type);
+        Property schema = ModelCache.current().readAsProperty(type);
         if (schema != null) {
             pathParameter.setProperty(schema);
         }
@@ -135,7 +135,7 @@ public class JaxrsParameterExtension extends AbstractSwaggerExtension {
         if (!Strings.isNullOrEmpty(defaultValue)) {
             headerParameter.setDefaultValue(defaultValue);
         }
-        Property schema = ModelConverters.getInstance().readAsProperty(type);
+        Property schema = ModelCache.current().readAsProperty(type);
         if (schema != null) {
             headerParameter.setProperty(schema);
         }
@@ -152,7 +152,7 @@ public class JaxrsParameterExtension extends AbstractSwaggerExtension {
         if (!Strings.isNullOrEmpty(defaultValue)) {
             cookieParameter.setDefaultValue(defaultValue);
         }
-        Property schema = ModelConverters.getInstance().readAsProperty(type);
+        Property schema = ModelCache.current().readAsProperty(type);
         if (schema != null) {
             cookieParameter.setProperty(schema);
         }
@@ -169,7 +169,7 @@ public class JaxrsParameterExtension extends AbstractSwaggerExtension {
         if (!Strings.isNullOrEmpty(defaultValue)) {
             formParameter.setDefaultValue(defaultValue);
         }
-        Property schema = ModelConverters.getInstance().readAsProperty(type);
+        Property schema = ModelCache.current().readAsProperty(type);
         if (schema != null) {
             formParameter.setProperty(schema);
         }
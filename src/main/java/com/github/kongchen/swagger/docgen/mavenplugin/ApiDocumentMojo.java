@@ -1,7 +1,11 @@
 package com.github.kongchen.swagger.docgen.mavenplugin;
 
 import com.github.kongchen.swagger.docgen.AbstractDocumentSource;
+import com.github.kongchen.swagger.docgen.DocumentCache;
+import com.github.kongchen.swagger.docgen.DocumentContext;
 import com.github.kongchen.swagger.docgen.GenerateException;
+import com.github.kongchen.swagger.docgen.nginx.NginxConfigCache;
+import com.github.kongchen.swagger.docgen.scan.ClassIndex;
 import io.swagger.util.Json;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -15,8 +19,16 @@ import org.apache.maven.project.MavenProject;
 import org.apache.maven.project.MavenProjectHelper;
 
 import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * User: kongchen
@@ -66,6 +78,81 @@ public class ApiDocumentMojo extends AbstractMojo {
     @Parameter
     private NginxConfig nginxConfig;
 
+    /**
+     * Nginx configs read within the execution, shared by api sources with the same effective config
+     */
+    private NginxConfigCache nginxConfigs;
+
+    /**
+     * A flag indicating if classpath scan results should be persisted between builds,
+     * so unchanged jars and class directories are not rescanned
+     */
+    @Parameter(property = "swagger.scanCache", defaultValue = "true")
+    private boolean useScanCache;
+
+    /**
+     * File to persist classpath scan results to
+     */
+    @Parameter(property = "swagger.scanCacheFile",
+            defaultValue = "${project.build.directory}/swagger-maven-plugin/classpath-index.bin")
+    private File scanCacheFile;
+
+    /**
+     * A flag indicating if resolved nginx configs should be persisted between builds,
+     * so unchanged configs are not rendered and parsed again
+     */
+    @Parameter(property = "swagger.nginxSnapshot", defaultValue = "false")
+    private boolean useNginxSnapshot;
+
+    /**
+     * Directory to persist resolved nginx configs to
+     */
+    @Parameter(property = "swagger.nginxSnapshotDirectory",
+            defaultValue = "${project.build.directory}/swagger-maven-plugin/nginx")
+    private File nginxSnapshotDirectory;
+
+    /**
+     * A flag indicating if the state of each api source should be kept between builds,
+     * so sources are skipped while their configuration, the classes they are read from and their outputs are unchanged
+     */
+    @Parameter(property = "swagger.incremental", defaultValue = "false")
+    private boolean incremental;
+
+    /**
+     * Directory to keep the states of api sources in
+     */
+    @Parameter(property = "swagger.incrementalDirectory",
+            defaultValue = "${project.build.directory}/swagger-maven-plugin/state")
+    private File incrementalDirectory;
+
+    @Parameter(defaultValue = "${plugin.version}", readonly = true)
+    private String pluginVersion;
+
+    /**
+     * A flag indicating if generated documents should be cached by a digest of the api source configuration
+     * and the classpath, so builds of unchanged code restore them without scanning the classpath
+     */
+    @Parameter(property = "swagger.documentCache", defaultValue = "false")
+    private boolean useDocumentCache;
+
+    /**
+     * Directory of the document cache, shared by the builds of all projects
+     */
+    @Parameter(property = "swagger.documentCacheDirectory", defaultValue = "${user.home}/.m2/swagger-cache")
+    private File documentCacheDirectory;
+
+    /**
+     * Cache of generated documents, {@code null} if disabled
+     */
+    private DocumentCache documentCache;
+
+    /**
+     * A flag indicating if api sources should be generated concurrently,
+     * each with its own swagger extensions, model converters and filter
+     */
+    @Parameter(property = "swagger.parallelApiSources", defaultValue = "false")
+    private boolean parallelApiSources;
+
     public List<ApiSource> getApiSources() {
         return apiSources;
     }
@@ -106,6 +193,7 @@ public class ApiDocumentMojo extends AbstractMojo {
                     "swagger-maven-plugin 3.0+ only supports swagger spec 2.0");
         }
 
+        DocumentContext.beginExecution();
         try {
             getLog().debug(apiSources.toString());
 
@@ -118,54 +206,208 @@ public class ApiDocumentMojo extends AbstractMojo {
                 configureObjectMapperFeatures(disabledObjectMapperFeatures, false);
             }
 
-            for (ApiSource apiSource : apiSources) {
-                validateConfiguration(apiSource);
-                NginxConfig config = getNginxConfig();
-                NginxConfig sourceConfig = apiSource.getNginxConfig();
-                if (config == null) {
-                    config = sourceConfig;
-                } else if (sourceConfig != null) {
-                    config = config.clone().updateBy(sourceConfig);
-                }
-                AbstractDocumentSource documentSource = apiSource.isSpringmvc() ?
-                        new SpringMavenDocumentSource(apiSource, getLog(), projectEncoding) :
-                        new MavenDocumentSource(apiSource, config, getLog(), projectEncoding);
-
-                documentSource.loadTypesToSkip();
-                documentSource.loadModelModifier();
-                documentSource.loadModelConverters();
-                documentSource.loadDocuments();
-
-                createOutputDirs(apiSource.getOutputPath());
-
-                if (apiSource.getTemplatePath() != null) {
-                    documentSource.toDocuments();
-                }
-                String swaggerFileName = getSwaggerFileName(apiSource.getSwaggerFileName());
-                documentSource.toSwaggerDocuments(
-                        apiSource.getSwaggerUIDocBasePath() == null
-                                ? apiSource.getBasePath()
-                                : apiSource.getSwaggerUIDocBasePath(),
-                        apiSource.getOutputFormats(), swaggerFileName, projectEncoding);
-
-                if (apiSource.isAttachSwaggerArtifact() && apiSource.getSwaggerDirectory() != null && project != null) {
-                    String outputFormats = apiSource.getOutputFormats();
-                    if (outputFormats != null) {
-                        for (String format : outputFormats.split(",")) {
-                            String classifier = swaggerFileName.equals("swagger")
-                                    ? getSwaggerDirectoryName(apiSource.getSwaggerDirectory())
-                                    : swaggerFileName;
-                            File swaggerFile = new File(apiSource.getSwaggerDirectory(), swaggerFileName + "." + format.toLowerCase());
-                            projectHelper.attachArtifact(project, format.toLowerCase(), classifier, swaggerFile);
-                        }
+            ClassIndex classIndex = createClassIndex();
+            nginxConfigs = new NginxConfigCache(useNginxSnapshot ? nginxSnapshotDirectory : null);
+            documentCache = useDocumentCache && project != null
+                    ? new DocumentCache(documentCacheDirectory, project.getBasedir(),
+                            project.getRuntimeClasspathElements())
+                    : null;
+
+            if (parallelApiSources && apiSources.size() > 1) {
+                generateConcurrently(classIndex);
+            } else {
+                for (ApiSource apiSource : apiSources) {
+                    String cacheKey = getCacheKey(apiSource);
+                    if (!restoreFromCache(apiSource, cacheKey)) {
+                        generate(apiSource, createDocumentSource(apiSource, classIndex), cacheKey);
                     }
+                    attachSwaggerArtifacts(apiSource);
                 }
             }
         } catch (GenerateException e) {
             throw new MojoFailureException(e.getMessage(), e);
         } catch (Exception e) {
             throw new MojoExecutionException(e.getMessage(), e);
+        } finally {
+            DocumentContext.endExecution();
+        }
+    }
+
+    /**
+     * Generate the documents of all api sources on a bounded pool, each within its own {@link DocumentContext}.
+     * Document sources are created in order first, since model modifiers may configure the shared object mapper.
+     * Every failed source is logged, and the first failure fails the execution once all sources are done.
+     */
+    private void generateConcurrently(ClassIndex classIndex) throws Exception {
+        List<ApiSource> pending = new ArrayList<>();
+        List<String> cacheKeys = new ArrayList<>();
+        List<AbstractDocumentSource> documentSources = new ArrayList<>();
+        for (ApiSource apiSource : apiSources) {
+            String cacheKey = getCacheKey(apiSource);
+            if (!restoreFromCache(apiSource, cacheKey)) {
+                pending.add(apiSource);
+                cacheKeys.add(cacheKey);
+                documentSources.add(createDocumentSource(apiSource, classIndex));
+            }
+        }
+
+        int threads = Math.max(1, Math.min(pending.size(), Runtime.getRuntime().availableProcessors()));
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "swagger-api-source");
+            thread.setContextClassLoader(contextClassLoader);
+            return thread;
+        });
+        try {
+            List<Future<Void>> results = new ArrayList<>();
+            for (int i = 0; i < pending.size(); i++) {
+                ApiSource apiSource = pending.get(i);
+                String cacheKey = cacheKeys.get(i);
+                AbstractDocumentSource documentSource = documentSources.get(i);
+                results.add(executor.submit(() -> {
+                    generate(apiSource, documentSource, cacheKey);
+                    return null;
+                }));
+            }
+
+            Exception failure = null;
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    results.get(i).get();
+                } catch (ExecutionException e) {
+                    Exception cause = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                    getLog().error(String.format("Failed to generate api source #%d %s: %s",
+                            apiSources.indexOf(pending.get(i)) + 1, pending.get(i).getLocations(),
+                            cause.getMessage()), cause);
+                    if (failure == null) {
+                        failure = cause;
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (ApiSource apiSource : apiSources) {
+            attachSwaggerArtifacts(apiSource);
+        }
+    }
+
+    private AbstractDocumentSource createDocumentSource(ApiSource apiSource, ClassIndex classIndex) throws Exception {
+        if (apiSource != null) {
+            apiSource.setClassIndex(classIndex);
+        }
+        validateConfiguration(apiSource);
+        AbstractDocumentSource documentSource = apiSource.isSpringmvc() ?
+                new SpringMavenDocumentSource(apiSource, getLog(), projectEncoding) :
+                new MavenDocumentSource(apiSource, getEffectiveNginxConfig(apiSource), nginxConfigs, getLog(),
+                        projectEncoding);
+
+        documentSource.setStateDirectory(incremental ? incrementalDirectory : null, getBuildKey());
+        documentSource.loadTypesToSkip();
+        documentSource.loadModelModifier();
+        documentSource.loadModelConverters();
+        return documentSource;
+    }
+
+    private NginxConfig getEffectiveNginxConfig(ApiSource apiSource) {
+        NginxConfig config = getNginxConfig();
+        NginxConfig sourceConfig = apiSource.getNginxConfig();
+        if (config == null) {
+            return sourceConfig;
+        }
+        return sourceConfig == null ? config : config.clone().updateBy(sourceConfig);
+    }
+
+    /**
+     * @return identity of the execution the documents of api sources depend on
+     */
+    private String getBuildKey() {
+        return String.join("\n",
+                String.valueOf(pluginVersion),
+                String.valueOf(enabledObjectMapperFeatures),
+                String.valueOf(disabledObjectMapperFeatures),
+                String.valueOf(projectEncoding));
+    }
+
+    /**
+     * Compute the cache key of an api source before its document source is created,
+     * since resolving defaults of the api source scans the classpath
+     *
+     * @return cache key, {@code null} if the cache is disabled
+     */
+    private String getCacheKey(ApiSource apiSource) throws IOException {
+        if (documentCache == null || apiSource == null) {
+            return null;
+        }
+        return documentCache.key(getBuildKey(), apiSource, getEffectiveNginxConfig(apiSource));
+    }
+
+    private boolean restoreFromCache(ApiSource apiSource, String cacheKey) {
+        if (cacheKey == null || !documentCache.restore(cacheKey, apiSource)) {
+            return false;
+        }
+        getLog().info(String.format("Swagger documents of %s are restored from %s.",
+                apiSource.getLocations(), documentCacheDirectory));
+        return true;
+    }
+
+    private void generate(ApiSource apiSource, AbstractDocumentSource documentSource, String cacheKey)
+            throws Exception {
+        if (documentSource.isUpToDate()) {
+            getLog().info(String.format("Swagger documents of %s are up to date.", apiSource.getLocations()));
+            return;
+        }
+        documentSource.loadDocuments();
+
+        createOutputDirs(apiSource.getOutputPath());
+
+        if (apiSource.getTemplatePath() != null) {
+            documentSource.toDocuments();
+        }
+        String swaggerFileName = getSwaggerFileName(apiSource.getSwaggerFileName());
+        documentSource.toSwaggerDocuments(
+                apiSource.getSwaggerUIDocBasePath() == null
+                        ? apiSource.getBasePath()
+                        : apiSource.getSwaggerUIDocBasePath(),
+                apiSource.getOutputFormats(), swaggerFileName, projectEncoding);
+        documentSource.saveState();
+        if (cacheKey != null) {
+            documentCache.store(cacheKey, documentSource);
+        }
+    }
+
+    private void attachSwaggerArtifacts(ApiSource apiSource) {
+        if (apiSource.isAttachSwaggerArtifact() && apiSource.getSwaggerDirectory() != null && project != null) {
+            String swaggerFileName = getSwaggerFileName(apiSource.getSwaggerFileName());
+            String outputFormats = apiSource.getOutputFormats();
+            if (outputFormats != null) {
+                for (String format : outputFormats.split(",")) {
+                    String classifier = swaggerFileName.equals("swagger")
+                            ? getSwaggerDirectoryName(apiSource.getSwaggerDirectory())
+                            : swaggerFileName;
+                    File swaggerFile = new File(apiSource.getSwaggerDirectory(), swaggerFileName + "." + format.toLowerCase());
+                    projectHelper.attachArtifact(project, format.toLowerCase(), classifier, swaggerFile);
+                }
+            }
+        }
+    }
+
+    /**
+     * Create an annotation index shared by all api sources,
+     * so the classpath is scanned once per execution instead of once per source and annotation
+     */
+    private ClassIndex createClassIndex() {
+        Set<String> locations = new LinkedHashSet<String>();
+        for (ApiSource apiSource : apiSources) {
+            if (apiSource != null && apiSource.getLocations() != null) {
+                locations.addAll(apiSource.getLocations());
+            }
         }
+        return new ClassIndex(locations, useScanCache ? scanCacheFile : null);
     }
 
     private void createOutputDirs(String outputPath) throws MojoExecutionException {
@@ -1,6 +1,8 @@
 package com.github.kongchen.swagger.docgen.mavenplugin;
 
+import com.github.kongchen.swagger.docgen.ModelCache;
 import com.github.kongchen.swagger.docgen.ResponseMessageOverride;
+import com.github.kongchen.swagger.docgen.scan.ClassIndex;
 import com.google.common.base.Strings;
 import io.swagger.annotations.SwaggerDefinition;
 import io.swagger.models.Contact;
@@ -10,7 +12,6 @@ import io.swagger.models.License;
 import io.swagger.util.BaseReaderUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.plugins.annotations.Parameter;
-import org.reflections.Reflections;
 import org.springframework.core.annotation.AnnotationUtils;
 
 import java.io.File;
@@ -72,6 +73,12 @@ public class ApiSource {
     @Parameter(defaultValue = "json")
     private String outputFormats;
 
+    /**
+     * Write a minified copy of the json document next to it, as {@code <swaggerFileName>.min.json}
+     */
+    @Parameter
+    private boolean minifiedJson;
+
     @Parameter
     private String swaggerDirectory;
 
@@ -144,6 +151,25 @@ public class ApiSource {
     @Parameter
     private boolean skipInheritingClasses = false;
 
+    /**
+     * If true, candidate classes are found from class files without loading them,
+     * and only classes which may contribute operations are loaded
+     */
+    @Parameter
+    private boolean lazyClassLoading = false;
+
+    /**
+     * Number of threads reading api classes, 1 to read sequentially, 0 for one thread per available processor
+     */
+    @Parameter
+    private int readParallelism = 1;
+
+    /**
+     * Maximum number of model resolution results cached by type, 0 to resolve models for every use
+     */
+    @Parameter
+    private int modelCacheSize = ModelCache.DEFAULT_CAPACITY;
+
     @Parameter
     private String operationIdFormat;
 
@@ -156,6 +182,8 @@ public class ApiSource {
     @Parameter
     private NginxConfig nginxConfig;
 
+    private transient ClassIndex classIndex;
+
     public Set<Class<?>> getValidClasses(Class<? extends Annotation> clazz) {
         Set<Class<?>> classes = new LinkedHashSet<Class<?>>();
 
@@ -166,18 +194,62 @@ public class ApiSource {
             prefixes.addAll(getLocations());
         }
 
+        ClassIndex index = getClassIndex();
+        if (lazyClassLoading) {
+            Set<String> names = new LinkedHashSet<String>();
+            for (String location : prefixes) {
+                names.addAll(index.getTypeNamesAnnotatedWith(clazz, true, location));
+
+                if (!skipInheritingClasses) {
+                    names.addAll(index.getTypeNamesAnnotatedWith(clazz, false, location));
+                }
+            }
+            if (clazz != SwaggerDefinition.class) {
+                names.removeIf(name -> !index.declaresOperations(name));
+            }
+            classes.addAll(index.loadClasses(names));
+            return classes;
+        }
+
         for (String location : prefixes) {
-            Set<Class<?>> c = new Reflections(location).getTypesAnnotatedWith(clazz, true);
-            classes.addAll(c);
+            classes.addAll(index.getTypesAnnotatedWith(clazz, true, location));
 
             if (!skipInheritingClasses) {
-                Set<Class<?>> inherited = new Reflections(location).getTypesAnnotatedWith(clazz);
-                classes.addAll(inherited);
+                classes.addAll(index.getTypesAnnotatedWith(clazz, false, location));
             }
         }
         return classes;
     }
 
+    /**
+     * Get the index used to look up annotated classes.
+     * Unless a shared index covering the locations of this source is set, an own one is created.
+     *
+     * @return class index covering the locations
+     */
+    public ClassIndex getClassIndex() {
+        if (classIndex == null || !covers(classIndex)) {
+            classIndex = new ClassIndex(getLocations());
+        }
+        return classIndex;
+    }
+
+    public void setClassIndex(ClassIndex classIndex) {
+        this.classIndex = classIndex;
+    }
+
+    private boolean covers(ClassIndex index) {
+        if (getLocations() == null) {
+            return index.covers(null);
+        }
+        for (String location : getLocations()) {
+            if (!index.covers(location)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public List<String> getApiModelPropertyAccessExclusions() {
         return apiModelPropertyAccessExclusions;
     }
@@ -315,6 +387,14 @@ public class ApiSource {
         this.outputFormats = outputFormats;
     }
 
+    public boolean isMinifiedJson() {
+        return minifiedJson;
+    }
+
+    public void setMinifiedJson(boolean minifiedJson) {
+        this.minifiedJson = minifiedJson;
+    }
+
     public String getBasePath() {
         if (basePath == null) {
             setBasePathFromAnnotation();
@@ -508,6 +588,30 @@ public class ApiSource {
         this.removeBasePathFromEndpoints = removeBasePathFromEndpoints;
     }
 
+    public boolean isLazyClassLoading() {
+        return lazyClassLoading;
+    }
+
+    public void setLazyClassLoading(boolean lazyClassLoading) {
+        this.lazyClassLoading = lazyClassLoading;
+    }
+
+    public int getReadParallelism() {
+        return readParallelism;
+    }
+
+    public void setReadParallelism(int readParallelism) {
+        this.readParallelism = readParallelism;
+    }
+
+    public int getModelCacheSize() {
+        return modelCacheSize;
+    }
+
+    public void setModelCacheSize(int modelCacheSize) {
+        this.modelCacheSize = modelCacheSize;
+    }
+
     public NginxConfig getNginxConfig() {
         return nginxConfig;
     }
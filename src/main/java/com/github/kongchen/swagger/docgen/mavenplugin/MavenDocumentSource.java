@@ -1,6 +1,7 @@
 package com.github.kongchen.swagger.docgen.mavenplugin;
 
 import com.github.kongchen.swagger.docgen.AbstractDocumentSource;
+import com.github.kongchen.swagger.docgen.nginx.NginxConfigCache;
 import com.github.kongchen.swagger.docgen.nginx.NginxJaxrsReader;
 import com.github.kongchen.swagger.docgen.reader.JaxrsReader;
 import com.google.common.collect.Sets;
@@ -8,6 +9,8 @@ import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugin.logging.Log;
 
 import javax.ws.rs.Path;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Set;
 
 /**
@@ -18,9 +21,17 @@ public class MavenDocumentSource extends AbstractDocumentSource<JaxrsReader> {
 
     private final NginxConfig nginxConfig;
 
+    private final NginxConfigCache nginxConfigs;
+
     public MavenDocumentSource(ApiSource apiSource, NginxConfig nginxConfig, Log log, String encoding) throws MojoFailureException {
+        this(apiSource, nginxConfig, null, log, encoding);
+    }
+
+    public MavenDocumentSource(ApiSource apiSource, NginxConfig nginxConfig, NginxConfigCache nginxConfigs, Log log,
+                               String encoding) throws MojoFailureException {
         super(log, apiSource, encoding);
         this.nginxConfig = nginxConfig;
+        this.nginxConfigs = nginxConfigs == null ? new NginxConfigCache() : nginxConfigs;
     }
 
     @Override
@@ -30,8 +41,22 @@ public class MavenDocumentSource extends AbstractDocumentSource<JaxrsReader> {
                 apiSource.getValidClasses(Path.class));
     }
 
+    @Override
+    protected Object getStateConfiguration() {
+        return isNginxEnabled() ? nginxConfig : null;
+    }
+
+    @Override
+    protected Collection<String> getStateInputs() {
+        return isNginxEnabled() ? nginxConfigs.getInputs(nginxConfig) : Collections.emptySet();
+    }
+
+    private boolean isNginxEnabled() {
+        return nginxConfig != null && nginxConfig.isEnabled();
+    }
+
     @Override
     protected JaxrsReader createReader() {
-        return new NginxJaxrsReader(swagger, nginxConfig, log);
+        return new NginxJaxrsReader(swagger, nginxConfig, nginxConfigs, log);
     }
 }
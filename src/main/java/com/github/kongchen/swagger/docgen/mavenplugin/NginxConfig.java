@@ -11,6 +11,21 @@ import java.util.Optional;
  */
 public class NginxConfig implements Cloneable {
 
+    /**
+     * Renderer of Django templates in nginx configs
+     */
+    public enum TemplateEngine {
+        /**
+         * Built-in renderer of the Django template subset used by configs
+         */
+        NATIVE,
+        /**
+         * Django run by Jython, supporting the whole template language.
+         * Requires {@code org.python:jython-standalone} among the plugin dependencies
+         */
+        JYTHON
+    }
+
     /**
      * Is nginx config enabled
      */
@@ -38,6 +53,30 @@ public class NginxConfig implements Cloneable {
     @Parameter
     private Map<String, String> properties;
 
+    /**
+     * Renderer of Django templates, {@code NATIVE} by default
+     */
+    @Parameter
+    private TemplateEngine templateEngine;
+
+    /**
+     * Charset of config files, {@code UTF-8} by default
+     */
+    @Parameter
+    private String encoding;
+
+    /**
+     * Resolve operation paths of the same shape and HTTP method once
+     */
+    @Parameter
+    private Boolean cacheResolutions;
+
+    /**
+     * Resolve every operation path anyway and fail if a cached resolution differs
+     */
+    @Parameter
+    private Boolean verifyCachedResolutions;
+
     @Override
     public NginxConfig clone() {
         try {
@@ -54,6 +93,10 @@ public class NginxConfig implements Cloneable {
         Optional.ofNullable(config.additionalRewrites).ifPresent(this::setAdditionalRewrites);
         Optional.ofNullable(config.tags).ifPresent(this::setTags);
         Optional.ofNullable(config.properties).ifPresent(this::setProperties);
+        Optional.ofNullable(config.templateEngine).ifPresent(this::setTemplateEngine);
+        Optional.ofNullable(config.encoding).ifPresent(this::setEncoding);
+        Optional.ofNullable(config.cacheResolutions).ifPresent(this::setCacheResolutions);
+        Optional.ofNullable(config.verifyCachedResolutions).ifPresent(this::setVerifyCachedResolutions);
         return this;
     }
 
@@ -104,4 +147,36 @@ public class NginxConfig implements Cloneable {
     public void setProperties(Map<String, String> properties) {
         this.properties = properties;
     }
+
+    public TemplateEngine getTemplateEngine() {
+        return templateEngine == null ? TemplateEngine.NATIVE : templateEngine;
+    }
+
+    public void setTemplateEngine(TemplateEngine templateEngine) {
+        this.templateEngine = templateEngine;
+    }
+
+    public String getEncoding() {
+        return encoding == null ? "UTF-8" : encoding;
+    }
+
+    public void setEncoding(String encoding) {
+        this.encoding = encoding;
+    }
+
+    public boolean isCacheResolutions() {
+        return !Boolean.FALSE.equals(cacheResolutions);
+    }
+
+    public void setCacheResolutions(boolean cacheResolutions) {
+        this.cacheResolutions = cacheResolutions;
+    }
+
+    public boolean isVerifyCachedResolutions() {
+        return Boolean.TRUE.equals(verifyCachedResolutions);
+    }
+
+    public void setVerifyCachedResolutions(boolean verifyCachedResolutions) {
+        this.verifyCachedResolutions = verifyCachedResolutions;
+    }
 }
@@ -155,4 +155,12 @@ public class SecurityDefinition {
     public void setJson(String json) {
         this.json = json;
     }
+
+    public String getJsonPath() {
+        return jsonPath;
+    }
+
+    public void setJsonPath(String jsonPath) {
+        this.jsonPath = jsonPath;
+    }
 }
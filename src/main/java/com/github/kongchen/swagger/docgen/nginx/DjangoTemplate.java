@@ -1,7 +1,10 @@
 package com.github.kongchen.swagger.docgen.nginx;
 
+import org.python.core.Py;
+import org.python.core.PyObject;
 import org.python.core.PyString;
 import org.python.core.PyStringMap;
+import org.python.core.PySystemState;
 import org.python.util.PythonInterpreter;
 
 import java.io.FileNotFoundException;
@@ -11,18 +14,35 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
-
-public class DjangoTemplate {
+/**
+ * Renderer of Django templates by Django run in a Jython interpreter.
+ * <p>
+ * Interpreters are pooled, up to one per processor, and started lazily when no idle one is left,
+ * so concurrent readers render in parallel without sharing an interpreter.
+ * Each interpreter has its own {@link PySystemState}, so it loads and configures its own Django.
+ * Templates and contexts are passed to the render function as Python objects, leaving interpreter globals intact.
+ */
+public class DjangoTemplate implements NginxTemplateEngine {
 
     private static final String RENDER_TEMPLATE_FILE = "renderTemplate.py";
 
-    private static final PythonInterpreter PY = createInterpreter();
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors();
+
+    private static final String RENDER_FUNCTION = "renderTemplate";
+
+    private static final BlockingQueue<PythonInterpreter> IDLE = new LinkedBlockingQueue<>();
+
+    private static final AtomicInteger STARTED = new AtomicInteger();
 
     @SuppressWarnings("squid:S2095")
     private static PythonInterpreter createInterpreter() {
-        final PythonInterpreter py = new PythonInterpreter();
+        final PythonInterpreter py = new PythonInterpreter(null, new PySystemState());
         try (InputStream input = DjangoTemplate.class
                 .getClassLoader()
                 .getResourceAsStream(RENDER_TEMPLATE_FILE);
@@ -38,6 +58,25 @@ public class DjangoTemplate {
         return py;
     }
 
+    private static PythonInterpreter borrowInterpreter() throws InterruptedException {
+        PythonInterpreter py = IDLE.poll();
+        if (py != null) {
+            return py;
+        }
+        int started;
+        while ((started = STARTED.get()) < POOL_SIZE) {
+            if (STARTED.compareAndSet(started, started + 1)) {
+                try {
+                    return createInterpreter();
+                } catch (RuntimeException e) {
+                    STARTED.decrementAndGet();
+                    throw e;
+                }
+            }
+        }
+        return IDLE.take();
+    }
+
     public static String buildContext(Map<String, String> context) {
         return Optional.ofNullable(context)
                 .map(map -> new PyStringMap(map.entrySet().stream()
@@ -48,13 +87,38 @@ public class DjangoTemplate {
                 .toString();
     }
 
+    static PyStringMap buildPyContext(Map<String, String> context) {
+        return Optional.ofNullable(context)
+                .map(map -> new PyStringMap(map.entrySet().stream()
+                        .collect(Collectors.toMap(
+                                Map.Entry::getKey,
+                                e -> Py.newStringOrUnicode(e.getValue())))))
+                .orElseGet(PyStringMap::new);
+    }
+
+    @Override
+    public String render(String template, Map<String, String> context) {
+        return render(template, py -> buildPyContext(context));
+    }
+
     public String render(String t, String ctx) {
+        return render(t, py -> py.eval(ctx));
+    }
+
+    private String render(String t, Function<PythonInterpreter, PyObject> ctx) {
+        PythonInterpreter py = null;
         try {
-            PY.set("t", t);
-            PY.exec("ctx = " + ctx);
-            return PY.eval("renderTemplate(t, ctx)").asString();
+            py = borrowInterpreter();
+            return py.get(RENDER_FUNCTION).__call__(Py.newUnicode(t), ctx.apply(py)).asString();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted waiting for a template renderer", e);
         } catch (Exception e) {
             throw new RuntimeException("Failed to render template", e);
+        } finally {
+            if (py != null) {
+                IDLE.add(py);
+            }
         }
     }
 }
@@ -0,0 +1,96 @@
+package com.github.kongchen.swagger.docgen.nginx;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Group of patterns matched against an input at once, finding the first one in declaration order
+ * which {@link Matcher#matches() matches} the whole input.
+ * <p>
+ * The patterns are compiled into a single alternation, where every pattern is wrapped by a capturing group,
+ * so a single match tells which of them matched. An alternation tries its branches in order,
+ * so the first pattern able to match the whole input wins, as if the patterns were tried one by one.
+ * Patterns which can't be embedded into an alternation, like ones with back references, quotations,
+ * comments or flags, make the group fall back to trying the patterns one by one.
+ */
+final class MultiPattern {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MultiPattern.class);
+
+    private static final Pattern UNSUPPORTED = Pattern.compile("\\\\[1-9]|\\\\k<|\\\\Q|\\(\\?[a-zA-Z-]*x");
+
+    private final List<Pattern> patterns;
+
+    private final Pattern combined;
+
+    private final int[] groups;
+
+    MultiPattern(List<Pattern> patterns) {
+        this.patterns = Collections.unmodifiableList(new ArrayList<>(patterns));
+        groups = new int[patterns.size()];
+        combined = combine();
+    }
+
+    private Pattern combine() {
+        if (patterns.size() < 2) {
+            return null;
+        }
+        StringBuilder regex = new StringBuilder();
+        int group = 1;
+        for (int i = 0; i < patterns.size(); i++) {
+            Pattern pattern = patterns.get(i);
+            if (pattern.flags() != 0 || UNSUPPORTED.matcher(pattern.pattern()).find()) {
+                LOGGER.debug("Patterns are matched one by one because of {}", pattern.pattern());
+                return null;
+            }
+            if (i > 0) {
+                regex.append('|');
+            }
+            regex.append('(').append(pattern.pattern()).append(')');
+            groups[i] = group;
+            group += 1 + pattern.matcher("").groupCount();
+        }
+        try {
+            return Pattern.compile(regex.toString());
+        } catch (PatternSyntaxException e) {
+            LOGGER.debug("Patterns are matched one by one: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    List<Pattern> getPatterns() {
+        return patterns;
+    }
+
+    /**
+     * @param input input
+     * @return index of the first pattern matching the whole input, -1 if none matches
+     */
+    int firstMatch(CharSequence input) {
+        if (combined == null) {
+            for (int i = 0; i < patterns.size(); i++) {
+                if (patterns.get(i).matcher(input).matches()) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        Matcher matcher = combined.matcher(input);
+        if (!matcher.matches()) {
+            return -1;
+        }
+        for (int i = 0; i < groups.length; i++) {
+            if (matcher.start(groups[i]) >= 0) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("No alternative matched " + input);
+    }
+}
@@ -0,0 +1,749 @@
+package com.github.kongchen.swagger.docgen.nginx;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Renderer of the Django template subset used by nginx configs, without a Python interpreter.
+ * <p>
+ * Configs are rendered by {@code renderTemplate.py} with a context of string properties,
+ * and the native engine supports what such templates need, rendered as by Django 1.11 which {@link DjangoTemplate} runs:
+ * <ul>
+ * <li>variables named by properties, and string literals;</li>
+ * <li>filters {@code default}, {@code lower}, {@code safe} and {@code upper};</li>
+ * <li>tags {@code if} with {@code elif} and {@code else}, with operators {@code or}, {@code and}, {@code not},
+ * {@code in}, {@code not in}, {@code ==} and {@code !=}, tags {@code autoescape} and {@code comment},
+ * and {@code {# #}} comments.</li>
+ * </ul>
+ * Properties missing in the context render as empty strings, and values are HTML-escaped unless autoescape is off
+ * or they're marked safe. Anything else, e.g. lookups, number literals, other tags, filters and operators,
+ * fails the compilation as unsupported, so such templates should be rendered by {@link DjangoTemplate}.
+ * <p>
+ * Compiled templates are immutable, and the last ones compiled are kept by their content,
+ * so configs and includes read again aren't compiled again.
+ */
+public class NativeDjangoTemplate implements NginxTemplateEngine {
+
+    private static final int CACHE_CAPACITY = 256;
+
+    private static final Map<String, Template> TEMPLATES = Collections.synchronizedMap(
+            new LinkedHashMap<String, Template>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Template> eldest) {
+                    return size() > CACHE_CAPACITY;
+                }
+            });
+
+    private static final Pattern TAG = Pattern.compile("\\{%.*?%}|\\{\\{.*?}}|\\{#.*?#}");
+
+    private static final String CONSTANT = "\"[^\"\\\\]*(?:\\\\.[^\"\\\\]*)*\"|'[^'\\\\]*(?:\\\\.[^'\\\\]*)*'";
+
+    private static final String VAR = "[\\w.]+";
+
+    private static final Pattern FILTER = Pattern.compile(
+            "^(?<constant>" + CONSTANT + ")"
+                    + "|^(?<var>" + VAR + ")"
+                    + "|\\s*\\|\\s*(?<filter>\\w+)(?::(?:(?<constantArg>" + CONSTANT + ")|(?<varArg>" + VAR + ")))?",
+            Pattern.UNICODE_CHARACTER_CLASS);
+
+    private static final Pattern SPLIT = Pattern.compile(
+            "(?:[^\\s'\"]*(?:(?:\"(?:[^\"\\\\]|\\\\.)*\"|'(?:[^'\\\\]|\\\\.)*')[^\\s'\"]*)+)|\\S+");
+
+    private static final Set<String> CONSTANTS = new HashSet<>(Arrays.asList("True", "False", "None"));
+
+    private static final Set<String> UNSUPPORTED_OPERATORS = new HashSet<>(Arrays.asList(
+            "is", ">", ">=", "<", "<="));
+
+    private static final Map<String, Filter> FILTERS = new HashMap<>();
+
+    static {
+        FILTERS.put("default", new Filter(true, false, (value, arg) -> truthy(value) ? value : arg));
+        FILTERS.put("lower", new Filter(false, true, (value, arg) -> text(value).toLowerCase(Locale.ROOT)));
+        FILTERS.put("safe", new Filter(false, false, (value, arg) ->
+                value instanceof SafeString ? value : new SafeString(text(value))));
+        FILTERS.put("upper", new Filter(false, false, (value, arg) -> text(value).toUpperCase(Locale.ROOT)));
+    }
+
+    @Override
+    public String render(String template, Map<String, String> context) {
+        try {
+            return compile(template).render(context);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to render template", e);
+        }
+    }
+
+    /**
+     * @param template template
+     * @return compiled template
+     * @throws IllegalStateException if the template is malformed or uses unsupported syntax
+     */
+    public Template compile(String template) {
+        Template compiled = TEMPLATES.get(template);
+        if (compiled == null) {
+            compiled = new Template(new Parser(tokenize(template)).parse(Collections.emptySet()));
+            TEMPLATES.put(template, compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * Compiled template
+     */
+    public static final class Template {
+
+        private final NodeList nodes;
+
+        private Template(NodeList nodes) {
+            this.nodes = nodes;
+        }
+
+        /**
+         * @param context template variables, {@code null} if none
+         * @return rendered template
+         */
+        public String render(Map<String, String> context) {
+            StringBuilder out = new StringBuilder();
+            nodes.render(new Context(context), out);
+            return out.toString();
+        }
+    }
+
+    // Lexer
+
+    private enum TokenType {
+        TEXT, VAR, BLOCK, COMMENT
+    }
+
+    private static final class Token {
+
+        final TokenType type;
+
+        final String contents;
+
+        final int line;
+
+        Token(TokenType type, String contents, int line) {
+            this.type = type;
+            this.contents = contents;
+            this.line = line;
+        }
+
+        String command() {
+            return contents.split("\\s+")[0];
+        }
+
+        List<String> splitContents() {
+            List<String> bits = new ArrayList<>();
+            Matcher matcher = SPLIT.matcher(contents);
+            while (matcher.find()) {
+                bits.add(matcher.group());
+            }
+            return bits;
+        }
+    }
+
+    private static List<Token> tokenize(String template) {
+        List<Token> tokens = new ArrayList<>();
+        Matcher matcher = TAG.matcher(template);
+        int upto = 0;
+        int line = 1;
+        while (matcher.find()) {
+            if (matcher.start() > upto) {
+                String text = template.substring(upto, matcher.start());
+                tokens.add(new Token(TokenType.TEXT, text, line));
+                line += lines(text);
+            }
+            String tag = matcher.group();
+            String inner = tag.substring(2, tag.length() - 2).trim();
+            if (tag.startsWith("{{")) {
+                tokens.add(new Token(TokenType.VAR, inner, line));
+            } else if (tag.startsWith("{%")) {
+                tokens.add(new Token(TokenType.BLOCK, inner, line));
+            } else {
+                tokens.add(new Token(TokenType.COMMENT, "", line));
+            }
+            line += lines(tag);
+            upto = matcher.end();
+        }
+        if (upto < template.length()) {
+            tokens.add(new Token(TokenType.TEXT, template.substring(upto), line));
+        }
+        return tokens;
+    }
+
+    private static int lines(String s) {
+        int count = 0;
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) == '\n') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Parser
+
+    private static final class Parser {
+
+        private final List<Token> tokens;
+
+        private int position;
+
+        private final Deque<Token> commands = new ArrayDeque<>();
+
+        Parser(List<Token> tokens) {
+            this.tokens = tokens;
+        }
+
+        NodeList parse(Set<String> until) {
+            NodeList nodes = new NodeList();
+            while (position < tokens.size()) {
+                Token token = tokens.get(position++);
+                switch (token.type) {
+                    case TEXT:
+                        nodes.add(new TextNode(token.contents));
+                        break;
+                    case VAR:
+                        if (token.contents.isEmpty()) {
+                            throw new IllegalStateException("Empty variable tag on line " + token.line);
+                        }
+                        nodes.add(new VariableNode(compileFilter(token, token.contents)));
+                        break;
+                    case BLOCK:
+                        if (token.contents.isEmpty()) {
+                            throw new IllegalStateException("Empty block tag on line " + token.line);
+                        }
+                        String command = token.command();
+                        if (until.contains(command)) {
+                            position--;
+                            return nodes;
+                        }
+                        commands.push(token);
+                        nodes.add(tag(command, token));
+                        commands.pop();
+                        break;
+                    default:
+                        break;
+                }
+            }
+            if (!until.isEmpty()) {
+                Token token = commands.peek();
+                throw new IllegalStateException("Unclosed tag on line " + (token == null ? 0 : token.line)
+                        + ": '" + (token == null ? "" : token.command()) + "'. Looking for one of: "
+                        + String.join(", ", until) + ".");
+            }
+            return nodes;
+        }
+
+        Token nextToken() {
+            return tokens.get(position++);
+        }
+
+        void skipPast(String endTag) {
+            while (position < tokens.size()) {
+                Token token = tokens.get(position++);
+                if (token.type == TokenType.BLOCK && token.contents.equals(endTag)) {
+                    return;
+                }
+            }
+            Token token = commands.peek();
+            throw new IllegalStateException("Unclosed tag on line " + (token == null ? 0 : token.line)
+                    + ": '" + (token == null ? "" : token.command()) + "'. Looking for one of: " + endTag + ".");
+        }
+
+        private Node tag(String command, Token token) {
+            switch (command) {
+                case "if":
+                    return ifTag(token);
+                case "autoescape":
+                    return autoescapeTag(token);
+                case "comment":
+                    skipPast("endcomment");
+                    return new NodeList();
+                default:
+                    throw new IllegalStateException("Invalid block tag on line " + token.line + ": '" + command
+                            + "', unsupported by the native template engine");
+            }
+        }
+
+        private Node ifTag(Token token) {
+            List<Expression> conditions = new ArrayList<>();
+            List<NodeList> branches = new ArrayList<>();
+            Set<String> until = new HashSet<>(Arrays.asList("elif", "else", "endif"));
+            conditions.add(condition(token));
+            branches.add(parse(until));
+            Token next = nextToken();
+            while (next.command().equals("elif")) {
+                conditions.add(condition(next));
+                branches.add(parse(until));
+                next = nextToken();
+            }
+            if (next.contents.equals("else")) {
+                conditions.add(context -> Boolean.TRUE);
+                branches.add(parse(Collections.singleton("endif")));
+                next = nextToken();
+            }
+            if (!next.contents.equals("endif")) {
+                throw new IllegalStateException("Malformed template tag at line " + next.line
+                        + ": \"" + next.contents + "\"");
+            }
+            return new IfNode(conditions, branches);
+        }
+
+        private Expression condition(Token token) {
+            List<String> bits = token.splitContents();
+            return new IfParser(this, token, bits.subList(1, bits.size())).parse();
+        }
+
+        private Node autoescapeTag(Token token) {
+            String[] args = token.contents.split("\\s+");
+            if (args.length != 2 || !args[1].equals("on") && !args[1].equals("off")) {
+                throw new IllegalStateException("'autoescape' argument should be 'on' or 'off' on line "
+                        + token.line);
+            }
+            NodeList nodes = parse(Collections.singleton("endautoescape"));
+            nextToken();
+            return new AutoescapeNode(args[1].equals("on"), nodes);
+        }
+
+        FilterExpression compileFilter(Token token, String expression) {
+            try {
+                return new FilterExpression(expression);
+            } catch (IllegalStateException e) {
+                throw new IllegalStateException(e.getMessage() + " on line " + token.line, e);
+            }
+        }
+    }
+
+    // Variables and filters
+
+    /**
+     * String which isn't escaped when rendered
+     */
+    private static final class SafeString {
+
+        final String value;
+
+        SafeString(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+
+    private static final class Context {
+
+        private final Map<String, String> variables;
+
+        private boolean autoescape = true;
+
+        Context(Map<String, String> variables) {
+            this.variables = variables == null ? Collections.emptyMap() : variables;
+        }
+    }
+
+    /**
+     * Property of the context or string literal
+     */
+    private static final class Variable {
+
+        private final String name;
+
+        private final SafeString literal;
+
+        Variable(String var) {
+            if (var.length() >= 2 && (var.charAt(0) == '"' || var.charAt(0) == '\'')
+                    && var.charAt(var.length() - 1) == var.charAt(0)) {
+                char quote = var.charAt(0);
+                this.name = null;
+                this.literal = new SafeString(var.substring(1, var.length() - 1)
+                        .replace("\\" + quote, String.valueOf(quote))
+                        .replace("\\\\", "\\"));
+                return;
+            }
+            if (var.startsWith("_")) {
+                throw new IllegalStateException("Variables and attributes may not begin with underscores: '"
+                        + var + "'");
+            }
+            if (var.indexOf('.') >= 0 || Character.isDigit(var.charAt(0)) || CONSTANTS.contains(var)) {
+                throw new IllegalStateException("'" + var + "' is unsupported by the native template engine, "
+                        + "only properties and string literals are");
+            }
+            this.name = var;
+            this.literal = null;
+        }
+
+        /**
+         * @return value, {@code null} if the property is missing
+         */
+        Object resolve(Context context) {
+            return name == null ? literal : context.variables.get(name);
+        }
+    }
+
+    private interface FilterFunction {
+
+        Object apply(Object value, Object arg);
+    }
+
+    private static final class Filter {
+
+        final boolean takesArg;
+
+        /**
+         * Result of a safe value is safe
+         */
+        final boolean safe;
+
+        final FilterFunction function;
+
+        Filter(boolean takesArg, boolean safe, FilterFunction function) {
+            this.takesArg = takesArg;
+            this.safe = safe;
+            this.function = function;
+        }
+    }
+
+    private static final class FilterCall {
+
+        final Filter filter;
+
+        final Variable arg;
+
+        FilterCall(Filter filter, Variable arg) {
+            this.filter = filter;
+            this.arg = arg;
+        }
+    }
+
+    private static final class FilterExpression {
+
+        private final Variable var;
+
+        private final List<FilterCall> filters = new ArrayList<>();
+
+        FilterExpression(String token) {
+            Matcher matcher = FILTER.matcher(token);
+            Variable var = null;
+            int upto = 0;
+            while (matcher.find()) {
+                if (matcher.start() != upto) {
+                    throw new IllegalStateException("Could not parse some characters: " + token.substring(0, upto)
+                            + "|" + token.substring(upto, matcher.start()) + "|" + token.substring(matcher.start()));
+                }
+                if (var == null) {
+                    String constant = matcher.group("constant");
+                    String variable = matcher.group("var");
+                    if (constant == null && variable == null) {
+                        throw new IllegalStateException("Could not find variable at start of " + token + ".");
+                    }
+                    var = new Variable(constant != null ? constant : variable);
+                } else {
+                    String name = matcher.group("filter");
+                    Filter filter = FILTERS.get(name);
+                    if (filter == null) {
+                        throw new IllegalStateException("Invalid filter: '" + name
+                                + "', unsupported by the native template engine");
+                    }
+                    String constantArg = matcher.group("constantArg");
+                    String varArg = matcher.group("varArg");
+                    Variable arg = constantArg != null ? new Variable(constantArg)
+                            : varArg != null ? new Variable(varArg) : null;
+                    if (filter.takesArg != (arg != null)) {
+                        throw new IllegalStateException(name + " requires " + (filter.takesArg ? 2 : 1)
+                                + " arguments, " + (arg == null ? 1 : 2) + " provided");
+                    }
+                    filters.add(new FilterCall(filter, arg));
+                }
+                upto = matcher.end();
+            }
+            if (upto != token.length()) {
+                throw new IllegalStateException("Could not parse the remainder: '" + token.substring(upto)
+                        + "' from '" + token + "'");
+            }
+            this.var = var;
+        }
+
+        /**
+         * @param context        context
+         * @param ignoreFailures resolve missing properties to {@code None} instead of an empty string
+         * @return resolved value
+         */
+        Object resolve(Context context, boolean ignoreFailures) {
+            Object value = var.resolve(context);
+            if (value == null && !ignoreFailures) {
+                value = "";
+            }
+            for (FilterCall call : filters) {
+                Object arg = call.arg == null ? null : call.arg.resolve(context);
+                Object result = call.filter.function.apply(value, arg);
+                if (call.filter.safe && value instanceof SafeString && result instanceof String) {
+                    result = new SafeString((String) result);
+                }
+                value = result;
+            }
+            return value;
+        }
+    }
+
+    // Nodes
+
+    private interface Node {
+
+        void render(Context context, StringBuilder out);
+    }
+
+    private static final class NodeList implements Node {
+
+        private final List<Node> nodes = new ArrayList<>();
+
+        void add(Node node) {
+            nodes.add(node);
+        }
+
+        @Override
+        public void render(Context context, StringBuilder out) {
+            for (Node node : nodes) {
+                node.render(context, out);
+            }
+        }
+    }
+
+    private static final class TextNode implements Node {
+
+        private final String text;
+
+        TextNode(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public void render(Context context, StringBuilder out) {
+            out.append(text);
+        }
+    }
+
+    private static final class VariableNode implements Node {
+
+        private final FilterExpression expression;
+
+        VariableNode(FilterExpression expression) {
+            this.expression = expression;
+        }
+
+        @Override
+        public void render(Context context, StringBuilder out) {
+            Object value = expression.resolve(context, false);
+            out.append(value instanceof SafeString || !context.autoescape ? text(value) : escape(text(value)));
+        }
+    }
+
+    private static final class IfNode implements Node {
+
+        private final List<Expression> conditions;
+
+        private final List<NodeList> branches;
+
+        IfNode(List<Expression> conditions, List<NodeList> branches) {
+            this.conditions = conditions;
+            this.branches = branches;
+        }
+
+        @Override
+        public void render(Context context, StringBuilder out) {
+            for (int i = 0; i < conditions.size(); i++) {
+                if (truthy(conditions.get(i).eval(context))) {
+                    branches.get(i).render(context, out);
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final class AutoescapeNode implements Node {
+
+        private final boolean autoescape;
+
+        private final NodeList nodes;
+
+        AutoescapeNode(boolean autoescape, NodeList nodes) {
+            this.autoescape = autoescape;
+            this.nodes = nodes;
+        }
+
+        @Override
+        public void render(Context context, StringBuilder out) {
+            boolean previous = context.autoescape;
+            context.autoescape = autoescape;
+            try {
+                nodes.render(context, out);
+            } finally {
+                context.autoescape = previous;
+            }
+        }
+    }
+
+    // Conditions of if tags, parsed by operator precedence as by Django
+
+    private interface Expression {
+
+        Object eval(Context context);
+    }
+
+    private static final Map<String, Integer> OPERATORS = new HashMap<>();
+
+    static {
+        OPERATORS.put("or", 6);
+        OPERATORS.put("and", 7);
+        OPERATORS.put("not", 8);
+        OPERATORS.put("in", 9);
+        OPERATORS.put("not in", 9);
+        OPERATORS.put("==", 10);
+        OPERATORS.put("!=", 10);
+    }
+
+    private static final class IfParser {
+
+        private final List<Object> tokens = new ArrayList<>();
+
+        private int position;
+
+        private Object current;
+
+        IfParser(Parser parser, Token token, List<String> bits) {
+            for (int i = 0; i < bits.size(); i++) {
+                String bit = bits.get(i);
+                if (bit.equals("not") && i + 1 < bits.size() && bits.get(i + 1).equals("in")) {
+                    bit = "not in";
+                    i++;
+                }
+                if (UNSUPPORTED_OPERATORS.contains(bit)) {
+                    throw new IllegalStateException("Operator '" + bit + "' on line " + token.line
+                            + " is unsupported by the native template engine");
+                }
+                if (OPERATORS.containsKey(bit)) {
+                    tokens.add(bit);
+                } else {
+                    FilterExpression expression = parser.compileFilter(token, bit);
+                    tokens.add((Expression) context -> expression.resolve(context, true));
+                }
+            }
+            current = next();
+        }
+
+        private Object next() {
+            return position < tokens.size() ? tokens.get(position++) : null;
+        }
+
+        private static int bindingPower(Object token) {
+            return token instanceof String ? OPERATORS.get(token) : 0;
+        }
+
+        Expression parse() {
+            Expression result = expression(0);
+            if (current != null) {
+                throw new IllegalStateException("Unused '" + (current instanceof String ? current : "literal")
+                        + "' at end of if expression.");
+            }
+            return result;
+        }
+
+        private Expression expression(int rbp) {
+            Object token = current;
+            current = next();
+            Expression left = nud(token);
+            while (rbp < bindingPower(current)) {
+                token = current;
+                current = next();
+                left = led((String) token, left);
+            }
+            return left;
+        }
+
+        private Expression nud(Object token) {
+            if (token == null) {
+                throw new IllegalStateException("Unexpected end of expression in if tag.");
+            }
+            if (token instanceof Expression) {
+                return (Expression) token;
+            }
+            if (!token.equals("not")) {
+                throw new IllegalStateException("Not expecting '" + token + "' in this position in if tag.");
+            }
+            Expression operand = expression(OPERATORS.get("not"));
+            return context -> !truthy(operand.eval(context));
+        }
+
+        private Expression led(String token, Expression left) {
+            if (token.equals("not")) {
+                throw new IllegalStateException("Not expecting 'not' as infix operator in if tag.");
+            }
+            Expression right = expression(OPERATORS.get(token));
+            switch (token) {
+                case "or":
+                    return context -> {
+                        Object value = left.eval(context);
+                        return truthy(value) ? value : right.eval(context);
+                    };
+                case "and":
+                    return context -> {
+                        Object value = left.eval(context);
+                        return truthy(value) ? right.eval(context) : value;
+                    };
+                case "in":
+                    return context -> in(left.eval(context), right.eval(context), true);
+                case "not in":
+                    return context -> in(left.eval(context), right.eval(context), false);
+                case "==":
+                    return context -> equal(left.eval(context), right.eval(context));
+                default:
+                    return context -> !equal(left.eval(context), right.eval(context));
+            }
+        }
+    }
+
+    // Values are strings, or None for missing properties
+
+    private static boolean truthy(Object value) {
+        return value instanceof Boolean ? (Boolean) value : value != null && !value.toString().isEmpty();
+    }
+
+    private static boolean equal(Object left, Object right) {
+        return left == null || right == null ? left == right : left.toString().equals(right.toString());
+    }
+
+    /**
+     * Membership fails on a missing operand, and Django evaluates a failed operator to {@code False}
+     */
+    private static boolean in(Object left, Object right, boolean expected) {
+        return left != null && right != null && right.toString().contains(left.toString()) == expected;
+    }
+
+    private static String text(Object value) {
+        return value == null ? "None" : value.toString();
+    }
+
+    private static String escape(String s) {
+        return s.replace("&", "&amp;")
+                .replace("<", "&lt;")
+                .replace(">", "&gt;")
+                .replace("\"", "&quot;")
+                .replace("'", "&#39;");
+    }
+}
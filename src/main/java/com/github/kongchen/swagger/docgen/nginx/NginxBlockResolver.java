@@ -16,6 +16,7 @@ import java.util.ArrayList;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -82,7 +83,7 @@ public class NginxBlockResolver<T extends NgxBlock> {
             String filter = matcher.group(5);
             Path path = Paths.get(absolute);
             Path tail = path;
-            while (!Files.isDirectory(path)) {
+            while (!isDirectory(path)) {
                 tail = removeRoot(tail);
                 if (tail == null) {
                     break;
@@ -110,16 +111,18 @@ public class NginxBlockResolver<T extends NgxBlock> {
     private void include(Path path, String filter) throws IOException {
         LOGGER.debug("Scanning directory: {}", path);
         try (DirectoryStream<Path> children = Files.newDirectoryStream(path, filter)) {
-            ArrayList<NgxConfig> includes = new ArrayList<>();
-            for (Path child : children) {
+            List<Path> matched = new ArrayList<>();
+            children.forEach(matched::add);
+            reader.visited(NginxConfigSnapshot.listing(path, filter), NginxConfigSnapshot.listing(matched));
+            List<Path> files = new ArrayList<>();
+            for (Path child : matched) {
                 if (reader.getExcludeFilter().accept(child)) {
                     LOGGER.debug("Skipping include: {}", child);
                     continue;
                 }
-                NgxConfig config = reader.read(child.toString());
-                NginxBlockResolver<NgxConfig> resolver = new NginxBlockResolver<>(reader, child.getParent(), config);
-                includes.add(resolver.resolve());
+                files.add(child);
             }
+            List<NgxConfig> includes = reader.read(files);
             if (includes.isEmpty()) {
                 LOGGER.warn("None files matched for path: {}", path);
                 iterator.remove();
@@ -134,6 +137,12 @@ public class NginxBlockResolver<T extends NgxBlock> {
         }
     }
 
+    private boolean isDirectory(Path path) {
+        boolean directory = Files.isDirectory(path);
+        reader.visited(NginxConfigSnapshot.directory(path), String.valueOf(directory));
+        return directory;
+    }
+
     private Path removeRoot(Path path) {
         Iterator<Path> it = path.iterator();
         it.next(); // skip root
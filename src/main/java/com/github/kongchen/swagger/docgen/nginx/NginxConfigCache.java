@@ -0,0 +1,158 @@
+package com.github.kongchen.swagger.docgen.nginx;
+
+import com.github.kongchen.swagger.docgen.mavenplugin.NginxConfig;
+import com.github.odiszapc.nginxparser.NgxConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Nginx configs read within an execution, by the options they are read with.
+ * <p>
+ * Api sources merging the same location, excludes, properties, template engine and encoding
+ * share one read and compiled config, and apply their own additional rewrites and tags to it.
+ */
+public final class NginxConfigCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NginxConfigCache.class);
+
+    private static final String JYTHON_CLASS = "org.python.util.PythonInterpreter";
+
+    private final File snapshotDirectory;
+
+    private final ConcurrentMap<String, NginxRoutingTable> tables = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Set<String>> inputs = new ConcurrentHashMap<>();
+
+    public NginxConfigCache() {
+        this(null);
+    }
+
+    /**
+     * @param snapshotDirectory directory to persist read configs to, {@code null} to read them on every build
+     */
+    public NginxConfigCache(File snapshotDirectory) {
+        this.snapshotDirectory = snapshotDirectory;
+    }
+
+    /**
+     * @param config nginx options
+     * @return identity of the config read with the options
+     */
+    static String key(NginxConfig config) {
+        Map<String, String> properties = config.getProperties() == null
+                ? new TreeMap<>()
+                : new TreeMap<>(config.getProperties());
+        return String.join("\n",
+                Paths.get(config.getLocation()).toAbsolutePath().normalize().toString(),
+                String.valueOf(config.getExcludeLocations()),
+                String.valueOf(properties),
+                config.getTemplateEngine().name(),
+                config.getEncoding());
+    }
+
+    /**
+     * @param config nginx options
+     * @return compiled config without additional rewrites
+     * @throws IOException if the config failed to be read
+     */
+    NginxRoutingTable get(NginxConfig config) throws IOException {
+        try {
+            return tables.computeIfAbsent(key(config), key -> {
+                try {
+                    return new NginxRoutingTable(read(config), null);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * @param config nginx options
+     * @return files and directories the config read with the options depends on, empty if it was not read
+     */
+    public Set<String> getInputs(NginxConfig config) {
+        return inputs.getOrDefault(key(config), Collections.emptySet());
+    }
+
+    /**
+     * @param input input of a config read
+     * @return current fingerprint of the input, {@code null} if it is not available
+     */
+    public static String fingerprint(String input) {
+        return NginxConfigSnapshot.fingerprint(input);
+    }
+
+    /**
+     * @return number of configs read
+     */
+    public int size() {
+        return tables.size();
+    }
+
+    private static NginxTemplateEngine templateEngine(NginxConfig.TemplateEngine engine) {
+        if (engine != NginxConfig.TemplateEngine.JYTHON) {
+            return new NativeDjangoTemplate();
+        }
+        try {
+            Class.forName(JYTHON_CLASS, false, NginxConfigCache.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Template engine " + engine
+                    + " requires org.python:jython-standalone among the plugin dependencies", e);
+        }
+        return new DjangoTemplate();
+    }
+
+    private NgxConfig read(NginxConfig config) throws IOException {
+        LOGGER.debug("Reading nginx config {}", config.getLocation());
+        NginxConfigReader reader = new NginxConfigReader(createFilter(config.getExcludeLocations()),
+                config.getProperties(),
+                templateEngine(config.getTemplateEngine()),
+                Charset.forName(config.getEncoding()));
+        NginxConfigSnapshot snapshot = snapshotDirectory == null
+                ? null
+                : new NginxConfigSnapshot(snapshotDirectory, config);
+        NgxConfig result = snapshot == null ? null : snapshot.load();
+        if (result != null) {
+            inputs.put(key(config), snapshot.getInputs().keySet());
+            return result;
+        }
+        result = reader.read(config.getLocation());
+        inputs.put(key(config), reader.getInputs().keySet());
+        if (snapshot != null) {
+            snapshot.save(result, reader.getInputs());
+        }
+        return result;
+    }
+
+    private static DirectoryStream.Filter<Path> createFilter(List<String> locations) {
+        if (locations == null) {
+            return null;
+        }
+        return path -> {
+            for (String location : locations) {
+                if (path.endsWith(location)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+}
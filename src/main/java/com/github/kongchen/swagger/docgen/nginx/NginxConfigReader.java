@@ -1,66 +1,297 @@
 package com.github.kongchen.swagger.docgen.nginx;
 
+import com.github.odiszapc.nginxparser.NgxAbstractEntry;
+import com.github.odiszapc.nginxparser.NgxBlock;
+import com.github.odiszapc.nginxparser.NgxComment;
 import com.github.odiszapc.nginxparser.NgxConfig;
+import com.github.odiszapc.nginxparser.NgxEntry;
+import com.github.odiszapc.nginxparser.NgxIfBlock;
+import com.github.odiszapc.nginxparser.NgxParam;
+import com.github.odiszapc.nginxparser.NgxToken;
+import com.github.odiszapc.nginxparser.antlr.NginxLexer;
+import com.github.odiszapc.nginxparser.antlr.NginxListenerImpl;
+import com.github.odiszapc.nginxparser.antlr.NginxParser;
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayInputStream;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Scanner;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
 
+/**
+ * Reads nginx configs rendered as templates, with includes resolved.
+ * <p>
+ * Parsed files are cached by canonical path and content hash, so a snippet included from several blocks
+ * is rendered and parsed once. Cached trees are never handed out: every read returns a copy,
+ * so blocks including the same snippet do not share entries and may be changed independently.
+ * Files matched by one include directive are read in parallel, by threads with the context class loader
+ * of the thread starting the read, as template engines load their resources with it.
+ * <p>
+ * Files are decoded with an explicit charset and fed to the parser as decoded.
+ * Files without template markers are not rendered at all.
+ */
 public class NginxConfigReader {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(NginxConfigReader.class);
 
-    private static String readContent(String path) throws IOException {
-        try (InputStream file = new FileInputStream(path)) {
-            return readContent(file);
-        }
-    }
+    private static final char[] TEMPLATE_MARKERS = {'{', '%', '#'};
 
-    private static String readContent(InputStream inputStream) throws IOException {
-        Scanner scanner = new Scanner(inputStream).useDelimiter("\\A");
-        String content = scanner.next();
-        IOException e = scanner.ioException();
-        if (e != null) {
-            throw e;
+    static String hash(byte[] content) {
+        try {
+            StringBuilder sb = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-1").digest(content)) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
-        return content;
     }
 
     private final DirectoryStream.Filter<Path> excludeFilter;
 
-    private final String context;
+    private final Map<String, String> context;
+
+    private final NginxTemplateEngine templateEngine;
+
+    private final Charset charset;
 
-    private final DjangoTemplate djangoTemplate = new DjangoTemplate();
+    private final boolean asciiCompatible;
+
+    private final ConcurrentMap<String, NgxConfig> configs = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, String> inputs = new ConcurrentHashMap<>();
 
     public NginxConfigReader(DirectoryStream.Filter<Path> excludeFilter, Map<String, String> context) {
+        this(excludeFilter, context, new NativeDjangoTemplate());
+    }
+
+    public NginxConfigReader(DirectoryStream.Filter<Path> excludeFilter, Map<String, String> context,
+                             NginxTemplateEngine templateEngine) {
+        this(excludeFilter, context, templateEngine, StandardCharsets.UTF_8);
+    }
+
+    public NginxConfigReader(DirectoryStream.Filter<Path> excludeFilter, Map<String, String> context,
+                             NginxTemplateEngine templateEngine, Charset charset) {
         this.excludeFilter = excludeFilter == null ? path -> true : excludeFilter;
-        this.context = DjangoTemplate.buildContext(context);
+        this.context = context;
+        this.templateEngine = templateEngine;
+        this.charset = charset;
+        String markers = new String(TEMPLATE_MARKERS);
+        asciiCompatible = Arrays.equals(markers.getBytes(charset), markers.getBytes(StandardCharsets.US_ASCII));
     }
 
     public DirectoryStream.Filter<Path> getExcludeFilter() {
         return excludeFilter;
     }
 
+    /**
+     * @return files and directories read so far with their fingerprints, as stored by {@link NginxConfigSnapshot}
+     */
+    Map<String, String> getInputs() {
+        return new TreeMap<>(inputs);
+    }
+
+    void visited(String input, String fingerprint) {
+        inputs.put(input, fingerprint);
+    }
+
     public NgxConfig read(String path) throws IOException {
-        LOGGER.debug("Reading config: {}", path);
-        Path dir = Paths.get(path).getParent();
         try {
-            String content = djangoTemplate.render(readContent(path), context);
-            try (InputStream input = new ByteArrayInputStream(content.getBytes())) {
-                NgxConfig config = NgxConfig.read(input);
-                NginxBlockResolver<NgxConfig> resolver = new NginxBlockResolver<>(this, dir, config);
-                return resolver.resolve();
+            Path file = Paths.get(path).toRealPath();
+            // includes are resolved against the directory of the given path, which may be a link
+            Path dir = Paths.get(path).toAbsolutePath().normalize().getParent();
+            byte[] content = Files.readAllBytes(file);
+            String hash = hash(content);
+            visited(NginxConfigSnapshot.file(Paths.get(path)), hash);
+            String key = file + "@" + hash + (dir.equals(file.getParent()) ? "" : "@" + dir);
+            NgxConfig config = configs.get(key);
+            if (config != null) {
+                LOGGER.debug("Reusing parsed config: {}", path);
+                return copy(config);
             }
+            LOGGER.debug("Reading config: {}", path);
+            config = parse(dir, content);
+            NgxConfig previous = configs.putIfAbsent(key, config);
+            return copy(previous == null ? config : previous);
         } catch (IOException e) {
             throw new IOException("Failed to read config: " + path, e);
         }
     }
+
+    /**
+     * @param paths config files
+     * @return parsed configs in the order of the files
+     * @throws IOException if any file failed to be read
+     */
+    public List<NgxConfig> read(List<Path> paths) throws IOException {
+        if (paths.size() < 2) {
+            List<NgxConfig> result = new ArrayList<>(paths.size());
+            for (Path path : paths) {
+                result.add(read(path.toString()));
+            }
+            return result;
+        }
+        List<ForkJoinTask<NgxConfig>> tasks = new ArrayList<>(paths.size());
+        for (Path path : paths) {
+            tasks.add(ForkJoinTask.adapt(() -> {
+                try {
+                    return read(path.toString());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        }
+        // includes of included files are read by the pool reading the including file
+        Thread current = Thread.currentThread();
+        ForkJoinPool pool = current instanceof IncludeReaderThread ? null : newPool();
+        try {
+            for (ForkJoinTask<NgxConfig> task : tasks) {
+                if (pool == null) {
+                    task.fork();
+                } else {
+                    pool.execute(task);
+                }
+            }
+            List<NgxConfig> result = new ArrayList<>(tasks.size());
+            for (ForkJoinTask<NgxConfig> task : tasks) {
+                result.add(task.join());
+            }
+            return result;
+        } catch (RuntimeException e) {
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) cause).getCause();
+                }
+            }
+            throw e;
+        } finally {
+            tasks.forEach(task -> task.cancel(false));
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    private static ForkJoinPool newPool() {
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        return new ForkJoinPool(Runtime.getRuntime().availableProcessors(), p -> {
+            ForkJoinWorkerThread thread = new IncludeReaderThread(p);
+            thread.setContextClassLoader(contextClassLoader);
+            return thread;
+        }, null, false);
+    }
+
+    private static class IncludeReaderThread extends ForkJoinWorkerThread {
+
+        IncludeReaderThread(ForkJoinPool pool) {
+            super(pool);
+        }
+    }
+
+    /**
+     * Copy a parsed tree, so the cached tree is never changed by readers of the copy
+     */
+    static NgxConfig copy(NgxConfig config) {
+        return (NgxConfig) copy(config, new IdentityHashMap<>());
+    }
+
+    private static NgxEntry copy(NgxEntry entry, Map<NgxEntry, NgxEntry> copies) {
+        NgxEntry copy = copies.get(entry);
+        if (copy != null) {
+            return copy;
+        }
+        if (entry instanceof NgxComment) {
+            copy = new NgxComment("#" + ((NgxComment) entry).getValue());
+        } else if (entry instanceof NgxParam) {
+            copy = copyTokens((NgxParam) entry, new NgxParam());
+        } else if (entry instanceof NgxBlock) {
+            NgxBlock block = (NgxBlock) entry;
+            NgxBlock blockCopy = block instanceof NgxConfig
+                    ? new NgxConfig()
+                    : copyTokens(block, block instanceof NgxIfBlock ? new NgxIfBlock() : new NgxBlock());
+            for (NgxEntry child : block.getEntries()) {
+                blockCopy.addEntry(copy(child, copies));
+            }
+            copy = blockCopy;
+        } else {
+            throw new IllegalStateException("Unsupported entry: " + entry.getClass().getName());
+        }
+        copies.put(entry, copy);
+        return copy;
+    }
+
+    private static <T extends NgxAbstractEntry> T copyTokens(NgxAbstractEntry entry, T copy) {
+        for (NgxToken token : entry.getTokens()) {
+            copy.addValue(token.getToken());
+        }
+        return copy;
+    }
+
+    /**
+     * @param content file content
+     * @return if the content may contain Django template tags, variables or comments
+     */
+    boolean isTemplate(byte[] content) {
+        if (!asciiCompatible) {
+            return true;
+        }
+        for (int i = 0; i < content.length - 1; i++) {
+            if (content[i] == '{') {
+                byte next = content[i + 1];
+                for (char marker : TEMPLATE_MARKERS) {
+                    if (next == marker) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private NgxConfig parse(Path dir, byte[] content) throws IOException {
+        ANTLRInputStream input;
+        if (isTemplate(content)) {
+            input = new ANTLRInputStream(templateEngine.render(new String(content, charset), context));
+        } else {
+            CharBuffer chars = charset.decode(ByteBuffer.wrap(content));
+            input = new ANTLRInputStream(chars.array(), chars.limit());
+        }
+        NgxConfig config = parse(input);
+        NginxBlockResolver<NgxConfig> resolver = new NginxBlockResolver<>(this, dir, config);
+        return resolver.resolve();
+    }
+
+    /**
+     * Parse as {@link NgxConfig#read(java.io.InputStream)} does, from decoded chars
+     */
+    private static NgxConfig parse(ANTLRInputStream input) {
+        NginxParser parser = new NginxParser(new CommonTokenStream(new NginxLexer(input)));
+        NginxListenerImpl listener = new NginxListenerImpl();
+        new ParseTreeWalker().walk(listener, parser.config());
+        return listener.getResult();
+    }
 }
@@ -0,0 +1,267 @@
+package com.github.kongchen.swagger.docgen.nginx;
+
+import com.github.kongchen.swagger.docgen.mavenplugin.NginxConfig;
+import com.github.odiszapc.nginxparser.NgxAbstractEntry;
+import com.github.odiszapc.nginxparser.NgxBlock;
+import com.github.odiszapc.nginxparser.NgxComment;
+import com.github.odiszapc.nginxparser.NgxConfig;
+import com.github.odiszapc.nginxparser.NgxEntry;
+import com.github.odiszapc.nginxparser.NgxIfBlock;
+import com.github.odiszapc.nginxparser.NgxParam;
+import com.github.odiszapc.nginxparser.NgxToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Persistent copy of a resolved nginx config tree.
+ * <p>
+ * Along with the tree every input of the read is stored: the content hash of each file,
+ * the files matched by each include mask and the directories probed for absolute includes.
+ * The snapshot is loaded only if the config options are the same and every input is unchanged,
+ * so the config is neither rendered nor parsed again.
+ * Blocks referenced more than once in a tree are stored once.
+ */
+class NginxConfigSnapshot {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NginxConfigSnapshot.class);
+
+    private static final int MAGIC = 0x4e475853;
+
+    private static final int VERSION = 1;
+
+    static final String FILE = "file:";
+
+    static final String DIRECTORY = "dir:";
+
+    static final String LISTING = "glob:";
+
+    private static final int PARAM = 0;
+
+    private static final int COMMENT = 1;
+
+    private static final int BLOCK = 2;
+
+    private static final int IF = 3;
+
+    private static final int CONFIG = 4;
+
+    private static final int REFERENCE = 5;
+
+    private final File file;
+
+    private final String key;
+
+    private final Map<String, String> inputs = new TreeMap<>();
+
+    /**
+     * @param directory directory of snapshots
+     * @param config    options of the config read
+     */
+    NginxConfigSnapshot(File directory, NginxConfig config) {
+        key = NginxConfigCache.key(config);
+        file = new File(directory, NginxConfigReader.hash(key.getBytes(StandardCharsets.UTF_8)) + ".bin");
+    }
+
+    static String file(Path path) {
+        return FILE + path.toAbsolutePath().normalize();
+    }
+
+    static String directory(Path path) {
+        return DIRECTORY + path.toAbsolutePath().normalize();
+    }
+
+    static String listing(Path path, String glob) {
+        return LISTING + path.toAbsolutePath().normalize() + '\n' + glob;
+    }
+
+    static String listing(List<Path> children) {
+        StringBuilder sb = new StringBuilder();
+        for (Path child : children) {
+            sb.append(child.getFileName()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param input input of a read
+     * @return current fingerprint of the input, {@code null} if it is not available
+     */
+    static String fingerprint(String input) {
+        try {
+            if (input.startsWith(FILE)) {
+                return NginxConfigReader.hash(Files.readAllBytes(Paths.get(input.substring(FILE.length()))));
+            }
+            if (input.startsWith(DIRECTORY)) {
+                return String.valueOf(Files.isDirectory(Paths.get(input.substring(DIRECTORY.length()))));
+            }
+            if (input.startsWith(LISTING)) {
+                int separator = input.lastIndexOf('\n');
+                Path path = Paths.get(input.substring(LISTING.length(), separator));
+                List<Path> children = new ArrayList<>();
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(path, input.substring(separator + 1))) {
+                    stream.forEach(children::add);
+                }
+                return listing(children);
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.debug("Unable to fingerprint {}: {}", input, e.toString());
+        }
+        return null;
+    }
+
+    /**
+     * @return stored config tree, {@code null} if missing or outdated
+     */
+    NgxConfig load() {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !key.equals(in.readUTF())) {
+                return null;
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                String input = in.readUTF();
+                String fingerprint = in.readUTF();
+                if (!fingerprint.equals(fingerprint(input))) {
+                    LOGGER.debug("Outdated nginx config snapshot {}: {} changed", file, input);
+                    return null;
+                }
+                inputs.put(input, fingerprint);
+            }
+            NgxEntry config = readEntry(in, new ArrayList<>());
+            LOGGER.debug("Loaded nginx config snapshot {}", file);
+            return (NgxConfig) config;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Ignoring unreadable nginx config snapshot {}: {}", file, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * @return inputs of the loaded config tree with their fingerprints
+     */
+    Map<String, String> getInputs() {
+        return inputs;
+    }
+
+    /**
+     * @param config config tree
+     * @param inputs inputs of the read with their fingerprints
+     */
+    void save(NgxConfig config, Map<String, String> inputs) {
+        File parent = file.getAbsoluteFile().getParentFile();
+        try {
+            if (parent != null) {
+                Files.createDirectories(parent.toPath());
+            }
+            File tmp = File.createTempFile(file.getName(), ".tmp", parent);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(key);
+                out.writeInt(inputs.size());
+                for (Map.Entry<String, String> input : inputs.entrySet()) {
+                    out.writeUTF(input.getKey());
+                    out.writeUTF(input.getValue());
+                }
+                writeEntry(out, config, new IdentityHashMap<>());
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to write nginx config snapshot {}: {}", file, e.toString());
+        }
+    }
+
+    private static void writeEntry(DataOutputStream out, NgxEntry entry, Map<NgxEntry, Integer> blocks)
+            throws IOException {
+        if (entry instanceof NgxComment) {
+            out.writeByte(COMMENT);
+            out.writeUTF(((NgxComment) entry).getValue());
+        } else if (entry instanceof NgxParam) {
+            out.writeByte(PARAM);
+            writeTokens(out, (NgxParam) entry);
+        } else if (entry instanceof NgxBlock) {
+            Integer id = blocks.get(entry);
+            if (id != null) {
+                out.writeByte(REFERENCE);
+                out.writeInt(id);
+                return;
+            }
+            blocks.put(entry, blocks.size());
+            NgxBlock block = (NgxBlock) entry;
+            if (block instanceof NgxConfig) {
+                out.writeByte(CONFIG);
+            } else {
+                out.writeByte(block instanceof NgxIfBlock ? IF : BLOCK);
+                writeTokens(out, block);
+            }
+            out.writeInt(block.getEntries().size());
+            for (NgxEntry child : block.getEntries()) {
+                writeEntry(out, child, blocks);
+            }
+        } else {
+            throw new IOException("Unsupported entry: " + entry.getClass().getName());
+        }
+    }
+
+    private static void writeTokens(DataOutputStream out, NgxAbstractEntry entry) throws IOException {
+        out.writeInt(entry.getTokens().size());
+        for (NgxToken token : entry.getTokens()) {
+            out.writeUTF(token.getToken());
+        }
+    }
+
+    private static NgxEntry readEntry(DataInputStream in, List<NgxBlock> blocks) throws IOException {
+        int type = in.readByte();
+        switch (type) {
+            case COMMENT:
+                return new NgxComment("#" + in.readUTF());
+            case PARAM:
+                return readTokens(in, new NgxParam());
+            case REFERENCE:
+                return Objects.requireNonNull(blocks.get(in.readInt()));
+            case CONFIG:
+            case IF:
+            case BLOCK:
+                NgxBlock block = type == CONFIG
+                        ? new NgxConfig()
+                        : readTokens(in, type == IF ? new NgxIfBlock() : new NgxBlock());
+                blocks.add(block);
+                for (int i = in.readInt(); i > 0; i--) {
+                    block.addEntry(readEntry(in, blocks));
+                }
+                return block;
+            default:
+                throw new IOException("Unknown entry type: " + type);
+        }
+    }
+
+    private static <T extends NgxAbstractEntry> T readTokens(DataInputStream in, T entry) throws IOException {
+        for (int i = in.readInt(); i > 0; i--) {
+            entry.addValue(in.readUTF());
+        }
+        return entry;
+    }
+}
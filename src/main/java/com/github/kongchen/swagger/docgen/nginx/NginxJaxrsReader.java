@@ -2,11 +2,9 @@ package com.github.kongchen.swagger.docgen.nginx;
 
 import com.github.kongchen.swagger.docgen.mavenplugin.Exclude;
 import com.github.kongchen.swagger.docgen.mavenplugin.NginxConfig;
-import com.github.kongchen.swagger.docgen.mavenplugin.NginxRewrite;
 import com.github.kongchen.swagger.docgen.mavenplugin.NginxTag;
 import com.github.kongchen.swagger.docgen.mavenplugin.UrlMatchGroup;
 import com.github.kongchen.swagger.docgen.reader.JaxrsReader;
-import com.github.odiszapc.nginxparser.NgxConfig;
 import io.swagger.models.Operation;
 import io.swagger.models.Swagger;
 import io.swagger.models.Tag;
@@ -15,8 +13,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.nio.file.DirectoryStream;
-import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -44,50 +40,46 @@ public class NginxJaxrsReader extends JaxrsReader {
 
     public static final String OPERATION_ID_FORMAT = "{{className}}.{{methodName}}";
 
-    private final NgxConfig config;
-
-    private final List<NginxRewrite> additionalRewrites;
+    private final NginxRoutingTable routingTable;
 
     private final List<UrlMatchGroup> tags;
 
     private final List<UrlTag> urlTags;
 
+    private final MultiPattern urlPatterns;
+
     public NginxJaxrsReader(Swagger swagger, NginxConfig nginxConfig, Log log) {
+        this(swagger, nginxConfig, null, log);
+    }
+
+    /**
+     * @param configs nginx configs shared with other readers, {@code null} if not shared
+     */
+    public NginxJaxrsReader(Swagger swagger, NginxConfig nginxConfig, NginxConfigCache configs, Log log) {
         super(swagger, log);
 
         if (nginxConfig == null || !nginxConfig.isEnabled()) {
-            config = null;
-            additionalRewrites = null;
+            routingTable = null;
             tags = null;
             urlTags = null;
+            urlPatterns = null;
         } else {
             try {
-                DirectoryStream.Filter<Path> excludeFilter = createFilter(nginxConfig.getExcludeLocations());
-                NginxConfigReader reader = new NginxConfigReader(excludeFilter, nginxConfig.getProperties());
-                config = reader.read(nginxConfig.getLocation());
-                additionalRewrites = nginxConfig.getAdditionalRewrites();
+                routingTable = Optional.ofNullable(configs).orElseGet(NginxConfigCache::new)
+                        .get(nginxConfig)
+                        .withAdditionalRewrites(nginxConfig.getAdditionalRewrites(),
+                                nginxConfig.isCacheResolutions()
+                                        ? new NginxResolutionCache(nginxConfig.isVerifyCachedResolutions())
+                                        : null);
                 tags = nginxConfig.getTags();
                 urlTags = createUrlTags(tags);
+                urlPatterns = new MultiPattern(urlTags.stream().map(tag -> tag.url).collect(Collectors.toList()));
             } catch (IOException e) {
                 throw new RuntimeException("Failed to load config", e);
             }
         }
     }
 
-    private static DirectoryStream.Filter<Path> createFilter(List<String> locations) {
-        if (locations == null) {
-            return null;
-        }
-        return path -> {
-            for (String location : locations) {
-                if (path.endsWith(location)) {
-                    return true;
-                }
-            }
-            return false;
-        };
-    }
-
     private static List<UrlTag> createUrlTags(List<UrlMatchGroup> tags) {
         return Optional.ofNullable(tags).map(Collection::stream).map(stream ->
                 stream.flatMap(tag -> Optional.ofNullable(tag.getUrls()).map(Collection::stream).map(urls ->
@@ -121,6 +113,11 @@ public class NginxJaxrsReader extends JaxrsReader {
                     .filter(name -> swagger.getTag(name) == null)
                     .forEach(name -> swagger.addTag(new Tag().name(name)));
         }
+        NginxResolutionCache cache = routingTable == null ? null : routingTable.getResolutionCache();
+        if (cache != null) {
+            LOGGER.debug("Nginx resolutions: {} cached, {} hits, {} misses",
+                    cache.size(), cache.getHits(), cache.getMisses());
+        }
     }
 
     @Override
@@ -135,36 +132,33 @@ public class NginxJaxrsReader extends JaxrsReader {
 
     private String revertPath(String operationPath, String httpMethod, Operation operation) {
         try {
-            if (config == null) {
+            if (routingTable == null) {
                 return operationPath;
             }
             String revertedPath =
-                    new NginxLocationReverser(config, additionalRewrites, operationPath, httpMethod, operation)
+                    new NginxLocationReverser(routingTable, operationPath, httpMethod, operation)
                             .process();
             if (!revertedPath.equals(operationPath)) {
                 String rewrittenPath =
-                        new NginxLocationRewriter(config, additionalRewrites, revertedPath, httpMethod, operation)
+                        new NginxLocationRewriter(routingTable, revertedPath, httpMethod, operation)
                                 .process();
                 if (!rewrittenPath.equals(operationPath)) {
                     revertedPath = operationPath;
                 }
             }
-            if (urlTags != null) {
-                for (UrlTag tag : urlTags) {
-                    if (tag.url.matcher(revertedPath).matches()) {
-                        if (tag.name == null) {
-                            if (LOGGER.isDebugEnabled()) {
-                                LOGGER.debug("Exclude matched URL {}", tag.url.pattern());
-                            }
-                            return null;
-                        }
-                        if (LOGGER.isInfoEnabled()) {
-                            LOGGER.info("Set tag {} by matched URL {}", tag.name, tag.url.pattern());
-                        }
-                        operation.setTags(Collections.singletonList(tag.name));
-                        break;
+            int match = urlPatterns == null ? -1 : urlPatterns.firstMatch(revertedPath);
+            if (match >= 0) {
+                UrlTag tag = urlTags.get(match);
+                if (tag.name == null) {
+                    if (LOGGER.isDebugEnabled()) {
+                        LOGGER.debug("Exclude matched URL {}", tag.url.pattern());
                     }
+                    return null;
+                }
+                if (LOGGER.isInfoEnabled()) {
+                    LOGGER.info("Set tag {} by matched URL {}", tag.name, tag.url.pattern());
                 }
+                operation.setTags(Collections.singletonList(tag.name));
             }
             return revertedPath;
         } catch (Exception e) {
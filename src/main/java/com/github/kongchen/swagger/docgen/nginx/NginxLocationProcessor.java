@@ -1,10 +1,12 @@
 package com.github.kongchen.swagger.docgen.nginx;
 
 import com.github.kongchen.swagger.docgen.mavenplugin.NginxRewrite;
-import com.github.odiszapc.nginxparser.NgxBlock;
-import com.github.odiszapc.nginxparser.NgxConfig;
-import com.github.odiszapc.nginxparser.NgxEntry;
-import com.github.odiszapc.nginxparser.NgxIfBlock;
+import com.github.kongchen.swagger.docgen.nginx.NginxRoutingTable.Block;
+import com.github.kongchen.swagger.docgen.nginx.NginxRoutingTable.Condition;
+import com.github.kongchen.swagger.docgen.nginx.NginxRoutingTable.Entry;
+import com.github.kongchen.swagger.docgen.nginx.NginxRoutingTable.Location;
+import com.github.kongchen.swagger.docgen.nginx.NginxRoutingTable.Return;
+import com.github.kongchen.swagger.docgen.nginx.NginxRoutingTable.Rewrite;
 import com.github.odiszapc.nginxparser.NgxParam;
 import io.swagger.models.Operation;
 import org.apache.commons.lang3.RandomUtils;
@@ -16,32 +18,101 @@ import java.util.Deque;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static com.github.kongchen.swagger.docgen.nginx.NginxDirective.BREAK;
 import static com.github.kongchen.swagger.docgen.nginx.NginxDirective.LAST;
-import static com.github.kongchen.swagger.docgen.nginx.NginxDirective.LOCATION;
 import static com.github.kongchen.swagger.docgen.nginx.NginxDirective.REQUEST_METHOD;
-import static com.github.kongchen.swagger.docgen.nginx.NginxDirective.RETURN;
-import static com.github.kongchen.swagger.docgen.nginx.NginxDirective.REWRITE;
 
+/**
+ * Walk of a {@link NginxRoutingTable} for a single operation
+ */
 public abstract class NginxLocationProcessor {
 
     private static class Cursor {
 
-        public Cursor(NgxBlock block) {
+        public Cursor(Block block) {
             this.block = block;
             this.iterator = block.iterator();
         }
 
-        public final NgxBlock block;
-        public final Iterator<NgxEntry> iterator;
+        public final Block block;
+        public final Iterator<Entry> iterator;
+
+        private String prefixPath;
+        private Set<Location> prefixMatches;
+
+        private String regexPath;
+        private int regexMatch;
     }
 
     private static class FinishProcessing extends RuntimeException {
     }
 
+    /**
+     * Outcome of a walk, which depends only on the HTTP method and the marked path,
+     * so it can be replayed on any path of the same shape
+     */
+    static final class Resolution {
+
+        private final Location prefixLocation;
+        private final LocationType prefixLocationType;
+        private final String prefixLocationUrl;
+        private final RewriteParams prefixRewrite;
+        private final Location regexLocation;
+        private final RewriteParams regexRewrite;
+        private final List<Pattern> notFoundLocations;
+        private final List<RewriteParams> unconditionalRewrites;
+
+        private Resolution(NginxLocationProcessor processor) {
+            prefixLocation = processor.prefixLocation;
+            prefixLocationType = processor.prefixLocationType;
+            prefixLocationUrl = processor.prefixLocationUrl;
+            prefixRewrite = processor.prefixRewrite;
+            regexLocation = processor.regexLocation;
+            regexRewrite = processor.regexRewrite;
+            notFoundLocations = new ArrayList<>(processor.notFoundLocations);
+            unconditionalRewrites = new ArrayList<>(processor.unconditionalRewrites);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Resolution that = (Resolution) o;
+            return prefixLocation == that.prefixLocation
+                    && prefixLocationType == that.prefixLocationType
+                    && Objects.equals(prefixLocationUrl, that.prefixLocationUrl)
+                    && prefixRewrite == that.prefixRewrite
+                    && regexLocation == that.regexLocation
+                    && regexRewrite == that.regexRewrite
+                    && notFoundLocations.equals(that.notFoundLocations)
+                    && unconditionalRewrites.equals(that.unconditionalRewrites);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(prefixLocationType, prefixLocationUrl, notFoundLocations, unconditionalRewrites);
+        }
+
+        @Override
+        public String toString() {
+            return "Resolution{prefixLocation=" + prefixLocation
+                    + ", prefixRewrite=" + prefixRewrite
+                    + ", regexLocation=" + regexLocation
+                    + ", regexRewrite=" + regexRewrite
+                    + ", notFoundLocations=" + notFoundLocations
+                    + ", unconditionalRewrites=" + unconditionalRewrites + '}';
+        }
+    }
+
     protected enum LocationType {
         PREFIX(null, true, false, false),
         NO_REGEX("^~", true, false, true),
@@ -71,6 +142,9 @@ public abstract class NginxLocationProcessor {
         public final String replace;
         public final String opt;
 
+        private volatile Pattern pattern;
+        private volatile RewriteParams anyId;
+
         public RewriteParams(String regex, String replace, String opt) {
             this.regex = regex;
             this.replace = replace;
@@ -95,6 +169,30 @@ public abstract class NginxLocationProcessor {
             }
         }
 
+        /**
+         * @return compiled regex with escaped slashes
+         */
+        public Pattern pattern() {
+            Pattern result = pattern;
+            if (result == null) {
+                result = Pattern.compile(regex.replace("/", "\\/"));
+                pattern = result;
+            }
+            return result;
+        }
+
+        /**
+         * @return the rewrite with id regexes replaced to match any path id
+         */
+        public RewriteParams anyId() {
+            RewriteParams result = anyId;
+            if (result == null) {
+                result = new RewriteParams(ID_REGEX.matcher(regex).replaceAll(".*"), replace, opt);
+                anyId = result;
+            }
+            return result;
+        }
+
         @Override
         public String toString() {
             String s = "Rewrite " + regex + " " + replace;
@@ -112,26 +210,27 @@ public abstract class NginxLocationProcessor {
     protected static final Pattern ID_REGEX = Pattern.compile("\\\\d\\+|\\[\\^/]\\+");
     protected static final String ID_MARK = String.valueOf(RandomUtils.nextInt(1 << 30, Integer.MAX_VALUE));
 
-    private final NgxConfig config;
+    private final NginxRoutingTable table;
     private final Operation operation;
     private final String httpMethod;
     private final List<Pattern> notFoundLocations = new ArrayList<>();
+    private final List<RewriteParams> unconditionalRewrites = new ArrayList<>();
     private final Deque<Cursor> breadcrumbs = new LinkedList<>();
 
     private Cursor cursor;
     private Cursor locationCursor;
-    private NgxBlock location;
+    private Location location;
     private LocationType locationType;
 
     protected String path;
     protected String markedPath;
     protected String locationUrl;
     protected Pattern locationRegex;
-    protected NgxBlock prefixLocation;
+    protected Location prefixLocation;
     protected LocationType prefixLocationType;
     protected String prefixLocationUrl;
     protected RewriteParams prefixRewrite;
-    protected NgxBlock regexLocation;
+    protected Location regexLocation;
     protected RewriteParams regexRewrite;
 
     protected static <T> Iterator<T> argsIterator(Iterable<T> source) {
@@ -151,9 +250,7 @@ public abstract class NginxLocationProcessor {
     }
 
     protected static String applyUnconditionalRewrite(RewriteParams rewrite, String path) {
-        Matcher matcher = Pattern
-                .compile(rewrite.regex.replace("/", "\\/"))
-                .matcher(path);
+        Matcher matcher = rewrite.pattern().matcher(path);
         if (!matcher.matches()) {
             LOGGER.debug("Unconditional rewrite wasn't matched: {}", rewrite);
         } else {
@@ -166,14 +263,14 @@ public abstract class NginxLocationProcessor {
         return path;
     }
 
-    protected NginxLocationProcessor(NgxConfig config, String path, String httpMethod, Operation operation) {
+    protected NginxLocationProcessor(NginxRoutingTable table, String path, String httpMethod, Operation operation) {
         if (path == null) {
             throw new NullPointerException("operationPath");
         }
         if (httpMethod == null) {
             throw new IllegalArgumentException("HTTP method can't be null");
         }
-        this.config = config;
+        this.table = table;
         this.operation = operation;
         this.path = path;
         markedPath = PATH_ID.matcher(path).replaceAll(ID_MARK);
@@ -182,7 +279,29 @@ public abstract class NginxLocationProcessor {
 
     public String process() {
         LOGGER.info("Processing {} {}, operationId = {}", httpMethod, path, operation.getOperationId());
-        cursor = new Cursor(config);
+        NginxResolutionCache cache = table.getResolutionCache();
+        if (cache == null) {
+            walk();
+            return path;
+        }
+        String key = markedPath;
+        Resolution cached = cache.get(getClass(), httpMethod, key);
+        if (cached == null) {
+            cache.put(getClass(), httpMethod, key, walk());
+        } else if (cache.isVerify()) {
+            Resolution resolution = walk();
+            if (!resolution.equals(cached)) {
+                throw new IllegalStateException("Cached resolution of " + httpMethod + " " + key
+                        + " differs from the computed one: " + cached + ", " + resolution);
+            }
+        } else {
+            replay(cached);
+        }
+        return path;
+    }
+
+    private Resolution walk() {
+        cursor = new Cursor(table.getRoot());
         try {
             do {
                 while (cursor.iterator.hasNext()) {
@@ -193,7 +312,26 @@ public abstract class NginxLocationProcessor {
         } catch (FinishProcessing ignore) {
             // use locations were found
         }
-        return path;
+        return new Resolution(this);
+    }
+
+    private void replay(Resolution resolution) {
+        LOGGER.debug("Replay {}", resolution);
+        prefixLocation = resolution.prefixLocation;
+        prefixLocationType = resolution.prefixLocationType;
+        prefixLocationUrl = resolution.prefixLocationUrl;
+        prefixRewrite = resolution.prefixRewrite;
+        regexLocation = resolution.regexLocation;
+        regexRewrite = resolution.regexRewrite;
+        notFoundLocations.addAll(resolution.notFoundLocations);
+        for (RewriteParams rewrite : resolution.unconditionalRewrites) {
+            try {
+                unconditionalRewrite(rewrite);
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to process rewrite with location: " + location, e);
+            }
+            unconditionalRewrites.add(rewrite);
+        }
     }
 
     protected Pattern searchNotFoundLocations(String path) {
@@ -221,9 +359,7 @@ public abstract class NginxLocationProcessor {
 
     protected String rewritePath(RewriteParams rewrite, String path, boolean optional) {
         LOGGER.info("{} on path {}", rewrite, path);
-        Matcher matcher = Pattern
-                .compile(rewrite.regex.replace("/", "\\/"))
-                .matcher(path);
+        Matcher matcher = rewrite.pattern().matcher(path);
         if (!matcher.matches()) {
             if (optional) {
                 LOGGER.debug("Rewrite wasn't matched");
@@ -237,7 +373,11 @@ public abstract class NginxLocationProcessor {
         return sb.toString();
     }
 
-    private void stepIn(NgxBlock block) {
+    protected NginxRoutingTable getTable() {
+        return table;
+    }
+
+    private void stepIn(Block block) {
         breadcrumbs.push(cursor);
         cursor = new Cursor(block);
     }
@@ -249,12 +389,14 @@ public abstract class NginxLocationProcessor {
         cursor = breadcrumbs.poll();
     }
 
-    private void entry(NgxEntry entry) {
+    private void entry(Entry entry) {
         try {
-            if (entry instanceof NgxBlock) {
-                block((NgxBlock) entry);
-            } else if (entry instanceof NgxParam) {
-                param((NgxParam) entry);
+            if (entry instanceof Block) {
+                block((Block) entry);
+            } else if (entry instanceof Rewrite) {
+                rewrite((Rewrite) entry);
+            } else if (entry instanceof Return) {
+                ret((Return) entry);
             }
         } catch (FinishProcessing e) {
             throw e;
@@ -263,22 +405,17 @@ public abstract class NginxLocationProcessor {
         }
     }
 
-    private void block(NgxBlock block) {
+    private void block(Block block) {
         stepIn(block);
 
-        if (block instanceof NgxConfig) {
-            return;
-        }
-
-        String name = block.getTokens().iterator().next().getToken();
-        if (block instanceof NgxIfBlock) {
-            ifBlock((NgxIfBlock) block);
-        } else if (name.equals(LOCATION)) {
-            location(block);
+        if (block instanceof Condition) {
+            ifBlock((Condition) block);
+        } else if (block instanceof Location) {
+            location((Location) block);
         }
     }
 
-    private void location(NgxBlock location) {
+    private void location(Location location) {
         LOGGER.debug("Enter {}", location);
         if (locationCursor != null) {
             LOGGER.debug("Parent location: {}", locationCursor.block);
@@ -287,13 +424,63 @@ public abstract class NginxLocationProcessor {
         locationType = LocationType.PREFIX;
         locationRegex = null;
         locationCursor = cursor;
-        String regex = identifyLocation();
-        LOGGER.debug("Location regex: {}", regex);
-        locationRegex = Pattern.compile(regex);
+        locationType = location.getType();
+        locationUrl = location.getUrl();
+        locationRegex = locationPattern(location);
+        LOGGER.debug("Location regex: {}", locationRegex);
         if (locationType.regex && regexLocation != null) {
             LOGGER.debug("Skipping regex location");
             stepOut();
+        } else if (skipLocation(location)) {
+            LOGGER.debug("Skipping unmatched location");
+            stepOut();
+        }
+    }
+
+    /**
+     * @param location location entered
+     * @return {@code true} if entries of the location can't change the result, so they needn't be walked
+     */
+    protected boolean skipLocation(Location location) {
+        return false;
+    }
+
+    /**
+     * Match a location against a path by the indexes of its block, as its pattern would match it,
+     * looking up the whole block once per path
+     *
+     * @param location location entered
+     * @param path     path
+     * @return {@code false} if the location is indexed and doesn't match the path
+     */
+    protected boolean matchesIndex(Location location, String path) {
+        Cursor parent = breadcrumbs.peek();
+        if (parent == null) {
+            return true;
+        }
+        if (location.isLiteral() && parent.block.getPrefixIndex() != null) {
+            if (!path.equals(parent.prefixPath)) {
+                parent.prefixMatches = parent.block.getPrefixIndex().match(path);
+                parent.prefixPath = path;
+            }
+            return parent.prefixMatches.contains(location);
+        }
+        if (location.isRegex() && parent.block.getRegexIndex() != null) {
+            Integer position = parent.block.getRegexIndex().position(location);
+            if (position == null) {
+                return true;
+            }
+            if (!path.equals(parent.regexPath)) {
+                parent.regexMatch = parent.block.getRegexIndex().firstMatch(path);
+                parent.regexPath = path;
+            }
+            if (parent.regexMatch < 0 || position < parent.regexMatch) {
+                return false;
+            }
+            // locations after the first matched one are reached only if it hasn't been used
+            return position == parent.regexMatch || location.getForwardPattern().matcher(path).matches();
         }
+        return true;
     }
 
     private void locationEnd() {
@@ -304,36 +491,13 @@ public abstract class NginxLocationProcessor {
         locationCursor = null;
     }
 
-    protected String identifyLocation() {
-        Iterator<String> args = location.getValues().iterator();
-        if (!args.hasNext()) {
-            throw new IllegalStateException("Useless location");
-        }
-        String arg = args.next();
-        for (LocationType type : LocationType.values()) {
-            if (arg.equals(type.op)) {
-                locationType = type;
-                if (!args.hasNext()) {
-                    throw new IllegalStateException("Useless location");
-                }
-                arg = args.next();
-                break;
-            }
-        }
-        StringBuilder regex = new StringBuilder(arg);
-        while (args.hasNext()) {
-            regex.append(args.next());
-        }
-        locationUrl = regex.toString();
-        if (locationType.regex) {
-            normalizeRegex(regex);
-        } else if (locationType.prefix) {
-            prefixToRegex(regex);
-        }
-        return regex.toString();
-    }
+    /**
+     * @param location location
+     * @return pattern matching paths of the operation within the location
+     */
+    protected abstract Pattern locationPattern(Location location);
 
-    private static void prefixToRegex(StringBuilder url) {
+    static void prefixToRegex(StringBuilder url) {
         url.append("(.*)");
     }
 
@@ -349,12 +513,11 @@ public abstract class NginxLocationProcessor {
         }
     }
 
-    private void ifBlock(NgxIfBlock ifBlock) {
+    private void ifBlock(Condition ifBlock) {
         LOGGER.debug("Evaluate {}", ifBlock);
-        Iterator<String> args = argsIterator(ifBlock.getValues());
-        String var = args.next();
-        String op = args.next();
-        String arg = args.next();
+        String var = ifBlock.var;
+        String op = ifBlock.op;
+        String arg = ifBlock.arg;
         if (var == null) {
             throw new IllegalStateException("Useless if block");
         }
@@ -377,22 +540,14 @@ public abstract class NginxLocationProcessor {
         }
     }
 
-    private void param(NgxParam param) {
-        String name = param.getName();
-        if (name.equals(REWRITE)) {
-            rewrite(param);
-        } else if (name.equals(RETURN)) {
-            ret(param);
-        }
-    }
-
-    private void rewrite(NgxParam rewrite) {
+    private void rewrite(Rewrite rewrite) {
         LOGGER.debug("Found {}", rewrite);
         try {
-            RewriteParams params = identifyRewrite(new RewriteParams(rewrite));
+            RewriteParams params = identifyRewrite(rewrite);
             if (location == null) {
                 LOGGER.debug("Unconditional rewrite: {}", rewrite);
                 unconditionalRewrite(params);
+                unconditionalRewrites.add(params);
             } else {
                 if (matchRewrite(params)) {
                     useMatchedRewrite(params);
@@ -406,15 +561,15 @@ public abstract class NginxLocationProcessor {
         }
     }
 
-    protected abstract RewriteParams identifyRewrite(RewriteParams rewrite);
+    protected abstract RewriteParams identifyRewrite(Rewrite rewrite);
 
     protected abstract void unconditionalRewrite(RewriteParams rewrite);
 
     protected abstract boolean matchRewrite(RewriteParams rewrite);
 
-    private void ret(NgxParam ret) {
+    private void ret(Return ret) {
         LOGGER.debug("Found ret {}", ret);
-        int code = Integer.parseInt(ret.getValue());
+        int code = Integer.parseInt(ret.code);
         if (code == 404) {
             LOGGER.debug("Store location with 404 return: {}", locationUrl);
             notFoundLocations.add(locationRegex);
@@ -1,6 +1,8 @@
 package com.github.kongchen.swagger.docgen.nginx;
 
 import com.github.kongchen.swagger.docgen.mavenplugin.NginxRewrite;
+import com.github.kongchen.swagger.docgen.nginx.NginxRoutingTable.Location;
+import com.github.kongchen.swagger.docgen.nginx.NginxRoutingTable.Rewrite;
 import com.github.odiszapc.nginxparser.NgxConfig;
 import io.swagger.models.Operation;
 import org.slf4j.Logger;
@@ -21,13 +23,12 @@ public class NginxLocationReverser extends NginxLocationProcessor {
     private final List<RewriteParams> unconditionalRewrites = new ArrayList<>();
 
     public NginxLocationReverser(NgxConfig config, List<NginxRewrite> additionalRewrites, String path, String httpMethod, Operation operation) {
-        super(config, path, httpMethod, operation);
-        if (additionalRewrites != null) {
-            additionalRewrites.stream()
-                    .map(RewriteParams::new)
-                    .map(NginxLocationReverser::revertGlobalRewrite)
-                    .forEachOrdered(unconditionalRewrites::add);
-        }
+        this(new NginxRoutingTable(config, additionalRewrites), path, httpMethod, operation);
+    }
+
+    public NginxLocationReverser(NginxRoutingTable table, String path, String httpMethod, Operation operation) {
+        super(table, path, httpMethod, operation);
+        unconditionalRewrites.addAll(table.getRevertedAdditionalRewrites());
     }
 
     @Override
@@ -55,22 +56,18 @@ public class NginxLocationReverser extends NginxLocationProcessor {
     }
 
     @Override
-    protected String identifyLocation() {
-        String regex = super.identifyLocation();
-        return ID_REGEX.matcher(regex).replaceAll(ID_MARK)
-                .replace("/", "\\/");
+    protected Pattern locationPattern(Location location) {
+        return location.getReversePattern();
     }
 
     @Override
-    protected RewriteParams identifyRewrite(RewriteParams rewrite) {
-        return revertRewrite(locationUrl, rewrite);
+    protected RewriteParams identifyRewrite(Rewrite rewrite) {
+        return rewrite.getReverted(locationUrl);
     }
 
     @Override
     protected boolean matchRewrite(RewriteParams rewrite) {
-        Matcher matcher = Pattern
-                .compile(rewrite.regex.replace("/", "\\/"))
-                .matcher(markedPath);
+        Matcher matcher = rewrite.pattern().matcher(markedPath);
         if (!matcher.matches()) {
             LOGGER.debug("Rewrite wasn't matched: {}", rewrite);
         } else {
@@ -95,7 +92,7 @@ public class NginxLocationReverser extends NginxLocationProcessor {
         return false;
     }
 
-    private static RewriteParams revertRewrite(String locationUrl, RewriteParams rewrite) {
+    static RewriteParams revertRewrite(String locationUrl, RewriteParams rewrite) {
         List<Integer> replaceGroups = new ArrayList<>();
         String regex = revertReplace(rewrite.replace, replaceGroups);
         String replace;
@@ -173,10 +170,6 @@ public class NginxLocationReverser extends NginxLocationProcessor {
         return sb.toString();
     }
 
-    private static RewriteParams revertGlobalRewrite(RewriteParams rewrite) {
-        return revertRewrite(null, rewrite);
-    }
-
     @Override
     protected void unconditionalRewrite(RewriteParams rewrite) {
         unconditionalRewrites.add(rewrite);
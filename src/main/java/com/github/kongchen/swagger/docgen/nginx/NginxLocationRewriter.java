@@ -1,6 +1,8 @@
 package com.github.kongchen.swagger.docgen.nginx;
 
 import com.github.kongchen.swagger.docgen.mavenplugin.NginxRewrite;
+import com.github.kongchen.swagger.docgen.nginx.NginxRoutingTable.Location;
+import com.github.kongchen.swagger.docgen.nginx.NginxRoutingTable.Rewrite;
 import com.github.odiszapc.nginxparser.NgxConfig;
 import io.swagger.models.Operation;
 import org.slf4j.Logger;
@@ -13,15 +15,19 @@ public class NginxLocationRewriter extends NginxLocationProcessor {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(NginxLocationRewriter.class);
 
-    private static String applyUnconditionalRewrites(List<NginxRewrite> additionalRewrites, String path) {
-        for (NginxRewrite additionalRewrite : additionalRewrites) {
-            path = applyUnconditionalRewrite(new RewriteParams(additionalRewrite), path);
+    private static String applyUnconditionalRewrites(List<RewriteParams> additionalRewrites, String path) {
+        for (RewriteParams additionalRewrite : additionalRewrites) {
+            path = applyUnconditionalRewrite(additionalRewrite, path);
         }
         return path;
     }
 
     protected NginxLocationRewriter(NgxConfig config, List<NginxRewrite> additionalRewrites, String path, String httpMethod, Operation operation) {
-        super(config, applyUnconditionalRewrites(additionalRewrites, path), httpMethod, operation);
+        this(new NginxRoutingTable(config, additionalRewrites), path, httpMethod, operation);
+    }
+
+    protected NginxLocationRewriter(NginxRoutingTable table, String path, String httpMethod, Operation operation) {
+        super(table, applyUnconditionalRewrites(table.getAdditionalRewrites(), path), httpMethod, operation);
     }
 
     @Override
@@ -38,20 +44,23 @@ public class NginxLocationRewriter extends NginxLocationProcessor {
 
     @Override
     protected String rewritePath(RewriteParams rewrite, String path, boolean optional) {
-        String r = ID_REGEX.matcher(rewrite.regex).replaceAll(".*");
-        RewriteParams p = new RewriteParams(r, rewrite.replace, rewrite.opt);
-        return super.rewritePath(p, path, optional);
+        return super.rewritePath(rewrite.anyId(), path, optional);
+    }
+
+    @Override
+    protected Pattern locationPattern(Location location) {
+        return location.getForwardPattern();
     }
 
     @Override
-    protected String identifyLocation() {
-        String regex = super.identifyLocation();
-        return regex.replace("/", "\\/");
+    protected boolean skipLocation(Location location) {
+        // rewrites of a location are used only if it matches the path
+        return location.isSkippable() && !matchesIndex(location, markedPath);
     }
 
     @Override
-    protected RewriteParams identifyRewrite(RewriteParams rewrite) {
-        return rewrite;
+    protected RewriteParams identifyRewrite(Rewrite rewrite) {
+        return rewrite.getParams();
     }
 
     @Override
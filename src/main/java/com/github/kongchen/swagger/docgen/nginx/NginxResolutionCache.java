@@ -0,0 +1,94 @@
+package com.github.kongchen.swagger.docgen.nginx;
+
+import com.github.kongchen.swagger.docgen.nginx.NginxLocationProcessor.Resolution;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Walk outcomes of location processors by HTTP method and marked path.
+ * <p>
+ * Operation paths differing only by names of their path ids have the same marked path,
+ * and so the same locations, rewrites and {@code if ($request_method)} branches are matched for them.
+ * Processors walk the routing table once per method and path shape, and replay the stored outcome on other paths.
+ * In verify mode processors walk the table anyway and fail if the stored outcome differs.
+ */
+public final class NginxResolutionCache {
+
+    private final boolean verify;
+
+    private final ConcurrentMap<Key, Resolution> resolutions = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param verify check stored outcomes against computed ones instead of using them
+     */
+    public NginxResolutionCache(boolean verify) {
+        this.verify = verify;
+    }
+
+    public boolean isVerify() {
+        return verify;
+    }
+
+    Resolution get(Class<?> processor, String httpMethod, String markedPath) {
+        Resolution resolution = resolutions.get(new Key(processor, httpMethod, markedPath));
+        (resolution == null ? misses : hits).incrementAndGet();
+        return resolution;
+    }
+
+    void put(Class<?> processor, String httpMethod, String markedPath, Resolution resolution) {
+        resolutions.putIfAbsent(new Key(processor, httpMethod, markedPath), resolution);
+    }
+
+    public int size() {
+        return resolutions.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private static final class Key {
+
+        private final Class<?> processor;
+
+        private final String httpMethod;
+
+        private final String markedPath;
+
+        private Key(Class<?> processor, String httpMethod, String markedPath) {
+            this.processor = processor;
+            this.httpMethod = httpMethod;
+            this.markedPath = markedPath;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return processor == key.processor
+                    && httpMethod.equals(key.httpMethod)
+                    && markedPath.equals(key.markedPath);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(processor, httpMethod, markedPath);
+        }
+    }
+}
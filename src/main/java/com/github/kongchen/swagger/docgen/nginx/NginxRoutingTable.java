@@ -0,0 +1,539 @@
+package com.github.kongchen.swagger.docgen.nginx;
+
+import com.github.kongchen.swagger.docgen.mavenplugin.NginxRewrite;
+import com.github.kongchen.swagger.docgen.nginx.NginxLocationProcessor.LocationType;
+import com.github.kongchen.swagger.docgen.nginx.NginxLocationProcessor.RewriteParams;
+import com.github.odiszapc.nginxparser.NgxBlock;
+import com.github.odiszapc.nginxparser.NgxConfig;
+import com.github.odiszapc.nginxparser.NgxEntry;
+import com.github.odiszapc.nginxparser.NgxIfBlock;
+import com.github.odiszapc.nginxparser.NgxParam;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static com.github.kongchen.swagger.docgen.nginx.NginxDirective.LOCATION;
+import static com.github.kongchen.swagger.docgen.nginx.NginxDirective.REQUEST_METHOD;
+import static com.github.kongchen.swagger.docgen.nginx.NginxDirective.RETURN;
+import static com.github.kongchen.swagger.docgen.nginx.NginxDirective.REWRITE;
+
+/**
+ * Nginx config compiled once for location processing.
+ * <p>
+ * Location processors walk the config for every operation. Everything which doesn't depend on the operation
+ * is prepared here instead: location arguments with their match patterns, rewrite arguments with their patterns
+ * and reverted forms, and the additional rewrites. Blocks, locations and rewrites keep the order and nesting
+ * of the config, since matching depends on them, while other directives are dropped.
+ * Locations with literal urls are also indexed by a prefix trie of their block,
+ * which finds the ones matching a path in a single pass over it, and regex locations of a block
+ * are combined into a single pattern, which finds the first of them matching a path at once.
+ * <p>
+ * The table is immutable apart from memoized derived rewrites and resolutions, so readers may share it concurrently.
+ */
+public final class NginxRoutingTable {
+
+    private final Block root;
+
+    private final List<RewriteParams> additionalRewrites;
+
+    private volatile List<RewriteParams> revertedAdditionalRewrites;
+
+    private final NginxResolutionCache resolutionCache;
+
+    /**
+     * @param config             resolved nginx config
+     * @param additionalRewrites rewrites applied before the config, {@code null} if none
+     */
+    public NginxRoutingTable(NgxConfig config, List<NginxRewrite> additionalRewrites) {
+        this(config, additionalRewrites, null);
+    }
+
+    /**
+     * @param config             resolved nginx config
+     * @param additionalRewrites rewrites applied before the config, {@code null} if none
+     * @param resolutionCache    walk outcomes of processors, {@code null} to walk the table for every operation
+     */
+    public NginxRoutingTable(NgxConfig config, List<NginxRewrite> additionalRewrites,
+                             NginxResolutionCache resolutionCache) {
+        this(new Block(config, entries(config)), additionalRewrites, resolutionCache);
+    }
+
+    private NginxRoutingTable(Block root, List<NginxRewrite> additionalRewrites,
+                              NginxResolutionCache resolutionCache) {
+        this.root = root;
+        this.resolutionCache = resolutionCache;
+        this.additionalRewrites = additionalRewrites == null
+                ? Collections.emptyList()
+                : Collections.unmodifiableList(additionalRewrites.stream()
+                .map(RewriteParams::new)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * @param additionalRewrites rewrites applied before the config, {@code null} if none
+     * @param resolutionCache    walk outcomes of processors, {@code null} to walk the table for every operation
+     * @return table of the same compiled config with other additional rewrites
+     */
+    public NginxRoutingTable withAdditionalRewrites(List<NginxRewrite> additionalRewrites,
+                                                    NginxResolutionCache resolutionCache) {
+        return new NginxRoutingTable(root, additionalRewrites, resolutionCache);
+    }
+
+    Block getRoot() {
+        return root;
+    }
+
+    /**
+     * @return walk outcomes of processors, {@code null} if not cached
+     */
+    public NginxResolutionCache getResolutionCache() {
+        return resolutionCache;
+    }
+
+    List<RewriteParams> getAdditionalRewrites() {
+        return additionalRewrites;
+    }
+
+    /**
+     * @return additional rewrites reverted as by {@link NginxLocationReverser}
+     */
+    List<RewriteParams> getRevertedAdditionalRewrites() {
+        List<RewriteParams> result = revertedAdditionalRewrites;
+        if (result == null) {
+            result = Collections.unmodifiableList(additionalRewrites.stream()
+                    .map(rewrite -> NginxLocationReverser.revertRewrite(null, rewrite))
+                    .collect(Collectors.toList()));
+            revertedAdditionalRewrites = result;
+        }
+        return result;
+    }
+
+    private static List<Entry> entries(NgxBlock block) {
+        List<Entry> entries = new ArrayList<>();
+        for (NgxEntry entry : block) {
+            if (entry instanceof NgxBlock) {
+                entries.add(block((NgxBlock) entry));
+            } else if (entry instanceof NgxParam) {
+                NgxParam param = (NgxParam) entry;
+                String name = param.getName();
+                if (REWRITE.equals(name)) {
+                    entries.add(new Rewrite(param));
+                } else if (RETURN.equals(name)) {
+                    entries.add(new Return(param));
+                }
+            }
+        }
+        return entries;
+    }
+
+    private static Block block(NgxBlock block) {
+        List<Entry> entries = entries(block);
+        if (block instanceof NgxConfig) {
+            return new Block(block, entries);
+        }
+        if (block instanceof NgxIfBlock) {
+            return new Condition((NgxIfBlock) block, entries);
+        }
+        if (block.getTokens().iterator().next().getToken().equals(LOCATION)) {
+            return new Location(block, entries);
+        }
+        return new Block(block, entries);
+    }
+
+    /**
+     * Compiled directive, which prints as its source
+     */
+    abstract static class Entry {
+
+        final NgxEntry source;
+
+        Entry(NgxEntry source) {
+            this.source = source;
+        }
+
+        @Override
+        public String toString() {
+            return source.toString();
+        }
+    }
+
+    static class Block extends Entry implements Iterable<Entry> {
+
+        private final List<Entry> entries;
+
+        private final PrefixIndex prefixIndex;
+
+        private final RegexIndex regexIndex;
+
+        Block(NgxBlock source, List<Entry> entries) {
+            super(source);
+            this.entries = Collections.unmodifiableList(entries);
+            PrefixIndex index = new PrefixIndex();
+            List<Location> regexLocations = new ArrayList<>();
+            for (Entry entry : entries) {
+                if (entry instanceof Location && ((Location) entry).isLiteral()) {
+                    index.add((Location) entry);
+                } else if (entry instanceof Location && ((Location) entry).isRegex()) {
+                    regexLocations.add((Location) entry);
+                }
+            }
+            prefixIndex = index.isEmpty() ? null : index;
+            regexIndex = regexLocations.isEmpty() ? null : new RegexIndex(regexLocations);
+        }
+
+        @Override
+        public Iterator<Entry> iterator() {
+            return entries.iterator();
+        }
+
+        /**
+         * @return index of the literal locations of this block, {@code null} if none
+         */
+        PrefixIndex getPrefixIndex() {
+            return prefixIndex;
+        }
+
+        /**
+         * @return index of the regex locations of this block, {@code null} if none
+         */
+        RegexIndex getRegexIndex() {
+            return regexIndex;
+        }
+
+        /**
+         * @return {@code true} if entries of the block affect processing only by matched rewrites
+         */
+        boolean isInert() {
+            for (Entry entry : entries) {
+                if (entry instanceof Rewrite) {
+                    if (((Rewrite) entry).error != null) {
+                        return false;
+                    }
+                } else if (entry instanceof Location || entry instanceof Return) {
+                    return false;
+                } else if (entry instanceof Condition && !((Condition) entry).isValid()) {
+                    return false;
+                } else if (entry instanceof Block && !((Block) entry).isInert()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * {@code if} block with its arguments
+     */
+    static final class Condition extends Block {
+
+        final String var;
+
+        final String op;
+
+        final String arg;
+
+        Condition(NgxIfBlock source, List<Entry> entries) {
+            super(source, entries);
+            Iterator<String> args = NginxLocationProcessor.argsIterator(source.getValues());
+            var = args.next();
+            op = args.next();
+            arg = args.next();
+        }
+
+        /**
+         * @return {@code true} if evaluating the condition can't fail
+         */
+        boolean isValid() {
+            return var != null && (!var.equals(REQUEST_METHOD) || "=".equals(op) && arg != null);
+        }
+    }
+
+    /**
+     * {@code location} block with its match type, url and patterns
+     */
+    static final class Location extends Block {
+
+        private final LocationType type;
+
+        private final String url;
+
+        private final Pattern reversePattern;
+
+        private final Pattern forwardPattern;
+
+        private final RuntimeException error;
+
+        private final boolean literal;
+
+        private final boolean regex;
+
+        private final boolean skippable;
+
+        Location(NgxBlock source, List<Entry> entries) {
+            super(source, entries);
+            LocationType type = LocationType.PREFIX;
+            String url = null;
+            Pattern reversePattern = null;
+            Pattern forwardPattern = null;
+            RuntimeException error = null;
+            try {
+                Iterator<String> args = source.getValues().iterator();
+                if (!args.hasNext()) {
+                    throw new IllegalStateException("Useless location");
+                }
+                String arg = args.next();
+                for (LocationType t : LocationType.values()) {
+                    if (arg.equals(t.op)) {
+                        type = t;
+                        if (!args.hasNext()) {
+                            throw new IllegalStateException("Useless location");
+                        }
+                        arg = args.next();
+                        break;
+                    }
+                }
+                StringBuilder regex = new StringBuilder(arg);
+                while (args.hasNext()) {
+                    regex.append(args.next());
+                }
+                url = regex.toString();
+                if (type.regex) {
+                    NginxLocationProcessor.normalizeRegex(regex);
+                } else if (type.prefix) {
+                    NginxLocationProcessor.prefixToRegex(regex);
+                }
+                String pattern = regex.toString();
+                reversePattern = Pattern.compile(NginxLocationProcessor.ID_REGEX.matcher(pattern)
+                        .replaceAll(NginxLocationProcessor.ID_MARK)
+                        .replace("/", "\\/"));
+                forwardPattern = Pattern.compile(pattern.replace("/", "\\/"));
+            } catch (RuntimeException e) {
+                error = e;
+            }
+            this.type = type;
+            this.url = url;
+            this.reversePattern = reversePattern;
+            this.forwardPattern = forwardPattern;
+            this.error = error;
+            literal = error == null && !type.regex && isLiteral(url);
+            regex = error == null && type.regex;
+            skippable = isInert();
+        }
+
+        private static boolean isLiteral(String url) {
+            for (int i = 0; i < url.length(); i++) {
+                if ("\\^$.|?*+()[]{}\r\n".indexOf(url.charAt(i)) >= 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return {@code true} if the url matches as is, by prefix or exactly, so the location is indexed
+         */
+        boolean isLiteral() {
+            return literal;
+        }
+
+        /**
+         * @return {@code true} if the url is a valid regex, so the location is indexed
+         */
+        boolean isRegex() {
+            return regex;
+        }
+
+        /**
+         * @return {@code true} if the location may be skipped when it doesn't match
+         */
+        boolean isSkippable() {
+            return skippable;
+        }
+
+        private void check() {
+            if (error != null) {
+                throw new IllegalStateException(error.getMessage(), error);
+            }
+        }
+
+        LocationType getType() {
+            check();
+            return type;
+        }
+
+        String getUrl() {
+            check();
+            return url;
+        }
+
+        /**
+         * @return pattern matching paths, with path ids marked, which an upstream path is reverted to
+         */
+        Pattern getReversePattern() {
+            check();
+            return reversePattern;
+        }
+
+        /**
+         * @return pattern matching request paths
+         */
+        Pattern getForwardPattern() {
+            check();
+            return forwardPattern;
+        }
+    }
+
+    /**
+     * Trie of literal location urls of a block
+     */
+    static final class PrefixIndex {
+
+        private final Node root = new Node();
+
+        private boolean empty = true;
+
+        void add(Location location) {
+            Node node = root;
+            String url = location.getUrl();
+            for (int i = 0; i < url.length(); i++) {
+                node = node.children.computeIfAbsent(url.charAt(i), c -> new Node());
+            }
+            (location.getType() == LocationType.STRICT ? node.exact : node.prefixes).add(location);
+            empty = false;
+        }
+
+        boolean isEmpty() {
+            return empty;
+        }
+
+        /**
+         * @param path path
+         * @return locations which url is a prefix of the path, or the path itself for exact locations
+         */
+        Set<Location> match(String path) {
+            Set<Location> result = Collections.newSetFromMap(new IdentityHashMap<>());
+            Node node = root;
+            result.addAll(node.prefixes);
+            for (int i = 0; i < path.length() && node != null; i++) {
+                node = node.children.get(path.charAt(i));
+                if (node != null) {
+                    result.addAll(node.prefixes);
+                }
+            }
+            if (node != null) {
+                result.addAll(node.exact);
+            }
+            return result;
+        }
+
+        private static final class Node {
+
+            private final Map<Character, Node> children = new HashMap<>();
+
+            private final List<Location> prefixes = new ArrayList<>();
+
+            private final List<Location> exact = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Regex locations of a block in their order, matched by a single combined pattern
+     */
+    static final class RegexIndex {
+
+        private final Map<Location, Integer> positions = new IdentityHashMap<>();
+
+        private final MultiPattern patterns;
+
+        RegexIndex(List<Location> locations) {
+            List<Pattern> list = new ArrayList<>();
+            for (Location location : locations) {
+                positions.put(location, list.size());
+                list.add(location.getForwardPattern());
+            }
+            patterns = new MultiPattern(list);
+        }
+
+        /**
+         * @param location location
+         * @return position of the location among the regex locations of the block, {@code null} if not indexed
+         */
+        Integer position(Location location) {
+            return positions.get(location);
+        }
+
+        /**
+         * @param path path
+         * @return position of the first location matching the path, -1 if none
+         */
+        int firstMatch(String path) {
+            return patterns.firstMatch(path);
+        }
+    }
+
+    /**
+     * {@code rewrite} directive with its arguments, and its reverted forms by location url
+     */
+    static final class Rewrite extends Entry {
+
+        private final RewriteParams params;
+
+        private final RuntimeException error;
+
+        private final ConcurrentMap<Optional<String>, RewriteParams> reverted = new ConcurrentHashMap<>();
+
+        Rewrite(NgxParam source) {
+            super(source);
+            RewriteParams params = null;
+            RuntimeException error = null;
+            try {
+                params = new RewriteParams(source);
+            } catch (RuntimeException e) {
+                error = e;
+            }
+            this.params = params;
+            this.error = error;
+        }
+
+        RewriteParams getParams() {
+            if (error != null) {
+                throw new IllegalStateException(error.getMessage(), error);
+            }
+            return params;
+        }
+
+        /**
+         * @param locationUrl url of the location the rewrite is found in, {@code null} if none
+         * @return rewrite reverted as by {@link NginxLocationReverser}
+         */
+        RewriteParams getReverted(String locationUrl) {
+            RewriteParams rewrite = getParams();
+            return reverted.computeIfAbsent(Optional.ofNullable(locationUrl),
+                    url -> NginxLocationReverser.revertRewrite(url.orElse(null), rewrite));
+        }
+    }
+
+    /**
+     * {@code return} directive with its code
+     */
+    static final class Return extends Entry {
+
+        final String code;
+
+        Return(NgxParam source) {
+            super(source);
+            code = source.getValue();
+        }
+    }
+}
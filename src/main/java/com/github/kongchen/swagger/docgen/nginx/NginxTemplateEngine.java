@@ -0,0 +1,16 @@
+package com.github.kongchen.swagger.docgen.nginx;
+
+import java.util.Map;
+
+/**
+ * Renderer of nginx configs written as Django templates
+ */
+public interface NginxTemplateEngine {
+
+    /**
+     * @param template template
+     * @param context  template variables, {@code null} if none
+     * @return rendered template
+     */
+    String render(String template, Map<String, String> context);
+}
@@ -1,5 +1,7 @@
 package com.github.kongchen.swagger.docgen.reader;
 
+import com.github.kongchen.swagger.docgen.DocumentContext;
+import com.github.kongchen.swagger.docgen.ModelCache;
 import com.github.kongchen.swagger.docgen.ReaderAware;
 import com.github.kongchen.swagger.docgen.ResponseMessageOverride;
 import com.github.kongchen.swagger.docgen.util.SwaggerExtensionChain;
@@ -16,8 +18,6 @@ import io.swagger.annotations.ApiResponses;
 import io.swagger.annotations.Authorization;
 import io.swagger.annotations.AuthorizationScope;
 import io.swagger.annotations.ResponseHeader;
-import io.swagger.converter.ModelConverters;
-import io.swagger.jaxrs.ext.SwaggerExtensions;
 import io.swagger.models.ComposedModel;
 import io.swagger.models.Model;
 import io.swagger.models.Operation;
@@ -63,13 +63,20 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
  * @author chekong on 15/4/28.
  */
-public abstract class AbstractReader<R> extends ClassSwaggerReader {
+public abstract class AbstractReader<R> extends ClassSwaggerReader implements Cloneable {
 
     protected static class ResourceContext<R> {
 
@@ -141,6 +148,8 @@ public abstract class AbstractReader<R> extends ClassSwaggerReader {
 
     protected String operationIdFormat;
 
+    private int parallelism = 1;
+
     public Set<Type> getTypesToSkip() {
         return typesToSkip;
     }
@@ -161,16 +170,153 @@ public abstract class AbstractReader<R> extends ClassSwaggerReader {
         return responseMessageOverrides;
     }
 
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Set the number of threads reading resources, {@code 1} to read sequentially,
+     * {@code 0} or less for one thread per available processor
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
     public AbstractReader(Swagger swagger, Log log) {
         super(swagger, log);
         updateExtensionChain();
     }
 
+    /**
+     * Read items on a fork-join pool, each one by a fork of this reader, and merge
+     * the forks' changes into the swagger in item order, so the result is the same as of a sequential read.
+     * Items which can add common parameters are read sequentially in place,
+     * since the items after them depend on these parameters.
+     *
+     * @param items      items to read
+     * @param read       reads an item with the given reader
+     * @param sequential tells if an item must be read sequentially
+     * @param <T>        item type
+     */
+    protected <T> void readConcurrently(List<T> items, BiConsumer<AbstractReader<R>, T> read, Predicate<T> sequential) {
+        ForkJoinPool pool = newPool();
+        try {
+            int next = 0;
+            while (next < items.size()) {
+                T item = items.get(next);
+                if (sequential.test(item)) {
+                    read.accept(this, item);
+                    next++;
+                    continue;
+                }
+
+                Map<String, Parameter> parameters = swagger.getParameters() == null
+                        ? Collections.emptyMap()
+                        : new LinkedHashMap<>(swagger.getParameters());
+                List<ForkJoinTask<PartialSwagger>> tasks = new ArrayList<>();
+                for (int i = next; i < items.size() && !sequential.test(items.get(i)); i++) {
+                    T forked = items.get(i);
+                    tasks.add(pool.submit(DocumentContext.propagate(() -> {
+                        AbstractReader<R> fork = fork(new PartialSwagger(parameters));
+                        read.accept(fork, forked);
+                        return (PartialSwagger) fork.swagger;
+                    })));
+                }
+
+                try {
+                    for (ForkJoinTask<PartialSwagger> task : tasks) {
+                        PartialSwagger partial = task.join();
+                        partial.applyTo(this);
+                        next++;
+                        if (partial.isParametersChanged()) {
+                            // later items have been read without the new common parameters
+                            break;
+                        }
+                    }
+                } finally {
+                    tasks.forEach(task -> task.cancel(false));
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Apply a function to items on a fork-join pool
+     *
+     * @param items    items to process
+     * @param function function without side effects on this reader
+     * @param <T>      item type
+     * @param <U>      result type
+     * @return results in item order
+     */
+    protected <T, U> List<U> mapConcurrently(List<T> items, Function<T, U> function) {
+        ForkJoinPool pool = newPool();
+        List<ForkJoinTask<U>> tasks = new ArrayList<>();
+        try {
+            for (T item : items) {
+                tasks.add(pool.submit(DocumentContext.propagate(() -> function.apply(item))));
+            }
+            List<U> results = new ArrayList<>();
+            for (ForkJoinTask<U> task : tasks) {
+                results.add(task.join());
+            }
+            return results;
+        } finally {
+            tasks.forEach(task -> task.cancel(false));
+            pool.shutdownNow();
+        }
+    }
+
+    private ForkJoinPool newPool() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        return new ForkJoinPool(threads, p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setContextClassLoader(contextClassLoader);
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Create a copy of this reader writing to the given partial swagger.
+     * The copy becomes the reader of reader aware extensions on the calling thread.
+     *
+     * @param partial swagger to record changes to
+     * @return forked reader
+     */
+    @SuppressWarnings("unchecked")
+    protected AbstractReader<R> fork(Swagger partial) {
+        try {
+            AbstractReader<R> fork = (AbstractReader<R>) clone();
+            fork.swagger = partial;
+            fork.updateExtensionChain();
+            return fork;
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Defer a change to the shared swagger if this reader is a fork reading concurrently
+     *
+     * @param change change to apply to the reader merging the fork's result
+     * @return {@code true} if the change was deferred, {@code false} if it must be applied now
+     */
+    protected boolean defer(Consumer<AbstractReader<?>> change) {
+        if (swagger instanceof PartialSwagger) {
+            ((PartialSwagger) swagger).defer(change);
+            return true;
+        }
+        return false;
+    }
+
     /**
      * Method which allows sub-classes to modify the Swagger extension chain.
      */
     protected void updateExtensionChain() {
-        SwaggerExtensions.chain().forEachRemaining(extension -> {
+        DocumentContext.extensionChain().forEachRemaining(extension -> {
             if (extension instanceof ReaderAware) {
                 ((ReaderAware) extension).setReader(this);
             }
@@ -249,7 +395,7 @@ public abstract class AbstractReader<R> extends ClassSwaggerReader {
             Class<?> cls = header.response();
 
             if (!cls.equals(Void.class) && !cls.equals(void.class)) {
-                Property property = ModelConverters.getInstance().readAsProperty(cls);
+                Property property = ModelCache.current().readAsProperty(cls);
                 if (property != null) {
                     Property responseProperty;
 
@@ -269,16 +415,24 @@ public abstract class AbstractReader<R> extends ClassSwaggerReader {
     }
 
     protected Path updatePath(OperationContext<R> op) {
+        String operationPath = op.path;
+        String httpMethod = op.httpMethod;
+        Operation operation = op.operation;
+        defer(reader -> reader.setPathOperation(operationPath, httpMethod, operation));
+        return setPathOperation(operationPath, httpMethod, operation);
+    }
+
+    private Path setPathOperation(String operationPath, String httpMethod, Operation operation) {
         try {
-            Path path = swagger.getPath(op.path);
+            Path path = swagger.getPath(operationPath);
             if (path == null) {
                 path = new Path();
-                swagger.path(op.path, path);
+                swagger.path(operationPath, path);
             }
-            SwaggerUtils.setPathOperation(path, op.httpMethod, op.operation);
+            SwaggerUtils.setPathOperation(path, httpMethod, operation);
             return path;
         } catch (RuntimeException e) {
-            throw new RuntimeException("Failed to update path: " + op.path, e);
+            throw new RuntimeException("Failed to update path: " + operationPath, e);
         }
     }
 
@@ -496,18 +650,18 @@ public abstract class AbstractReader<R> extends ClassSwaggerReader {
                     }
                 }
             } else if (isPrimitive(responseClass)) {
-                Property property = ModelConverters.getInstance().readAsProperty(responseClass);
+                Property property = ModelCache.current().readAsProperty(responseClass);
                 if (property != null) {
                     response.setSchema(RESPONSE_CONTAINER_CONVERTER.withResponseContainer(apiResponse.responseContainer(), property));
                 }
             } else {
-                Map<String, Model> models = ModelConverters.getInstance().read(responseClass);
+                Map<String, Model> models = ModelCache.current().read(responseClass);
                 for (String key : models.keySet()) {
                     final Property schema = new RefProperty().asDefault(key);
                     response.setSchema(RESPONSE_CONTAINER_CONVERTER.withResponseContainer(apiResponse.responseContainer(), schema));
                     addDefinition(key, models.get(key));
                 }
-                models = ModelConverters.getInstance().readAll(responseClass);
+                models = ModelCache.current().readAll(responseClass);
                 for (Map.Entry<String, Model> entry : models.entrySet()) {
                     addDefinition(entry.getKey(), entry.getValue());
                 }
@@ -686,6 +840,12 @@ public abstract class AbstractReader<R> extends ClassSwaggerReader {
     }
 
     protected void addDefinition(String name, Model model) {
+        if (!defer(reader -> reader.putDefinition(name, model))) {
+            putDefinition(name, model);
+        }
+    }
+
+    private void putDefinition(String name, Model model) {
         Optional<Model> oldModelOpt = Optional.ofNullable(swagger.getDefinitions())
                 .map(definitions -> definitions.get(name));
         boolean addDefinition = oldModelOpt.map(oldModel -> {
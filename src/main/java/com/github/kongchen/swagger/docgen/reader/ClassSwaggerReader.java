@@ -11,7 +11,7 @@ import java.util.Set;
  */
 public abstract class ClassSwaggerReader {
 
-    protected final Swagger swagger;
+    protected Swagger swagger;
 
     protected final Log log;
 
@@ -1,5 +1,7 @@
 package com.github.kongchen.swagger.docgen.reader;
 
+import com.github.kongchen.swagger.docgen.ModelCache;
+import com.github.kongchen.swagger.docgen.scan.ClassIndex;
 import com.github.kongchen.swagger.docgen.util.SwaggerExtensionChain;
 import com.nexign.swagger.annotations.ApiBasePath;
 import io.swagger.annotations.Api;
@@ -8,7 +10,6 @@ import io.swagger.annotations.ApiResponses;
 import io.swagger.annotations.Authorization;
 import io.swagger.annotations.AuthorizationScope;
 import io.swagger.annotations.SwaggerDefinition;
-import io.swagger.converter.ModelConverters;
 import io.swagger.models.ArrayModel;
 import io.swagger.models.Model;
 import io.swagger.models.ModelImpl;
@@ -50,7 +51,9 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -65,18 +68,43 @@ public class JaxrsReader extends AbstractReader<Class<?>> {
 
     private Map<String, Tag> discoveredTags;
 
+    private Set<Class<?>> tagClasses = Collections.emptySet();
+
+    private ClassIndex classIndex;
+
     public JaxrsReader(Swagger swagger, Log log) {
         super(swagger, log);
     }
 
+    /**
+     * Set the index to look up {@link SwaggerDefinition} classes in, instead of scanning the whole classpath
+     *
+     * @param classIndex class index, {@code null} to scan the classpath
+     */
+    public void setClassIndex(ClassIndex classIndex) {
+        this.classIndex = classIndex;
+    }
+
     @Override
     public void read(Set<Class<?>> classes) {
+        discoveredTags = null;
+        tagClasses = Collections.emptySet();
+        if (getParallelism() != 1 && classes.size() > 1) {
+            // forks share the tags, so scan before forking
+            discoveredTags = scanClasspathForTags();
+            readConcurrently(new ArrayList<>(classes), JaxrsReader::readClass, this::declaresCommonParameters);
+            return;
+        }
         for (Class<?> cls : classes) {
-            try {
-                read(cls);
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to read Swagger specs for class " + cls, e);
-            }
+            readClass(this, cls);
+        }
+    }
+
+    private static void readClass(AbstractReader<Class<?>> reader, Class<?> cls) {
+        try {
+            ((JaxrsReader) reader).read(cls);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to read Swagger specs for class " + cls, e);
         }
     }
 
@@ -133,7 +161,9 @@ public class JaxrsReader extends AbstractReader<Class<?>> {
 
         updateTagsForApi(ctx);
         getSecurityRequirements(ctx);
-        scanClasspathForTags();
+        if (discoveredTags == null) {
+            discoveredTags = scanClasspathForTags();
+        }
 
         // merge consumes, produces
 
@@ -235,23 +265,34 @@ public class JaxrsReader extends AbstractReader<Class<?>> {
         return commonParameter != null && parameter.getIn().equals(commonParameter.getIn());
     }
 
-    private void readCommonParameters(Class<?> cls, List<Method> filteredMethods) {
+    private boolean declaresCommonParameters(Class<?> cls) {
+        return declaresCommonParameters(cls, getFilteredMethods(cls));
+    }
+
+    private boolean declaresCommonParameters(Class<?> cls, List<Method> filteredMethods) {
         Path path = AnnotationUtils.findAnnotation(cls, Path.class);
         if (path != null) {
-            return;
+            return false;
         }
 
         for (Method method : filteredMethods) {
             path = AnnotationUtils.findAnnotation(method, Path.class);
             if (path != null) {
-                return;
+                return false;
             }
 
             String httpMethod = extractOperationMethod(null, method);
             if (httpMethod != null) {
-                return;
+                return false;
             }
         }
+        return true;
+    }
+
+    private void readCommonParameters(Class<?> cls, List<Method> filteredMethods) {
+        if (!declaresCommonParameters(cls, filteredMethods)) {
+            return;
+        }
 
         Field[] fields = cls.getDeclaredFields();
         for (Field field : fields) {
@@ -271,6 +312,9 @@ public class JaxrsReader extends AbstractReader<Class<?>> {
     }
 
     private void updateTagDescriptions() {
+        if (defer(reader -> ((JaxrsReader) reader).updateTagDescriptions())) {
+            return;
+        }
         if (swagger.getTags() != null) {
             for (Tag tag : swagger.getTags()) {
                 Tag rightTag = discoveredTags.get(tag.getName());
@@ -281,19 +325,40 @@ public class JaxrsReader extends AbstractReader<Class<?>> {
         }
     }
 
-    private void scanClasspathForTags() {
-        discoveredTags = new HashMap<>();
-        for (Class<?> aClass : new Reflections("").getTypesAnnotatedWith(SwaggerDefinition.class)) {
+    /**
+     * Collect tags declared by {@link SwaggerDefinition} annotations within the class index,
+     * or over the whole classpath if no index is set.
+     * The lookup is done once per {@link #read(Set)} and shared by all resources and sub-resources.
+     *
+     * @return tags by name
+     */
+    protected Map<String, Tag> scanClasspathForTags() {
+        Map<String, Tag> tags = new HashMap<>();
+        Set<Class<?>> scanned = new LinkedHashSet<>();
+        Set<Class<?>> definitions = classIndex == null
+                ? new Reflections("").getTypesAnnotatedWith(SwaggerDefinition.class)
+                : classIndex.getTypesAnnotatedWith(SwaggerDefinition.class, false);
+        for (Class<?> aClass : definitions) {
+            scanned.add(aClass);
             SwaggerDefinition swaggerDefinition = AnnotationUtils.findAnnotation(aClass, SwaggerDefinition.class);
 
             for (io.swagger.annotations.Tag tag : swaggerDefinition.tags()) {
 
                 String tagName = tag.name();
                 if (!tagName.isEmpty()) {
-                    discoveredTags.put(tag.name(), new Tag().name(tag.name()).description(tag.description()));
+                    tags.put(tag.name(), new Tag().name(tag.name()).description(tag.description()));
                 }
             }
         }
+        tagClasses = scanned;
+        return tags;
+    }
+
+    /**
+     * @return classes declaring the {@link SwaggerDefinition} tags applied by the last {@link #read(Set)}
+     */
+    public Set<Class<?>> getTagClasses() {
+        return Collections.unmodifiableSet(tagClasses);
     }
 
     private void handleSubResource(OperationContext<Class<?>> parent) {
@@ -421,7 +486,7 @@ public class JaxrsReader extends AbstractReader<Class<?>> {
                 && !hasApiAnnotation
                 && !isSubResource(op.httpMethod, op.method)) {
             if (isPrimitive(responseClassType)) {
-                Property property = ModelConverters.getInstance().readAsProperty(responseClassType);
+                Property property = ModelCache.current().readAsProperty(responseClassType);
                 if (property != null) {
                     Property responseProperty = RESPONSE_CONTAINER_CONVERTER.withResponseContainer(responseContainer, property);
 
@@ -431,9 +496,9 @@ public class JaxrsReader extends AbstractReader<Class<?>> {
                             .headers(defaultResponseHeaders));
                 }
             } else if (!responseClassType.equals(Void.class) && !responseClassType.equals(void.class)) {
-                Map<String, Model> models = ModelConverters.getInstance().read(responseClassType);
+                Map<String, Model> models = ModelCache.current().read(responseClassType);
                 if (models.isEmpty()) {
-                    Property p = ModelConverters.getInstance().readAsProperty(responseClassType);
+                    Property p = ModelCache.current().readAsProperty(responseClassType);
                     op.operation.response(responseCode, new Response()
                             .description("successful operation")
                             .schema(p)
@@ -605,6 +670,6 @@ public class JaxrsReader extends AbstractReader<Class<?>> {
     }
 
     private Map<String, Model> readAllModels(Type responseClassType) {
-        return ModelConverters.getInstance().readAll(responseClassType);
+        return ModelCache.current().readAll(responseClassType);
     }
 }
@@ -0,0 +1,86 @@
+package com.github.kongchen.swagger.docgen.reader;
+
+import io.swagger.models.Model;
+import io.swagger.models.Swagger;
+import io.swagger.models.Tag;
+import io.swagger.models.parameters.Parameter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Swagger written by a forked reader while resources are read concurrently.
+ * <p>
+ * Every change is recorded in order, so it can be applied to the shared swagger
+ * by the reader the fork was made of, exactly as a sequential read would have done it.
+ * Common parameters are looked up in a snapshot of the shared swagger taken before forking.
+ */
+class PartialSwagger extends Swagger {
+
+    private final Map<String, Parameter> sharedParameters;
+
+    private final List<Consumer<AbstractReader<?>>> changes = new ArrayList<>();
+
+    private boolean parametersChanged;
+
+    PartialSwagger(Map<String, Parameter> sharedParameters) {
+        this.sharedParameters = sharedParameters;
+    }
+
+    /**
+     * Record a change to be applied by the reader merging this partial result
+     *
+     * @param change change of the merging reader
+     */
+    void defer(Consumer<AbstractReader<?>> change) {
+        changes.add(change);
+    }
+
+    /**
+     * Apply the recorded changes in order
+     *
+     * @param reader merging reader
+     */
+    void applyTo(AbstractReader<?> reader) {
+        for (Consumer<AbstractReader<?>> change : changes) {
+            change.accept(reader);
+        }
+    }
+
+    /**
+     * @return {@code true} if common parameters were added, so later resources must see them
+     */
+    boolean isParametersChanged() {
+        return parametersChanged;
+    }
+
+    @Override
+    public void addTag(Tag tag) {
+        defer(reader -> reader.swagger.addTag(tag));
+        super.addTag(tag);
+    }
+
+    @Override
+    public void addDefinition(String key, Model model) {
+        defer(reader -> reader.swagger.addDefinition(key, model));
+        super.addDefinition(key, model);
+    }
+
+    @Override
+    public void addParameter(String key, Parameter parameter) {
+        defer(reader -> reader.swagger.addParameter(key, parameter));
+        parametersChanged = true;
+        super.addParameter(key, parameter);
+    }
+
+    @Override
+    public Parameter getParameter(String parameter) {
+        Parameter local = super.getParameter(parameter);
+        if (local != null || sharedParameters == null) {
+            return local;
+        }
+        return sharedParameters.get(parameter);
+    }
+}
@@ -1,6 +1,7 @@
 package com.github.kongchen.swagger.docgen.reader;
 
 import com.github.kongchen.swagger.docgen.GenerateException;
+import com.github.kongchen.swagger.docgen.ModelCache;
 import com.github.kongchen.swagger.docgen.spring.SpringResource;
 import com.github.kongchen.swagger.docgen.util.SpringUtils;
 import io.swagger.annotations.Api;
@@ -8,7 +9,6 @@ import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponses;
 import io.swagger.annotations.Authorization;
 import io.swagger.annotations.AuthorizationScope;
-import io.swagger.converter.ModelConverters;
 import io.swagger.models.Model;
 import io.swagger.models.Operation;
 import io.swagger.models.Path;
@@ -33,7 +33,9 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -62,12 +64,21 @@ public class SpringMvcApiReader extends AbstractReader<SpringResource> {
         //create map - resource string (after first slash) as key, new SpringResource as value
         Map<String, SpringResource> resourceMap = generateResourceMap(classes);
         exceptionHandlerReader.processExceptionHandlers(classes);
+        if (getParallelism() != 1 && resourceMap.size() > 1) {
+            // spring resources never add common parameters, so none has to be read sequentially
+            readConcurrently(new ArrayList<>(resourceMap.values()), SpringMvcApiReader::readResource, resource -> false);
+            return;
+        }
         for (SpringResource resource : resourceMap.values()) {
-            try {
-                read(new ResourceContext<>(resource));
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to read Swagger specs for resource " + resource, e);
-            }
+            readResource(this, resource);
+        }
+    }
+
+    private static void readResource(AbstractReader<SpringResource> reader, SpringResource resource) {
+        try {
+            ((SpringMvcApiReader) reader).read(new ResourceContext<>(resource));
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to read Swagger specs for resource " + resource, e);
         }
     }
 
@@ -233,7 +244,7 @@ public class SpringMvcApiReader extends AbstractReader<SpringResource> {
                 && !responseClass.equals(ResponseEntity.class)
                 && !hasApiAnnotation) {
             if (isPrimitive(responseClass)) {
-                Property property = ModelConverters.getInstance().readAsProperty(responseClass);
+                Property property = ModelCache.current().readAsProperty(responseClass);
                 if (property != null) {
                     Property responseProperty = RESPONSE_CONTAINER_CONVERTER.withResponseContainer(responseContainer, property);
                     operation.response(responseCode, new Response()
@@ -242,9 +253,9 @@ public class SpringMvcApiReader extends AbstractReader<SpringResource> {
                             .headers(defaultResponseHeaders));
                 }
             } else if (!responseClass.equals(Void.class) && !responseClass.equals(void.class)) {
-                Map<String, Model> models = ModelConverters.getInstance().read(responseClass);
+                Map<String, Model> models = ModelCache.current().read(responseClass);
                 if (models.isEmpty()) {
-                    Property pp = ModelConverters.getInstance().readAsProperty(responseClass);
+                    Property pp = ModelCache.current().readAsProperty(responseClass);
                     operation.response(responseCode, new Response()
                             .description(SUCCESSFUL_OPERATION)
                             .schema(pp)
@@ -259,7 +270,7 @@ public class SpringMvcApiReader extends AbstractReader<SpringResource> {
                     addDefinition(key, models.get(key));
                 }
             }
-            Map<String, Model> models = ModelConverters.getInstance().readAll(responseClass);
+            Map<String, Model> models = ModelCache.current().readAll(responseClass);
             for (Map.Entry<String, Model> entry : models.entrySet()) {
                 addDefinition(entry.getKey(), entry.getValue());
             }
@@ -437,6 +448,9 @@ public class SpringMvcApiReader extends AbstractReader<SpringResource> {
     }
 
     protected Map<String, SpringResource> generateResourceMap(Set<Class<?>> validClasses) throws GenerateException {
+        if (getParallelism() != 1 && validClasses.size() > 1) {
+            return generateResourceMapConcurrently(new ArrayList<>(validClasses));
+        }
         Map<String, SpringResource> resourceMap = new HashMap<>();
         for (Class<?> aClass : validClasses) {
             //This try/catch block is to stop a bamboo build from failing due to NoClassDefFoundError
@@ -456,4 +470,43 @@ public class SpringMvcApiReader extends AbstractReader<SpringResource> {
 
         return resourceMap;
     }
+
+    /**
+     * Analyze controllers concurrently, each into its own resources, and merge them in class order,
+     * so the first resource of a key wins as in a sequential analysis
+     */
+    private Map<String, SpringResource> generateResourceMapConcurrently(List<Class<?>> validClasses) {
+        List<ControllerResources> analyzed = mapConcurrently(validClasses, aClass -> {
+            // resources found before an error are kept, as a sequential analysis keeps them in the shared map
+            Map<String, SpringResource> resources = new LinkedHashMap<>();
+            try {
+                return new ControllerResources(analyzeController(aClass, resources, ""), null);
+            } catch (NoClassDefFoundError e) {
+                return new ControllerResources(resources, e);
+            }
+        });
+
+        Map<String, SpringResource> resourceMap = new HashMap<>();
+        for (int i = 0; i < analyzed.size(); i++) {
+            ControllerResources controller = analyzed.get(i);
+            controller.resources.forEach(resourceMap::putIfAbsent);
+            if (controller.error != null) {
+                log.error(controller.error.getMessage());
+                log.info(validClasses.get(i).getName());
+            }
+        }
+        return resourceMap;
+    }
+
+    private static class ControllerResources {
+
+        private final Map<String, SpringResource> resources;
+
+        private final NoClassDefFoundError error;
+
+        ControllerResources(Map<String, SpringResource> resources, NoClassDefFoundError error) {
+            this.resources = Collections.unmodifiableMap(resources);
+            this.error = error;
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package com.github.kongchen.swagger.docgen.reader;
 
+import com.github.kongchen.swagger.docgen.DocumentContext;
 import com.github.kongchen.swagger.docgen.GenerateException;
 import io.swagger.jaxrs.Reader;
 import io.swagger.models.Swagger;
@@ -19,6 +20,9 @@ public class SwaggerReader extends AbstractReader<Class<?>> {
 
     @Override
     public void read(Set<Class<?>> classes) throws GenerateException {
+        // the swagger reader only knows the JVM-wide extension chain,
+        // which then ends with the extensions of the current source
+        DocumentContext.exposeExtensions();
         new Reader(swagger).read(classes);
     }
 
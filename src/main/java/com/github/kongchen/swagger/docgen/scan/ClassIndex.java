@@ -0,0 +1,383 @@
+package com.github.kongchen.swagger.docgen.scan;
+
+import com.google.common.collect.Multimap;
+import io.swagger.annotations.ApiOperation;
+import org.reflections.ReflectionUtils;
+import org.reflections.Reflections;
+import org.reflections.Store;
+import org.reflections.scanners.MethodAnnotationsScanner;
+import org.reflections.scanners.Scanner;
+import org.reflections.scanners.SubTypesScanner;
+import org.reflections.scanners.TypeAnnotationsScanner;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.Path;
+import java.io.File;
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Inherited;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Annotation index over a set of classpath locations.
+ * <p>
+ * The classpath is scanned once, on first query, for the union of all locations
+ * and every query result is memoized, so any number of api sources and annotation
+ * lookups can share a single classpath walk. When a cache file is given, scan results are
+ * persisted per classpath element and reused by later builds while the element is unchanged.
+ */
+public class ClassIndex {
+
+    private static final String TYPE_ANNOTATIONS = TypeAnnotationsScanner.class.getSimpleName();
+
+    private static final String SUB_TYPES = SubTypesScanner.class.getSimpleName();
+
+    private static final String METHOD_ANNOTATIONS = MethodAnnotationsScanner.class.getSimpleName();
+
+    private static final String TYPE_FLAGS = TypeFlagsScanner.class.getSimpleName();
+
+    private static final Set<Class<?>> OPERATION_ANNOTATIONS = new HashSet<>(Arrays.asList(
+            Path.class, ApiOperation.class, RequestMapping.class, ExceptionHandler.class));
+
+    private final List<String> locations;
+
+    private final File cacheFile;
+
+    private final Map<Class<? extends Annotation>, Set<Class<?>>> annotated = new ConcurrentHashMap<>();
+
+    private final Map<Class<? extends Annotation>, Set<Class<?>>> inheriting = new ConcurrentHashMap<>();
+
+    private final Map<Class<? extends Annotation>, Set<String>> annotatedNames = new ConcurrentHashMap<>();
+
+    private final Map<Class<? extends Annotation>, Set<String>> inheritingNames = new ConcurrentHashMap<>();
+
+    private volatile Reflections reflections;
+
+    private Map<String, Set<String>> superTypes;
+
+    private volatile Set<String> operationTypes;
+
+    /**
+     * @param locations package or class name prefixes to index, {@code null} or empty for the whole classpath
+     */
+    public ClassIndex(Collection<String> locations) {
+        this(locations, null);
+    }
+
+    /**
+     * @param locations package or class name prefixes to index, {@code null} or empty for the whole classpath
+     * @param cacheFile file to persist scan results of classpath elements between builds, {@code null} to disable
+     */
+    public ClassIndex(Collection<String> locations, File cacheFile) {
+        List<String> prefixes = new ArrayList<>();
+        if (locations == null || locations.isEmpty()) {
+            prefixes.add("");
+        } else {
+            for (String location : locations) {
+                if (!prefixes.contains(location)) {
+                    prefixes.add(location);
+                }
+            }
+        }
+        this.locations = Collections.unmodifiableList(prefixes);
+        this.cacheFile = cacheFile;
+    }
+
+    public List<String> getLocations() {
+        return locations;
+    }
+
+    /**
+     * Get types annotated with the given annotation within the indexed locations
+     *
+     * @param annotation     annotation type
+     * @param honorInherited see {@link Reflections#getTypesAnnotatedWith(Class, boolean)}
+     * @return unmodifiable set of matching types
+     */
+    public Set<Class<?>> getTypesAnnotatedWith(Class<? extends Annotation> annotation, boolean honorInherited) {
+        Map<Class<? extends Annotation>, Set<Class<?>>> cache = honorInherited ? annotated : inheriting;
+        return cache.computeIfAbsent(annotation, a ->
+                Collections.unmodifiableSet(new LinkedHashSet<>(getReflections().getTypesAnnotatedWith(a, honorInherited))));
+    }
+
+    /**
+     * Get types annotated with the given annotation within the given location,
+     * matching the set a scan of that single location would produce
+     *
+     * @param annotation     annotation type
+     * @param honorInherited see {@link Reflections#getTypesAnnotatedWith(Class, boolean)}
+     * @param location       package or class name
+     * @return matching types, in index order
+     */
+    public Set<Class<?>> getTypesAnnotatedWith(Class<? extends Annotation> annotation, boolean honorInherited,
+                                               String location) {
+        if (location == null) {
+            return new LinkedHashSet<>(getTypesAnnotatedWith(annotation, honorInherited));
+        }
+        return loadClasses(getTypeNamesAnnotatedWith(annotation, honorInherited, location));
+    }
+
+    /**
+     * Get names of types annotated with the given annotation, resolved from class files without loading any class
+     *
+     * @param annotation     annotation type
+     * @param honorInherited see {@link Reflections#getTypesAnnotatedWith(Class, boolean)}
+     * @return unmodifiable set of matching type names
+     */
+    public Set<String> getTypeNamesAnnotatedWith(Class<? extends Annotation> annotation, boolean honorInherited) {
+        Map<Class<? extends Annotation>, Set<String>> cache = honorInherited ? annotatedNames : inheritingNames;
+        return cache.computeIfAbsent(annotation, a ->
+                Collections.unmodifiableSet(findTypeNamesAnnotatedWith(a, honorInherited)));
+    }
+
+    /**
+     * Get names of types annotated with the given annotation within the given location.
+     * Annotations, meta-annotations and supertypes are resolved from the types within the location only,
+     * as a scan of that single location would
+     *
+     * @param annotation     annotation type
+     * @param honorInherited see {@link Reflections#getTypesAnnotatedWith(Class, boolean)}
+     * @param location       package or class name
+     * @return matching type names, in index order
+     */
+    public Set<String> getTypeNamesAnnotatedWith(Class<? extends Annotation> annotation, boolean honorInherited,
+                                                 String location) {
+        if (location == null) {
+            return new LinkedHashSet<>(getTypeNamesAnnotatedWith(annotation, honorInherited));
+        }
+        return findTypeNamesAnnotatedWith(annotation, honorInherited, name -> within(name, location));
+    }
+
+    /**
+     * Check if a type may contribute operations, that is if it or any of its supertypes has methods
+     * annotated as JAX-RS or Spring MVC operations, sub-resource locators, api operations or exception handlers.
+     * Types with supertypes out of the index are assumed to contribute.
+     *
+     * @param typeName type name
+     * @return {@code false} if the type certainly contributes no operations
+     */
+    public boolean declaresOperations(String typeName) {
+        Set<String> types = operationTypes;
+        if (types == null) {
+            synchronized (this) {
+                types = operationTypes;
+                if (types == null) {
+                    superTypes = findSuperTypes();
+                    types = findOperationTypes();
+                    operationTypes = types;
+                }
+            }
+        }
+        return types.contains(typeName) || hasUnknownSupertypes(typeName, new HashSet<>());
+    }
+
+    /**
+     * Load classes by name with the class loaders of the index, skipping classes which can not be loaded
+     *
+     * @param names type names
+     * @return loaded classes, in the order of names
+     */
+    public Set<Class<?>> loadClasses(Collection<String> names) {
+        return new LinkedHashSet<>(ReflectionUtils.forNames(names, getReflections().getConfiguration().getClassLoaders()));
+    }
+
+    /**
+     * @param location package or class name prefix
+     * @return {@code true} if the types under the location are indexed
+     */
+    public boolean covers(String location) {
+        for (String prefix : locations) {
+            if (location == null ? prefix.isEmpty() : within(location, prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Reflections getReflections() {
+        Reflections result = reflections;
+        if (result == null) {
+            synchronized (this) {
+                result = reflections;
+                if (result == null) {
+                    if (cacheFile == null) {
+                        List<Object> params = new ArrayList<>(locations);
+                        params.addAll(Arrays.asList(scanners()));
+                        result = new Reflections(params.toArray());
+                    } else {
+                        result = new ClasspathScanCache(cacheFile).scan(locations);
+                    }
+                    reflections = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return new instances of the scanners building the index
+     */
+    static Scanner[] scanners() {
+        return new Scanner[]{new TypeAnnotationsScanner(), new SubTypesScanner(), new MethodAnnotationsScanner(),
+                new TypeFlagsScanner()};
+    }
+
+    private Set<String> findTypeNamesAnnotatedWith(Class<? extends Annotation> annotation, boolean honorInherited) {
+        return findTypeNamesAnnotatedWith(annotation, honorInherited, name -> true);
+    }
+
+    /**
+     * @param scanned filter of the type names whose class files take part, as if no other class file was scanned
+     */
+    private Set<String> findTypeNamesAnnotatedWith(Class<? extends Annotation> annotation, boolean honorInherited,
+                                                   Predicate<String> scanned) {
+        Store store = getReflections().getStore();
+        Set<String> annotated = get(store, TYPE_ANNOTATIONS, Collections.singleton(annotation.getName()), scanned);
+        Set<String> names = new LinkedHashSet<>(annotated);
+        if (honorInherited) {
+            if (annotation.isAnnotationPresent(Inherited.class)) {
+                Set<String> classes = new LinkedHashSet<>();
+                for (String name : annotated) {
+                    if (!isInterface(store, name)) {
+                        classes.add(name);
+                    }
+                }
+                Set<String> subTypes = get(store, SUB_TYPES, classes, scanned);
+                names.addAll(subTypes);
+                names.addAll(getAll(store, SUB_TYPES, subTypes, scanned));
+            }
+        } else {
+            Set<String> types = new LinkedHashSet<>(annotated);
+            types.addAll(getAll(store, TYPE_ANNOTATIONS, annotated, scanned));
+            names.addAll(types);
+            names.addAll(getAll(store, SUB_TYPES, types, scanned));
+        }
+        return names;
+    }
+
+    /**
+     * @return values of the keys, as {@link Store#get(String, Iterable)} would, which pass the filter
+     */
+    private static Set<String> get(Store store, String index, Iterable<String> keys, Predicate<String> scanned) {
+        Set<String> values = new LinkedHashSet<>();
+        for (String value : store.get(index, keys)) {
+            if (scanned.test(value)) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @return values of the keys and of their values transitively, as {@link Store#getAll(String, Iterable)} would,
+     * which pass the filter
+     */
+    private static Set<String> getAll(Store store, String index, Iterable<String> keys, Predicate<String> scanned) {
+        Set<String> values = new LinkedHashSet<>();
+        Set<String> next = get(store, index, keys, scanned);
+        while (!next.isEmpty()) {
+            Set<String> found = new LinkedHashSet<>();
+            for (String value : next) {
+                if (values.add(value)) {
+                    found.add(value);
+                }
+            }
+            next = get(store, index, found, scanned);
+        }
+        return values;
+    }
+
+    /**
+     * @return {@code true} if the type or package name is the location or nested in it
+     */
+    private static boolean within(String name, String location) {
+        return location.isEmpty() || name.equals(location)
+                || name.startsWith(location) && (name.charAt(location.length()) == '.'
+                || name.charAt(location.length()) == '$');
+    }
+
+    private Set<String> findOperationTypes() {
+        Store store = getReflections().getStore();
+        Set<String> declaring = new HashSet<>();
+        for (Map.Entry<String, Collection<String>> entry : store.get(METHOD_ANNOTATIONS).asMap().entrySet()) {
+            if (isOperationAnnotation(entry.getKey())) {
+                for (String method : entry.getValue()) {
+                    int params = method.indexOf('(');
+                    String name = params < 0 ? method : method.substring(0, params);
+                    declaring.add(name.substring(0, Math.max(name.lastIndexOf('.'), 0)));
+                }
+            }
+        }
+        Set<String> types = new HashSet<>(declaring);
+        types.addAll(toSet(store.getAll(SUB_TYPES, declaring)));
+        return types;
+    }
+
+    private boolean isOperationAnnotation(String annotationName) {
+        Class<?> type = ReflectionUtils.forName(annotationName, getReflections().getConfiguration().getClassLoaders());
+        if (type == null) {
+            return true;
+        }
+        if (OPERATION_ANNOTATIONS.contains(type)) {
+            return true;
+        }
+        for (Annotation meta : type.getAnnotations()) {
+            if (meta instanceof HttpMethod || meta instanceof RequestMapping) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Map<String, Set<String>> findSuperTypes() {
+        Map<String, Set<String>> types = new HashMap<>();
+        for (Map.Entry<String, String> entry : getReflections().getStore().get(SUB_TYPES).entries()) {
+            types.computeIfAbsent(entry.getValue(), k -> new LinkedHashSet<>()).add(entry.getKey());
+        }
+        return types;
+    }
+
+    private boolean hasUnknownSupertypes(String typeName, Set<String> visited) {
+        Multimap<String, String> scanned = getReflections().getStore().get(TYPE_FLAGS);
+        for (String superType : superTypes.getOrDefault(typeName, Collections.<String>emptySet())) {
+            if (!visited.add(superType)) {
+                continue;
+            }
+            if (operationTypes.contains(superType)) {
+                return true;
+            }
+            if (scanned.containsKey(superType)) {
+                if (hasUnknownSupertypes(superType, visited)) {
+                    return true;
+                }
+            } else if (!superType.startsWith("java.")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isInterface(Store store, String name) {
+        return store.get(TYPE_FLAGS).containsEntry(name, TypeFlagsScanner.INTERFACE);
+    }
+
+    private static Set<String> toSet(Iterable<String> names) {
+        Set<String> set = new LinkedHashSet<>();
+        for (String name : names) {
+            set.add(name);
+        }
+        return set;
+    }
+}
@@ -0,0 +1,318 @@
+package com.github.kongchen.swagger.docgen.scan;
+
+import com.google.common.collect.Multimap;
+import org.reflections.Reflections;
+import org.reflections.Store;
+import org.reflections.scanners.Scanner;
+import org.reflections.util.ClasspathHelper;
+import org.reflections.util.ConfigurationBuilder;
+import org.reflections.util.FilterBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Persistent store of per classpath element scan results.
+ * <p>
+ * Every classpath element is fingerprinted, jars by path, size and modification time,
+ * class directories by a hash of the class files they contain. Only elements
+ * whose fingerprint differs from the persisted one are rescanned.
+ */
+class ClasspathScanCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClasspathScanCache.class);
+
+    private static final int MAGIC = 0x53574743;
+
+    private static final int VERSION = 3;
+
+    private static final String CLASS_SUFFIX = ".class";
+
+    private final File file;
+
+    ClasspathScanCache(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Build a store equal to a single {@link Reflections} scan of the locations,
+     * reusing persisted results of unchanged classpath elements
+     *
+     * @param locations package or class name prefixes
+     * @return reflections over the merged store
+     */
+    Reflections scan(List<String> locations) {
+        FilterBuilder filter = new FilterBuilder().includePackage(locations.toArray(new String[0]));
+        Set<URL> urls = new LinkedHashSet<>();
+        for (String location : locations) {
+            urls.addAll(ClasspathHelper.forPackage(location));
+        }
+
+        Map<String, Element> cached = load(locations);
+        Map<String, Element> elements = new LinkedHashMap<>();
+        MergedReflections reflections = new MergedReflections();
+        int reused = 0;
+        for (URL url : urls) {
+            String key = url.toExternalForm();
+            String fingerprint = fingerprint(url, filter);
+            Element element = cached.get(key);
+            if (element != null && fingerprint != null && fingerprint.equals(element.fingerprint)) {
+                reused++;
+            } else {
+                element = new Element(fingerprint, scan(url, filter));
+            }
+            if (fingerprint != null) {
+                elements.put(key, element);
+            }
+            element.mergeTo(reflections.getStore());
+        }
+        LOGGER.debug("Reused scan results of {} of {} classpath elements", reused, urls.size());
+        // as a single scan does, once all elements are merged, since a supertype may be scanned in another element
+        reflections.expandSuperTypes();
+
+        if (reused < elements.size() || elements.size() != cached.size()) {
+            save(locations, elements);
+        }
+        return reflections;
+    }
+
+    private static Map<String, Map<String, Collection<String>>> scan(URL url, FilterBuilder filter) {
+        Store store = new Reflections(new ConfigurationBuilder()
+                .setUrls(url)
+                .filterInputsBy(filter)
+                .setScanners(ClassIndex.scanners())
+                .setExpandSuperTypes(false)).getStore();
+        Map<String, Map<String, Collection<String>>> indexes = new HashMap<>();
+        for (String index : store.keySet()) {
+            Map<String, Collection<String>> values = new HashMap<>();
+            for (Map.Entry<String, Collection<String>> entry : store.get(index).asMap().entrySet()) {
+                values.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+            }
+            indexes.put(index, values);
+        }
+        return indexes;
+    }
+
+    /**
+     * @return element fingerprint, or {@code null} if the element can not be fingerprinted and must always be scanned
+     */
+    private static String fingerprint(URL url, FilterBuilder filter) {
+        Path path;
+        try {
+            if (!"file".equals(url.getProtocol())) {
+                return null;
+            }
+            path = Paths.get(url.toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+
+        File element = path.toFile();
+        if (element.isFile()) {
+            return "jar:" + element.length() + ':' + element.lastModified();
+        }
+        if (!element.isDirectory()) {
+            return null;
+        }
+
+        try (Stream<Path> files = Files.walk(path)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            List<Path> classFiles = files
+                    .filter(Files::isRegularFile)
+                    .filter(file -> {
+                        String relativePath = path.relativize(file).toString().replace(File.separatorChar, '/');
+                        return relativePath.endsWith(CLASS_SUFFIX)
+                                && (filter.apply(relativePath) || filter.apply(relativePath.replace('/', '.')));
+                    })
+                    .sorted()
+                    .collect(Collectors.toList());
+            byte[] buffer = new byte[8192];
+            for (Path classFile : classFiles) {
+                digest.update(path.relativize(classFile).toString().getBytes("UTF-8"));
+                try (InputStream in = Files.newInputStream(classFile)) {
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        digest.update(buffer, 0, read);
+                    }
+                }
+            }
+            StringBuilder sb = new StringBuilder("dir:");
+            for (byte b : digest.digest()) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (IOException | NoSuchAlgorithmException e) {
+            LOGGER.debug("Unable to fingerprint classpath element {}", url, e);
+            return null;
+        }
+    }
+
+    private Map<String, Element> load(List<String> locations) {
+        if (!file.isFile()) {
+            return Collections.emptyMap();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return Collections.emptyMap();
+            }
+            String[] strings = new String[in.readInt()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = in.readUTF();
+            }
+
+            List<String> cachedLocations = new ArrayList<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                cachedLocations.add(strings[in.readInt()]);
+            }
+            if (!cachedLocations.equals(locations)) {
+                return Collections.emptyMap();
+            }
+
+            Map<String, Element> elements = new HashMap<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                String key = strings[in.readInt()];
+                String fingerprint = strings[in.readInt()];
+                Map<String, Map<String, Collection<String>>> indexes = new HashMap<>();
+                for (int j = in.readInt(); j > 0; j--) {
+                    String index = strings[in.readInt()];
+                    Map<String, Collection<String>> values = new HashMap<>();
+                    for (int k = in.readInt(); k > 0; k--) {
+                        String name = strings[in.readInt()];
+                        List<String> names = new ArrayList<>();
+                        for (int l = in.readInt(); l > 0; l--) {
+                            names.add(strings[in.readInt()]);
+                        }
+                        values.put(name, names);
+                    }
+                    indexes.put(index, values);
+                }
+                elements.put(key, new Element(fingerprint, indexes));
+            }
+            return elements;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Ignoring unreadable classpath scan cache {}: {}", file, e.toString());
+            return Collections.emptyMap();
+        }
+    }
+
+    private void save(List<String> locations, Map<String, Element> elements) {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        locations.forEach(location -> intern(strings, location));
+        for (Map.Entry<String, Element> element : elements.entrySet()) {
+            intern(strings, element.getKey());
+            intern(strings, element.getValue().fingerprint);
+            for (Map.Entry<String, Map<String, Collection<String>>> index : element.getValue().indexes.entrySet()) {
+                intern(strings, index.getKey());
+                for (Map.Entry<String, Collection<String>> values : index.getValue().entrySet()) {
+                    intern(strings, values.getKey());
+                    values.getValue().forEach(value -> intern(strings, value));
+                }
+            }
+        }
+
+        File parent = file.getAbsoluteFile().getParentFile();
+        try {
+            if (parent != null) {
+                Files.createDirectories(parent.toPath());
+            }
+            File tmp = File.createTempFile(file.getName(), ".tmp", parent);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(strings.size());
+                for (String string : strings.keySet()) {
+                    out.writeUTF(string);
+                }
+                out.writeInt(locations.size());
+                for (String location : locations) {
+                    out.writeInt(strings.get(location));
+                }
+                out.writeInt(elements.size());
+                for (Map.Entry<String, Element> element : elements.entrySet()) {
+                    out.writeInt(strings.get(element.getKey()));
+                    out.writeInt(strings.get(element.getValue().fingerprint));
+                    out.writeInt(element.getValue().indexes.size());
+                    for (Map.Entry<String, Map<String, Collection<String>>> index : element.getValue().indexes.entrySet()) {
+                        out.writeInt(strings.get(index.getKey()));
+                        out.writeInt(index.getValue().size());
+                        for (Map.Entry<String, Collection<String>> values : index.getValue().entrySet()) {
+                            out.writeInt(strings.get(values.getKey()));
+                            out.writeInt(values.getValue().size());
+                            for (String value : values.getValue()) {
+                                out.writeInt(strings.get(value));
+                            }
+                        }
+                    }
+                }
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to write classpath scan cache {}: {}", file, e.toString());
+        }
+    }
+
+    private static void intern(Map<String, Integer> strings, String string) {
+        strings.putIfAbsent(string, strings.size());
+    }
+
+    /**
+     * Reflections over a store merged from the scan results of classpath elements
+     */
+    private static class MergedReflections extends Reflections {
+
+        MergedReflections() {
+            for (Scanner scanner : ClassIndex.scanners()) {
+                store.getOrCreate(scanner.getClass().getSimpleName());
+            }
+        }
+    }
+
+    private static class Element {
+
+        private final String fingerprint;
+
+        private final Map<String, Map<String, Collection<String>>> indexes;
+
+        Element(String fingerprint, Map<String, Map<String, Collection<String>>> indexes) {
+            this.fingerprint = fingerprint;
+            this.indexes = indexes;
+        }
+
+        void mergeTo(Store store) {
+            for (Map.Entry<String, Map<String, Collection<String>>> index : indexes.entrySet()) {
+                Multimap<String, String> multimap = store.getOrCreate(index.getKey());
+                for (Map.Entry<String, Collection<String>> values : index.getValue().entrySet()) {
+                    multimap.putAll(values.getKey(), values.getValue());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.github.kongchen.swagger.docgen.scan;
+
+import javassist.bytecode.ClassFile;
+import org.reflections.scanners.AbstractScanner;
+
+/**
+ * Records the kind of every scanned type, so interfaces can be told apart without loading classes
+ */
+class TypeFlagsScanner extends AbstractScanner {
+
+    static final String INTERFACE = "interface";
+
+    static final String CLASS = "class";
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void scan(Object cls) {
+        String className = getMetadataAdapter().getClassName(cls);
+        if (acceptResult(className)) {
+            getStore().put(className, isInterface(cls) ? INTERFACE : CLASS);
+        }
+    }
+
+    private static boolean isInterface(Object cls) {
+        if (cls instanceof ClassFile) {
+            return ((ClassFile) cls).isInterface();
+        }
+        return cls instanceof Class && ((Class<?>) cls).isInterface();
+    }
+}
@@ -1,6 +1,7 @@
 package com.github.kongchen.swagger.docgen.spring;
 
 import com.fasterxml.jackson.databind.JavaType;
+import com.github.kongchen.swagger.docgen.ModelCache;
 import com.github.kongchen.swagger.docgen.util.ArrayUtils;
 import com.google.common.base.Strings;
 import com.google.common.collect.ClassToInstanceMap;
@@ -8,7 +9,6 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.MutableClassToInstanceMap;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
-import io.swagger.converter.ModelConverters;
 import io.swagger.jaxrs.ext.AbstractSwaggerExtension;
 import io.swagger.jaxrs.ext.SwaggerExtension;
 import io.swagger.models.Swagger;
@@ -220,7 +220,7 @@ public class SpringSwaggerExtension extends AbstractSwaggerExtension {
                 MultipartFile.class.isAssignableFrom(ct.getContentType().getRawClass())) {
             schema = new ArrayProperty().items(new FileProperty());
         } else {
-            schema = ModelConverters.getInstance().readAsProperty(type);
+            schema = ModelCache.current().readAsProperty(type);
         }
 
         if (schema != null) {
@@ -271,7 +271,7 @@ public class SpringSwaggerExtension extends AbstractSwaggerExtension {
 
     private Property readAsPropertyIfPrimitive(Type type) {
         if (com.github.kongchen.swagger.docgen.util.TypeUtils.isPrimitive(type)) {
-            return ModelConverters.getInstance().readAsProperty(type);
+            return ModelCache.current().readAsProperty(type);
         } else {
             String msg = String.format("Non-primitive type: %s used as request/path/cookie parameter", type);
             log.warn(msg);
@@ -1,8 +1,8 @@
 package com.github.kongchen.swagger.docgen.util;
 
+import com.github.kongchen.swagger.docgen.DocumentContext;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.jaxrs.ext.SwaggerExtension;
-import io.swagger.jaxrs.ext.SwaggerExtensions;
 import io.swagger.models.Operation;
 import io.swagger.models.parameters.Parameter;
 
@@ -19,7 +19,7 @@ import java.util.Set;
  */
 public class SwaggerExtensionChain {
 
-    private final Iterator<SwaggerExtension> chain = SwaggerExtensions.chain();
+    private final Iterator<SwaggerExtension> chain = DocumentContext.extensionChain();
 
     private Optional<SwaggerExtension> findFirst() {
         return Optional.of(chain)
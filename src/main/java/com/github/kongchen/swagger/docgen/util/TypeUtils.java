@@ -2,7 +2,7 @@ package com.github.kongchen.swagger.docgen.util;
 
 import java.lang.reflect.Type;
 
-import io.swagger.converter.ModelConverters;
+import com.github.kongchen.swagger.docgen.ModelCache;
 import io.swagger.models.properties.Property;
 
 public class TypeUtils {
@@ -10,7 +10,7 @@ public class TypeUtils {
     public static boolean isPrimitive(Type cls) {
         boolean isPrimitive = false;
 
-        Property property = ModelConverters.getInstance().readAsProperty(cls);
+        Property property = ModelCache.current().readAsProperty(cls);
         if (property == null) {
             isPrimitive = false;
         } else if ("integer".equals(property.getType())) {
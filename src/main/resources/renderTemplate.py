@@ -2,8 +2,10 @@ import django
 from django import template
 from django.conf import settings
 
-settings.configure()
-django.setup()
+# every interpreter of the pool has its own sys state, and so its own settings
+if not settings.configured:
+    settings.configure()
+    django.setup()
 
 
 def renderTemplate(t, ctx):
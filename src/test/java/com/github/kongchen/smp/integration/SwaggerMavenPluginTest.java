@@ -262,6 +262,19 @@ public class SwaggerMavenPluginTest extends AbstractMojoTestCase {
         assertGeneratedSwaggerSpecJson("This is a sample.", "/expectedOutput/swagger.json", "swagger.json");
     }
 
+    @Test
+    public void testMultipleApiSourcesGeneratedConcurrently() throws Exception {
+        File testPom = new File(getBasedir(), "src/test/resources/plugin-config-multiple-api-sources.xml");
+        mojo = (ApiDocumentMojo) lookupMojo("generate", testPom);
+        setVariableValueToObject(mojo, "parallelApiSources", true);
+        mojo.getApiSources().get(0).setModelConverters(ImmutableList.of(PetIdToStringModelConverter.class.getName()));
+        mojo.execute();
+
+        assertGeneratedSwaggerSpecJson("This is a sample.", "/expectedOutput/swagger-with-converter.json", "custom-file-name-one.json");
+        assertGeneratedSwaggerSpecJson("This is a sample.", "/expectedOutput/swagger.json", "custom-file-name-two.json");
+        assertGeneratedSwaggerSpecJson("This is a sample.", "/expectedOutput/swagger.json", "swagger.json");
+    }
+
     private void assertGeneratedSwaggerSpecJson(String description, String expectedOutput, String generatedFileName) throws IOException {
         JsonNode actualJson = mapper.readTree(new File(swaggerOutputDir, generatedFileName));
         JsonNode expectJson = mapper.readTree(this.getClass().getResourceAsStream(expectedOutput));
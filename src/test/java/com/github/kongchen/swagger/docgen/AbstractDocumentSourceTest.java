@@ -1,12 +1,22 @@
 package com.github.kongchen.swagger.docgen;
 
+import com.github.kongchen.smp.integration.utils.PetIdToStringModelConverter;
 import com.github.kongchen.swagger.docgen.mavenplugin.ApiSource;
 import com.github.kongchen.swagger.docgen.reader.AbstractReader;
 import com.github.kongchen.swagger.docgen.reader.ClassSwaggerReader;
+import com.github.kongchen.swagger.docgen.reader.ModelModifier;
+import com.wordnik.jaxrs.UserResource;
+import io.swagger.annotations.SwaggerDefinition;
+import io.swagger.jaxrs.ext.AbstractSwaggerExtension;
+import io.swagger.jaxrs.ext.SwaggerExtension;
+import io.swagger.jaxrs.ext.SwaggerExtensions;
 import io.swagger.models.ExternalDocs;
 import io.swagger.models.Info;
 import io.swagger.models.Path;
 import io.swagger.models.Swagger;
+import io.swagger.util.Json;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugin.logging.Log;
 import org.mockito.Mock;
@@ -17,8 +27,15 @@ import org.testng.annotations.Test;
 import java.io.File;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import static org.hamcrest.CoreMatchers.*;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -116,4 +133,221 @@ public class AbstractDocumentSourceTest {
         // assert
         assertThat(externalDocsSource.swagger.getInfo().getDescription(), is("Description file content\n"));
     }
+
+    @Test
+    public void testModelConvertersAreKeptPerSource() throws Exception {
+        when(apiSource.getModelConverters()).thenReturn(Collections.singletonList(PetIdToStringModelConverter.class.getName()));
+        source.loadModelModifier();
+        source.loadModelConverters();
+
+        when(apiSource.getModelConverters()).thenReturn(null);
+        AbstractDocumentSource other = newSource(() -> null);
+        other.loadModelModifier();
+        other.loadModelConverters();
+
+        assertThat(source.getContext().getConverters().size(), is(2));
+        assertThat(source.getContext().getConverters().get(0), instanceOf(PetIdToStringModelConverter.class));
+        assertThat(other.getContext().getConverters().size(), is(1));
+        assertThat(other.getContext().getConverters().get(0), instanceOf(ModelModifier.class));
+    }
+
+    @Test
+    public void testReaderExtensionsAreMovedToSource() throws Exception {
+        List<SwaggerExtension> extensions = SwaggerExtensions.getExtensions();
+        SwaggerExtension readerExtension = new AbstractSwaggerExtension() {
+        };
+        try {
+            AbstractDocumentSource readerSource = newSource(() -> new ClassSwaggerReader(new Swagger(), log) {
+                {
+                    List<SwaggerExtension> chain = new ArrayList<>(SwaggerExtensions.getExtensions());
+                    chain.add(readerExtension);
+                    SwaggerExtensions.setExtensions(chain);
+                }
+
+                @Override
+                public void read(Set<Class<?>> classes) {
+                    List<SwaggerExtension> chain = new ArrayList<>();
+                    DocumentContext.extensionChain().forEachRemaining(chain::add);
+                    assertThat(chain, hasItem(readerExtension));
+                }
+            });
+            readerSource.loadDocuments();
+
+            assertThat(readerSource.getContext().getExtensions(), hasItem(readerExtension));
+            assertThat(SwaggerExtensions.getExtensions(), not(hasItem(readerExtension)));
+        } finally {
+            SwaggerExtensions.setExtensions(extensions);
+        }
+    }
+
+    @Test
+    public void testSwaggerDocumentsReplacedWhole() throws Exception {
+        File dir = Files.createTempDirectory("swagger").toFile();
+        try {
+            when(apiSource.getSwaggerDirectory()).thenReturn(dir.getPath());
+            AbstractDocumentSource documentSource = newSource(() -> null);
+            documentSource.swagger.setInfo(new Info().title("Caf\u00e9"));
+            File json = new File(dir, "swagger.json");
+            FileUtils.write(json, "stale document which is longer than the generated one"
+                    + StringUtils.repeat(' ', 1000), "UTF-8");
+
+            documentSource.toSwaggerDocuments("/", "json,yaml", "UTF-8");
+
+            assertThat(dir.list().length, is(2));
+            Swagger written = Json.mapper().readValue(FileUtils.readFileToString(json, "UTF-8"), Swagger.class);
+            assertThat(written.getInfo().getTitle(), is("Caf\u00e9"));
+            assertThat(FileUtils.readFileToString(new File(dir, "swagger.yaml"), "UTF-8"),
+                    containsString("title: \"Caf\u00e9\""));
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void testSwaggerDocumentsHaveDefaultPermissions() throws Exception {
+        File dir = Files.createTempDirectory("swagger").toFile();
+        try {
+            if (!Files.getFileStore(dir.toPath()).supportsFileAttributeView(PosixFileAttributeView.class)) {
+                return;
+            }
+            when(apiSource.getSwaggerDirectory()).thenReturn(dir.getPath());
+            AbstractDocumentSource documentSource = newSource(() -> null);
+            documentSource.swagger.setInfo(new Info().title("Pets"));
+            File plain = new File(dir, "plain.txt");
+            assertThat(plain.createNewFile(), is(true));
+
+            documentSource.toSwaggerDocuments("/", "json", "UTF-8");
+
+            assertThat(Files.getPosixFilePermissions(new File(dir, "swagger.json").toPath()),
+                    is(Files.getPosixFilePermissions(plain.toPath())));
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void testUnchangedSwaggerDocumentsNotRewritten() throws Exception {
+        File dir = Files.createTempDirectory("swagger").toFile();
+        try {
+            when(apiSource.getSwaggerDirectory()).thenReturn(dir.getPath());
+            AbstractDocumentSource documentSource = newSource(() -> null);
+            documentSource.swagger.setInfo(new Info().title("Pets").version("1.0"));
+            documentSource.toSwaggerDocuments("/", "json,yaml", "UTF-8");
+            File json = new File(dir, "swagger.json");
+            File yaml = new File(dir, "swagger.yaml");
+            long past = json.lastModified() - 60000;
+            assertThat(json.setLastModified(past) && yaml.setLastModified(past), is(true));
+
+            documentSource.toSwaggerDocuments("/", "json,yaml", "UTF-8");
+
+            assertThat(dir.list().length, is(2));
+            assertThat(json.lastModified(), is(past));
+            assertThat(yaml.lastModified(), is(past));
+
+            documentSource.swagger.getInfo().setVersion("1.1");
+            documentSource.toSwaggerDocuments("/", "json,yaml", "UTF-8");
+
+            assertThat(json.lastModified(), not(past));
+            assertThat(FileUtils.readFileToString(yaml, "UTF-8"), containsString("version: \"1.1\""));
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void testUpToDateSourceSkipped() throws Exception {
+        File dir = Files.createTempDirectory("swagger").toFile();
+        try {
+            when(apiSource.getSwaggerDirectory()).thenReturn(dir.getPath());
+            File states = new File(dir, "state");
+            AbstractDocumentSource documentSource = newSource(() -> new ClassSwaggerReader(new Swagger(), log) {
+                @Override
+                public void read(Set<Class<?>> classes) {
+                }
+            });
+            documentSource.setStateDirectory(states, "1.0");
+            assertThat(documentSource.isUpToDate(), is(false));
+            documentSource.loadDocuments();
+            documentSource.toSwaggerDocuments("/", "json", "UTF-8");
+            documentSource.saveState();
+
+            AbstractDocumentSource next = newSource(() -> null);
+            next.setStateDirectory(states, "1.0");
+            assertThat(next.isUpToDate(), is(true));
+            next.setStateDirectory(states, "1.1");
+            assertThat(next.isUpToDate(), is(false));
+
+            FileUtils.write(new File(dir, "swagger.json"), "{}", "UTF-8");
+            next.setStateDirectory(states, "1.0");
+            assertThat(next.isUpToDate(), is(false));
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void testDefinitionClassesAreInputs() throws Exception {
+        File dir = Files.createTempDirectory("swagger").toFile();
+        try {
+            when(apiSource.getSwaggerDirectory()).thenReturn(dir.getPath());
+            File states = new File(dir, "state");
+            AbstractDocumentSource documentSource = newSource(() -> new ClassSwaggerReader(new Swagger(), log) {
+                @Override
+                public void read(Set<Class<?>> classes) {
+                }
+            });
+            documentSource.setStateDirectory(states, "1.0");
+            documentSource.loadDocuments();
+            documentSource.toSwaggerDocuments("/", "json", "UTF-8");
+            documentSource.saveState();
+
+            Set<Class<?>> definitions = Collections.singleton(UserResource.class);
+            when(apiSource.getValidClasses(SwaggerDefinition.class)).thenReturn(definitions);
+            AbstractDocumentSource next = newSource(() -> null);
+            next.setStateDirectory(states, "1.0");
+            assertThat(next.isUpToDate(), is(false));
+
+            DocumentState state = new DocumentState(states);
+            next.recordInputs(state, false);
+            assertThat(state.getInputs(), hasItem(DocumentState.CLASS + UserResource.class.getName()));
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void testMinifiedJson() throws Exception {
+        File dir = Files.createTempDirectory("swagger").toFile();
+        try {
+            when(apiSource.getSwaggerDirectory()).thenReturn(dir.getPath());
+            when(apiSource.isMinifiedJson()).thenReturn(true);
+            AbstractDocumentSource documentSource = newSource(() -> null);
+            documentSource.swagger.setInfo(new Info().title("Pets").version("1.0"));
+            documentSource.swagger.setPaths(Collections.singletonMap("/pets", new Path()));
+
+            documentSource.toSwaggerDocuments("/", "json,yaml", "UTF-8");
+
+            assertThat(dir.list().length, is(3));
+            String pretty = FileUtils.readFileToString(new File(dir, "swagger.json"), "UTF-8");
+            String minified = FileUtils.readFileToString(new File(dir, "swagger.min.json"), "UTF-8");
+            assertThat(minified, not(containsString(" ")));
+            assertThat(Json.mapper().readTree(minified), is(Json.mapper().readTree(pretty)));
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    private AbstractDocumentSource newSource(Supplier<ClassSwaggerReader> reader) throws MojoFailureException {
+        return new AbstractDocumentSource(log, apiSource, null) {
+            @Override
+            protected ClassSwaggerReader resolveApiReader() throws GenerateException {
+                return reader.get();
+            }
+
+            @Override
+            protected AbstractReader createReader() {
+                return null;
+            }
+        };
+    }
 }
@@ -0,0 +1,162 @@
+package com.github.kongchen.swagger.docgen;
+
+import com.github.kongchen.swagger.docgen.mavenplugin.ApiSource;
+import com.github.kongchen.swagger.docgen.reader.AbstractReader;
+import com.github.kongchen.swagger.docgen.reader.ClassSwaggerReader;
+import io.swagger.models.Info;
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.logging.Log;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.mockito.Mockito.when;
+
+public class DocumentCacheTest {
+
+    private File dir;
+
+    private File project;
+
+    private File classes;
+
+    private File jar;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("cache").toFile();
+        project = new File(dir, "project");
+        classes = new File(project, "classes");
+        FileUtils.write(new File(classes, "com/example/Api.class"), "api", StandardCharsets.UTF_8);
+        jar = new File(project, "models.jar");
+        writeJar("model");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    private void writeJar(String content) throws IOException {
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+            out.putNextEntry(new ZipEntry("com/example/Model.class"));
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+        }
+    }
+
+    private DocumentCache cache() {
+        return cache(project);
+    }
+
+    private DocumentCache cache(File basedir) {
+        return new DocumentCache(new File(dir, "cache"), basedir, Arrays.asList(
+                new File(basedir, "classes").getPath(), new File(basedir, "models.jar").getPath()));
+    }
+
+    private static ApiSource mockApiSource(File swagger, File description) {
+        ApiSource apiSource = Mockito.mock(ApiSource.class);
+        when(apiSource.getSwaggerDirectory()).thenReturn(swagger.getPath());
+        when(apiSource.getDescriptionFile()).thenReturn(description);
+        when(apiSource.getInfo()).thenReturn(new Info().title("Pets").version("1.0"));
+        return apiSource;
+    }
+
+    private static AbstractDocumentSource newSource(ApiSource apiSource) throws Exception {
+        return new AbstractDocumentSource(Mockito.mock(Log.class), apiSource, null) {
+            @Override
+            protected ClassSwaggerReader resolveApiReader() {
+                return null;
+            }
+
+            @Override
+            protected AbstractReader createReader() {
+                return null;
+            }
+        };
+    }
+
+    @Test
+    public void testKey() throws IOException {
+        ApiSource apiSource = new ApiSource();
+        apiSource.setLocations(Arrays.asList("com.example"));
+        String key = cache().key("1.0", apiSource, null);
+
+        Assert.assertEquals(cache().key("1.0", apiSource, null), key);
+        Assert.assertNotEquals(cache().key("1.1", apiSource, null), key);
+
+        FileUtils.write(new File(classes, "com/example/Api.class"), "changed api", StandardCharsets.UTF_8);
+        String changedClass = cache().key("1.0", apiSource, null);
+        Assert.assertNotEquals(changedClass, key);
+
+        writeJar("changed model");
+        Assert.assertNotEquals(cache().key("1.0", apiSource, null), changedClass);
+    }
+
+    @Test
+    public void testRestore() throws Exception {
+        File swagger = new File(dir, "swagger");
+        File description = new File(dir, "description.md");
+        FileUtils.write(description, "Pets", StandardCharsets.UTF_8);
+        ApiSource apiSource = mockApiSource(swagger, description);
+        AbstractDocumentSource documentSource = newSource(apiSource);
+        documentSource.toSwaggerDocuments("/", "json,yaml", "UTF-8");
+        String json = FileUtils.readFileToString(new File(swagger, "swagger.json"), StandardCharsets.UTF_8);
+        DocumentCache cache = cache();
+        String key = cache.key("1.0");
+
+        Assert.assertFalse(cache.restore(key, apiSource));
+        cache.store(key, documentSource);
+        FileUtils.deleteDirectory(swagger);
+
+        Assert.assertTrue(cache().restore(key, apiSource));
+        Assert.assertEquals(FileUtils.readFileToString(new File(swagger, "swagger.json"), StandardCharsets.UTF_8),
+                json);
+        Assert.assertTrue(new File(swagger, "swagger.yaml").isFile());
+
+        FileUtils.write(description, "Changed", StandardCharsets.UTF_8);
+        Assert.assertFalse(cache().restore(key, apiSource));
+    }
+
+    @Test
+    public void testRestoreInOtherCheckout() throws Exception {
+        File swagger = new File(project, "swagger");
+        File description = new File(project, "description.md");
+        FileUtils.write(description, "Pets", StandardCharsets.UTF_8);
+        ApiSource configuration = new ApiSource();
+        configuration.setLocations(Arrays.asList("com.example"));
+        configuration.setSwaggerDirectory(swagger.getAbsolutePath());
+        String key = cache().key("1.0", configuration, null);
+        AbstractDocumentSource documentSource = newSource(mockApiSource(swagger, description));
+        documentSource.toSwaggerDocuments("/", "json", "UTF-8");
+        String json = FileUtils.readFileToString(new File(swagger, "swagger.json"), StandardCharsets.UTF_8);
+        cache().store(key, documentSource);
+
+        File other = new File(dir, "other");
+        FileUtils.copyDirectory(project, other);
+        File otherSwagger = new File(other, "swagger");
+        FileUtils.deleteDirectory(otherSwagger);
+        configuration.setSwaggerDirectory(otherSwagger.getAbsolutePath());
+        String otherKey = cache(other).key("1.0", configuration, null);
+        Assert.assertEquals(otherKey, key);
+
+        ApiSource otherApiSource = mockApiSource(otherSwagger, new File(other, "description.md"));
+        Assert.assertTrue(cache(other).restore(otherKey, otherApiSource));
+        Assert.assertEquals(FileUtils.readFileToString(new File(otherSwagger, "swagger.json"), StandardCharsets.UTF_8),
+                json);
+
+        FileUtils.write(new File(other, "description.md"), "Changed", StandardCharsets.UTF_8);
+        Assert.assertFalse(cache(other).restore(otherKey, otherApiSource));
+    }
+}
@@ -0,0 +1,188 @@
+package com.github.kongchen.swagger.docgen;
+
+import io.swagger.converter.ModelConverter;
+import io.swagger.converter.ModelConverterContext;
+import io.swagger.converter.ModelConverters;
+import io.swagger.jaxrs.ext.AbstractSwaggerExtension;
+import io.swagger.jaxrs.ext.SwaggerExtension;
+import io.swagger.jaxrs.ext.SwaggerExtensions;
+import io.swagger.models.Model;
+import io.swagger.models.ModelImpl;
+import io.swagger.models.properties.Property;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class DocumentContextTest {
+
+    @Test
+    public void testConvertersAreIsolated() throws Exception {
+        DocumentContext first = new DocumentContext();
+        first.addConverter(new DescribingConverter("first"));
+        DocumentContext second = new DocumentContext();
+        second.addConverter(new DescribingConverter("second"));
+
+        Assert.assertEquals(first.call(() -> describe(Sample.class)), "first");
+        Assert.assertEquals(second.call(() -> describe(Sample.class)), "second");
+        Assert.assertNull(describe(Sample.class));
+    }
+
+    @Test
+    public void testContextIsBoundPerThread() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                DocumentContext context = new DocumentContext();
+                context.addConverter(new DescribingConverter("context" + i));
+                results.add(executor.submit(() -> context.call(() -> describe(Sample.class))));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                Assert.assertEquals(results.get(i).get(), "context" + i);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testExtensionsFollowGlobalChain() throws Exception {
+        SwaggerExtension extension = new AbstractSwaggerExtension() {
+        };
+        DocumentContext context = new DocumentContext();
+        context.getExtensions().add(extension);
+
+        List<SwaggerExtension> chain = new ArrayList<>();
+        context.run(() -> DocumentContext.extensionChain().forEachRemaining(chain::add));
+
+        List<SwaggerExtension> expected = new ArrayList<>(SwaggerExtensions.getExtensions());
+        expected.add(extension);
+        Assert.assertEquals(chain, expected);
+        Assert.assertFalse(SwaggerExtensions.getExtensions().contains(extension));
+    }
+
+    @Test
+    public void testExposedExtensionsArePerThread() throws Exception {
+        List<SwaggerExtension> extensions = SwaggerExtensions.getExtensions();
+        SwaggerExtension first = new AbstractSwaggerExtension() {
+        };
+        SwaggerExtension second = new AbstractSwaggerExtension() {
+        };
+        SwaggerExtension appended = new AbstractSwaggerExtension() {
+        };
+        DocumentContext firstContext = new DocumentContext();
+        firstContext.getExtensions().add(first);
+        DocumentContext secondContext = new DocumentContext();
+        secondContext.getExtensions().add(second);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            DocumentContext.exposeExtensions();
+            firstContext.run(() -> {
+                SwaggerExtensions.getExtensions().add(appended);
+                List<SwaggerExtension> other = executor.submit(() -> secondContext.call(() -> {
+                    List<SwaggerExtension> chain = new ArrayList<>();
+                    SwaggerExtensions.chain().forEachRemaining(chain::add);
+                    return chain;
+                })).get();
+                Assert.assertTrue(other.contains(second));
+                Assert.assertFalse(other.contains(first));
+                Assert.assertFalse(other.contains(appended));
+
+                List<SwaggerExtension> chain = new ArrayList<>();
+                DocumentContext.extensionChain().forEachRemaining(chain::add);
+                Assert.assertEquals(chain.subList(chain.size() - 2, chain.size()), Arrays.asList(first, appended));
+            });
+            Assert.assertEquals(firstContext.getExtensions(), Arrays.asList(first, appended));
+            Assert.assertFalse(SwaggerExtensions.getExtensions().contains(appended));
+        } finally {
+            executor.shutdownNow();
+            SwaggerExtensions.setExtensions(extensions);
+        }
+    }
+
+    @Test
+    public void testExecutionRestoresGlobalChains() throws Exception {
+        List<SwaggerExtension> extensions = SwaggerExtensions.getExtensions();
+        DocumentContext.beginExecution();
+        try {
+            DocumentContext.beginExecution();
+            try {
+                DocumentContext.exposeExtensions();
+                new DocumentContext().addConverter(new DescribingConverter("nested"));
+            } finally {
+                DocumentContext.endExecution();
+            }
+            Assert.assertTrue(SwaggerExtensions.getExtensions() instanceof ContextSwaggerExtensions);
+        } finally {
+            DocumentContext.endExecution();
+        }
+        Assert.assertSame(SwaggerExtensions.getExtensions(), extensions);
+
+        DocumentContext context = new DocumentContext();
+        context.addConverter(new DescribingConverter("reinstalled"));
+        Assert.assertEquals(context.call(() -> describe(Sample.class)), "reinstalled");
+        Assert.assertNull(describe(Sample.class));
+    }
+
+    @Test
+    public void testPropagate() throws Exception {
+        DocumentContext context = new DocumentContext();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<DocumentContext> result = context.call(() ->
+                    executor.submit(DocumentContext.propagate(DocumentContext::current)));
+            Assert.assertSame(result.get(), context);
+            Assert.assertNull(DocumentContext.current());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String describe(Type type) {
+        Map<String, Model> models = ModelConverters.getInstance().read(type);
+        Model model = models.get(Sample.class.getSimpleName());
+        return model == null ? null : model.getDescription();
+    }
+
+    static class Sample {
+
+        public String name;
+    }
+
+    /**
+     * Resolves models by the rest of the chain and describes them with its name
+     */
+    private static class DescribingConverter implements ModelConverter {
+
+        private final String name;
+
+        DescribingConverter(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Property resolveProperty(Type type, ModelConverterContext context, Annotation[] annotations,
+                                        Iterator<ModelConverter> chain) {
+            return chain.hasNext() ? chain.next().resolveProperty(type, context, annotations, chain) : null;
+        }
+
+        @Override
+        public Model resolve(Type type, ModelConverterContext context, Iterator<ModelConverter> chain) {
+            Model model = chain.hasNext() ? chain.next().resolve(type, context, chain) : null;
+            if (model instanceof ModelImpl) {
+                model.setDescription(name);
+            }
+            return model;
+        }
+    }
+}
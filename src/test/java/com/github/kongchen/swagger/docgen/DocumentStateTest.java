@@ -0,0 +1,115 @@
+package com.github.kongchen.swagger.docgen;
+
+import com.github.kongchen.swagger.docgen.mavenplugin.ApiSource;
+import com.wordnik.sample.model.Pet;
+import io.swagger.converter.ModelConverters;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+public class DocumentStateTest {
+
+    private File dir;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("state").toFile();
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @Test
+    public void testUpToDate() throws IOException {
+        File input = new File(dir, "input.txt");
+        FileUtils.write(input, "first", StandardCharsets.UTF_8);
+        DocumentState state = new DocumentState(new File(dir, "state"));
+        state.record(DocumentState.FILE + input.getAbsolutePath());
+        state.record(Resource.class);
+        state.save("key");
+
+        Assert.assertTrue(new DocumentState(new File(dir, "state")).isUpToDate("key"));
+        Assert.assertFalse(new DocumentState(new File(dir, "state")).isUpToDate("other key"));
+
+        FileUtils.write(input, "second", StandardCharsets.UTF_8);
+        Assert.assertFalse(new DocumentState(new File(dir, "state")).isUpToDate("key"));
+    }
+
+    @Test
+    public void testDeletedInput() throws IOException {
+        File input = new File(dir, "swagger.json");
+        FileUtils.write(input, "{}", StandardCharsets.UTF_8);
+        DocumentState state = new DocumentState(new File(dir, "state"));
+        state.record(DocumentState.FILE + input.getAbsolutePath());
+        state.save("key");
+
+        Assert.assertTrue(input.delete());
+        Assert.assertFalse(new DocumentState(new File(dir, "state")).isUpToDate("key"));
+    }
+
+    @Test
+    public void testRecordResource() {
+        DocumentState state = new DocumentState(dir);
+        state.recordResource(Resource.class);
+
+        Assert.assertEquals(state.getInputs(), new TreeSet<>(Arrays.asList(
+                DocumentState.CLASS + Resource.class.getName(),
+                DocumentState.CLASS + Base.class.getName(),
+                DocumentState.CLASS + Pet.class.getName())));
+    }
+
+    @Test
+    public void testRecordResolvedModels() throws Exception {
+        DocumentState state = new DocumentState(dir);
+        DocumentContext context = new DocumentContext();
+        context.addConverter(state.recorder());
+
+        context.run(() -> ModelConverters.getInstance().readAll(Pet.class));
+
+        Assert.assertTrue(state.getInputs().contains(DocumentState.CLASS + Pet.class.getName()));
+        Assert.assertTrue(state.getInputs().contains(DocumentState.CLASS + "com.wordnik.sample.model.Category"));
+        Assert.assertTrue(state.getInputs().contains(DocumentState.CLASS + "com.wordnik.sample.model.Tag"));
+    }
+
+    @Test
+    public void testConfiguration() {
+        ApiSource apiSource = new ApiSource();
+        apiSource.setLocations(Arrays.asList("com.example.api"));
+        String configuration = DocumentState.configuration(apiSource);
+
+        Assert.assertEquals(DocumentState.configuration(apiSource), configuration);
+        apiSource.setBasePath("/v2");
+        Assert.assertNotEquals(DocumentState.configuration(apiSource), configuration);
+    }
+
+    @Test
+    public void testResource() {
+        Assert.assertEquals(DocumentState.resource(DocumentStateTest.class, "/templates/a.hbs"),
+                DocumentState.RESOURCE + "templates/a.hbs");
+        Assert.assertEquals(DocumentState.resource(DocumentStateTest.class, "a.hbs"),
+                DocumentState.RESOURCE + "com/github/kongchen/swagger/docgen/a.hbs");
+    }
+
+    private static class Base implements Serializable {
+    }
+
+    private static class Resource extends Base {
+
+        public List<Pet> list(int limit) {
+            return null;
+        }
+    }
+}
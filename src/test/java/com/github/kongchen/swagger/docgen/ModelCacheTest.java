@@ -0,0 +1,168 @@
+package com.github.kongchen.swagger.docgen;
+
+import com.wordnik.sample.model.Pet;
+import io.swagger.converter.ModelConverter;
+import io.swagger.converter.ModelConverterContext;
+import io.swagger.converter.ModelConverters;
+import io.swagger.models.Model;
+import io.swagger.models.properties.Property;
+import io.swagger.models.properties.RefProperty;
+import io.swagger.models.properties.StringProperty;
+import io.swagger.util.Json;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Supplier;
+
+public class ModelCacheTest {
+
+    @Test
+    public void testCachedModelsMatchResolution() throws Exception {
+        ModelCache cache = new ModelCache(ModelCache.DEFAULT_CAPACITY);
+        String expected = Json.pretty(ModelConverters.getInstance().readAll(Pet.class));
+
+        Assert.assertEquals(Json.pretty(cache.readAll(Pet.class)), expected);
+        Assert.assertEquals(Json.pretty(cache.readAll(Pet.class)), expected);
+        Assert.assertEquals(cache.getMisses(), 1);
+        Assert.assertEquals(cache.getHits(), 1);
+    }
+
+    @Test
+    public void testCallersGetOwnCopies() throws Exception {
+        ModelCache cache = new ModelCache(ModelCache.DEFAULT_CAPACITY);
+        Map<String, Model> first = cache.read(Pet.class);
+        String expected = Json.pretty(first);
+        first.get("Pet").setDescription("changed");
+        first.get("Pet").getProperties().clear();
+
+        Map<String, Model> second = cache.read(Pet.class);
+        Assert.assertEquals(Json.pretty(second), expected);
+        Assert.assertNotSame(second.get("Pet"), cache.read(Pet.class).get("Pet"));
+
+        Property property = cache.readAsProperty(String.class);
+        property.setDescription("changed");
+        Assert.assertNull(cache.readAsProperty(String.class).getDescription());
+    }
+
+    @Test
+    public void testReferencesAreServedFromCache() throws Exception {
+        ModelCache cache = new ModelCache(ModelCache.DEFAULT_CAPACITY);
+        Property category = cache.read(Pet.class).get("Pet").getProperties().get("category");
+        Assert.assertTrue(category instanceof RefProperty);
+
+        Property cached = cache.read(Pet.class).get("Pet").getProperties().get("category");
+        Assert.assertEquals(cache.getHits(), 1);
+        Assert.assertNotSame(cached, category);
+        Assert.assertEquals(((RefProperty) cached).get$ref(), ((RefProperty) category).get$ref());
+    }
+
+    @Test
+    public void testCustomPropertiesAreNotShared() throws Exception {
+        DocumentContext context = new DocumentContext();
+        context.addConverter(new CustomPropertyConverter(CustomProperty::new));
+        ModelCache cache = context.getModelCache();
+
+        Property first = context.call(() -> cache.readAsProperty(String.class));
+        String expected = Json.pretty(first);
+        first.setDescription("changed");
+
+        Property second = context.call(() -> cache.readAsProperty(String.class));
+        Assert.assertEquals(Json.pretty(second), expected);
+        second.setDescription("changed");
+        Assert.assertEquals(Json.pretty(context.call(() -> cache.readAsProperty(String.class))), expected);
+    }
+
+    @Test
+    public void testUnreadablePropertiesAreResolvedEachTime() throws Exception {
+        DocumentContext context = new DocumentContext();
+        context.addConverter(new CustomPropertyConverter(() -> new NamedProperty("named")));
+        ModelCache cache = context.getModelCache();
+
+        Property first = context.call(() -> cache.readAsProperty(String.class));
+        Property second = context.call(() -> cache.readAsProperty(String.class));
+        Assert.assertNotSame(second, first);
+        Assert.assertEquals(Json.pretty(second), Json.pretty(first));
+        Assert.assertEquals(cache.getHits(), 0);
+    }
+
+    @Test
+    public void testCapacity() throws Exception {
+        ModelCache cache = new ModelCache(1);
+        cache.readAsProperty(String.class);
+        cache.readAsProperty(Integer.class);
+        cache.readAsProperty(String.class);
+        Assert.assertEquals(cache.getMisses(), 3);
+
+        ModelCache disabled = new ModelCache(0);
+        disabled.readAsProperty(String.class);
+        disabled.readAsProperty(String.class);
+        Assert.assertEquals(disabled.getHits() + disabled.getMisses(), 0);
+    }
+
+    @Test
+    public void testCacheFollowsContextConverters() throws Exception {
+        DocumentContext context = new DocumentContext();
+        ModelCache cache = context.getModelCache();
+        context.run(() -> ModelCache.current().read(Pet.class));
+        context.addConverter(new ModelConverterAdapter());
+
+        Assert.assertSame(context.call(ModelCache::current), cache);
+        context.run(() -> ModelCache.current().read(Pet.class));
+        Assert.assertEquals(cache.getMisses(), 2);
+        Assert.assertEquals(cache.getHits(), 0);
+    }
+
+    /**
+     * Resolves strings as properties of its own type
+     */
+    private static class CustomPropertyConverter extends ModelConverterAdapter {
+
+        private final Supplier<StringProperty> factory;
+
+        CustomPropertyConverter(Supplier<StringProperty> factory) {
+            this.factory = factory;
+        }
+
+        @Override
+        public Property resolveProperty(Type type, ModelConverterContext context, Annotation[] annotations,
+                                        Iterator<ModelConverter> chain) {
+            if (type == String.class) {
+                StringProperty property = factory.get();
+                property.setDescription("custom");
+                return property;
+            }
+            return super.resolveProperty(type, context, annotations, chain);
+        }
+    }
+
+    private static class CustomProperty extends StringProperty {
+    }
+
+    private static class NamedProperty extends StringProperty {
+
+        NamedProperty(String name) {
+            setName(name);
+        }
+    }
+
+    /**
+     * Passes resolution down the chain
+     */
+    private static class ModelConverterAdapter implements ModelConverter {
+
+        @Override
+        public Property resolveProperty(Type type, ModelConverterContext context, Annotation[] annotations,
+                                        Iterator<ModelConverter> chain) {
+            return chain.hasNext() ? chain.next().resolveProperty(type, context, annotations, chain) : null;
+        }
+
+        @Override
+        public Model resolve(Type type, ModelConverterContext context, Iterator<ModelConverter> chain) {
+            return chain.hasNext() ? chain.next().resolve(type, context, chain) : null;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.kongchen.swagger.docgen.nginx;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class DjangoTemplateTest {
+
+    private static final Map<String, String> NO_CONTEXT = null;
+
+    private final DjangoTemplate template = new DjangoTemplate();
+
+    @Test
+    public void testRenderInParallel() {
+        List<String> rendered = IntStream.range(0, 32)
+                .parallel()
+                .mapToObj(i -> template.render(
+                        "listen {{ port }};{% if port == '" + i + "' %} default_server{% endif %}",
+                        Collections.singletonMap("port", String.valueOf(i))))
+                .collect(Collectors.toList());
+        for (int i = 0; i < rendered.size(); i++) {
+            Assert.assertEquals(rendered.get(i), "listen " + i + "; default_server");
+        }
+    }
+
+    @Test
+    public void testRenderWithoutContext() {
+        Assert.assertEquals(template.render("{{ port|default:80 }}", NO_CONTEXT), "80");
+    }
+
+    @Test
+    public void testRenderWithContextString() {
+        Assert.assertEquals(
+                template.render("listen {{ port }};",
+                        DjangoTemplate.buildContext(Collections.singletonMap("port", "8080"))),
+                "listen 8080;");
+    }
+
+    @Test
+    public void testFailedRenderReturnsInterpreter() {
+        for (int i = 0; i <= Runtime.getRuntime().availableProcessors(); i++) {
+            try {
+                template.render("{% if %}", NO_CONTEXT);
+                Assert.fail();
+            } catch (RuntimeException e) {
+                Assert.assertEquals(e.getMessage(), "Failed to render template");
+            }
+        }
+        Assert.assertEquals(template.render("{{ 1 }}", NO_CONTEXT), "1");
+    }
+}
@@ -0,0 +1,58 @@
+package com.github.kongchen.swagger.docgen.nginx;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+public class MultiPatternTest {
+
+    private static final List<String> PATHS = Arrays.asList(
+            "", "/", "/api", "/api/", "/api/users", "/api/users/1", "/api/users/1/orders",
+            "/api/orders/1", "/api/orders/abc", "/API/Orders/1", "/static/a.css", "/static/a.js", "/aa", "/abab");
+
+    @DataProvider
+    private Object[][] groups() {
+        return new Object[][]{
+                {Arrays.asList("/api/.*", "/api/users/.*")},
+                {Arrays.asList("/api/users/(\\d+)", "/api/(users)/(\\d+)/.*", "/api/.*", ".*")},
+                {Arrays.asList("/api/orders/(?<id>\\d+)", "/static/.*\\.(css|js)", "/api(/.*)?")},
+                {Arrays.asList("(?i)/api/orders/\\d+", "/api/orders/.*")},
+                {Arrays.asList("/api/users(?=/)/.*", "/(?:a)+", "/api/users/\\d+$")},
+                // not combined
+                {Arrays.asList("/(a)\\1", "/(ab)\\1", "/.*")},
+                {Arrays.asList("/api/.*", "\\Q/api/users\\E")},
+                {Arrays.asList("(?x) /api/ .* # comment", "/.*")},
+                {Arrays.asList("/(?<x>a)a", "/(?<x>ab)ab")},
+                {Arrays.asList("/api/.*")},
+                {Arrays.asList()},
+        };
+    }
+
+    @Test(dataProvider = "groups")
+    public void testFirstMatch(List<String> regexes) {
+        List<Pattern> patterns = regexes.stream().map(Pattern::compile).collect(Collectors.toList());
+        MultiPattern multiPattern = new MultiPattern(patterns);
+        for (String path : PATHS) {
+            int expected = -1;
+            for (int i = 0; i < patterns.size() && expected < 0; i++) {
+                if (patterns.get(i).matcher(path).matches()) {
+                    expected = i;
+                }
+            }
+            Assert.assertEquals(multiPattern.firstMatch(path), expected, path);
+        }
+    }
+
+    @Test
+    public void testFlags() {
+        MultiPattern multiPattern = new MultiPattern(Arrays.asList(
+                Pattern.compile("/api/.*", Pattern.CASE_INSENSITIVE), Pattern.compile("/.*")));
+        Assert.assertEquals(multiPattern.firstMatch("/API/users"), 0);
+        Assert.assertEquals(multiPattern.firstMatch("/static"), 1);
+    }
+}
@@ -0,0 +1,123 @@
+package com.github.kongchen.swagger.docgen.nginx;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class NativeDjangoTemplateTest {
+
+    private static final Map<String, String> CONTEXT = new HashMap<>();
+
+    static {
+        CONTEXT.put("host", "api.example.com");
+        CONTEXT.put("port", "8080");
+        CONTEXT.put("empty", "");
+        CONTEXT.put("html", "<a href=\"x\">'&'</a>");
+        CONTEXT.put("mode", "prod");
+        CONTEXT.put("Name", "upstream");
+    }
+
+    private final NativeDjangoTemplate nativeTemplate = new NativeDjangoTemplate();
+
+    private final DjangoTemplate jythonTemplate = new DjangoTemplate();
+
+    @DataProvider
+    private Object[][] templates() {
+        return new Object[][]{
+                {"server {\n    listen {{ port }};\n    server_name {{host}};\n}\n"},
+                {"location ~ ^/a{2}/(\\d+)$ { return 404; }"},
+                {"{{ missing }}|{{ html }}|{{ html|safe }}|{{ \"<b>\" }}|{{ missing|safe }}"},
+                {"{% autoescape off %}{{ html }}{% autoescape on %}{{ html }}{% endautoescape %}{% endautoescape %}"},
+                {"{{ missing|default:\"none\" }}|{{ empty|default:host }}|{{ host|default:'x' }}"},
+                {"{{ host|upper }}|{{ html|lower }}|{{ html|upper }}|{{ '<x>'|upper }}|{{ '<x>'|lower }}"},
+                {"{% if host %}a{% endif %}{% if empty %}b{% elif port %}c{% else %}d{% endif %}"},
+                {"{% if mode == 'prod' and port == '8080' %}p{% else %}d{% endif %}"},
+                {"{% if not missing or empty %}1{% endif %}{% if missing == empty %}2{% endif %}"},
+                {"{% if 'example' in host %}in{% endif %}{% if 'x' not in host %}out{% endif %}"},
+                {"{% if missing in host %}a{% endif %}{% if missing not in host %}b{% endif %}"},
+                {"{% if missing|default:'x' %}c{% endif %}{% if mode != \"prod\" %}d{% endif %}"},
+                {"{% if missing|lower == 'none' %}n{% endif %}{% if missing != missing %}m{% endif %}"},
+                {"{# comment #}a{% comment %}{{ x|unknown }}{% endcomment %}b"},
+                {"{{ host\n}} {% if\nhost %}"},
+                {"{{ 'a\\'b' }}|{{ \"a\\\"b\" }}|{{ 'a\\\\b' }}"},
+        };
+    }
+
+    @Test(dataProvider = "templates")
+    public void testRenderAsDjango(String template) {
+        Assert.assertEquals(nativeTemplate.render(template, CONTEXT), jythonTemplate.render(template, CONTEXT));
+    }
+
+    @DataProvider
+    private Object[][] invalidTemplates() {
+        return new Object[][]{
+                {"{{ }}"},
+                {"{% %}"},
+                {"{% if host %}"},
+                {"{% if %}{% endif %}"},
+                {"{% if host == %}{% endif %}"},
+                {"{{ host|unknown }}"},
+                {"{{ host|default }}"},
+                {"{{ host|lower:1 }}"},
+                {"{{ _private }}"},
+                {"{% unknown %}"},
+        };
+    }
+
+    @Test(dataProvider = "invalidTemplates")
+    public void testInvalidTemplate(String template) {
+        try {
+            jythonTemplate.render(template, CONTEXT);
+            Assert.fail("Django rendered " + template);
+        } catch (RuntimeException expected) {
+            // Django fails as well
+        }
+        try {
+            nativeTemplate.render(template, CONTEXT);
+            Assert.fail("Rendered " + template);
+        } catch (RuntimeException expected) {
+            // unsupported
+        }
+    }
+
+    @DataProvider
+    private Object[][] unsupportedTemplates() {
+        return new Object[][]{
+                {"{{ host.upper }}"},
+                {"{{ 1 }}"},
+                {"{{ None }}"},
+                {"{{ host|length }}"},
+                {"{% if port > '80' %}{% endif %}"},
+                {"{% if missing is None %}{% endif %}"},
+                {"{% with h=host %}{{ h }}{% endwith %}"},
+                {"{% verbatim %}{% endverbatim %}"},
+        };
+    }
+
+    @Test(dataProvider = "unsupportedTemplates")
+    public void testUnsupportedTemplate(String template) {
+        jythonTemplate.render(template, CONTEXT);
+        try {
+            nativeTemplate.render(template, CONTEXT);
+            Assert.fail("Rendered " + template);
+        } catch (RuntimeException e) {
+            Assert.assertTrue(e.getCause().getMessage().contains("unsupported"), e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void testCompiledTemplate() {
+        NativeDjangoTemplate.Template template = nativeTemplate.compile("{{ host }}:{{ port|default:'80' }}");
+        Assert.assertEquals(template.render(CONTEXT), "api.example.com:8080");
+        Assert.assertEquals(template.render(null), ":80");
+    }
+
+    @Test
+    public void testCompiledTemplateReused() {
+        String template = "listen {{ port }};";
+        Assert.assertSame(nativeTemplate.compile(template), new NativeDjangoTemplate().compile(template));
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.kongchen.swagger.docgen.nginx;
+
+import com.github.kongchen.swagger.docgen.mavenplugin.NginxConfig;
+import com.github.kongchen.swagger.docgen.mavenplugin.NginxRewrite;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.Collections;
+
+public class NginxConfigCacheTest {
+
+    private static NginxConfig nginxConfig(String location) {
+        NginxConfig config = new NginxConfig();
+        config.setLocation(location);
+        return config;
+    }
+
+    @Test
+    public void testSharedByEffectiveConfig() throws IOException, URISyntaxException {
+        String location = new File(getClass().getResource("/nginx/locations.conf").toURI()).getPath();
+        NginxConfigCache cache = new NginxConfigCache();
+
+        NginxConfig first = nginxConfig(location);
+        NginxConfig second = nginxConfig(location);
+        second.setAdditionalRewrites(Collections.singletonList(new NginxRewrite("^/external/(.*)$", "/api/$1")));
+        Assert.assertSame(cache.get(second), cache.get(first));
+        Assert.assertEquals(cache.size(), 1);
+
+        NginxConfig other = nginxConfig(location);
+        other.setProperties(Collections.singletonMap("host", "localhost"));
+        Assert.assertNotSame(cache.get(other), cache.get(first));
+        Assert.assertEquals(cache.size(), 2);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testMissingConfig() throws IOException {
+        NginxConfigCache cache = new NginxConfigCache();
+        try {
+            cache.get(nginxConfig("missing/nginx.conf"));
+        } finally {
+            Assert.assertEquals(cache.size(), 0);
+        }
+    }
+}
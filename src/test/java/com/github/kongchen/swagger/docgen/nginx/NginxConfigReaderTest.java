@@ -0,0 +1,202 @@
+package com.github.kongchen.swagger.docgen.nginx;
+
+import com.github.odiszapc.nginxparser.NgxBlock;
+import com.github.odiszapc.nginxparser.NgxConfig;
+import com.github.odiszapc.nginxparser.NgxEntry;
+import com.github.odiszapc.nginxparser.NgxParam;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class NginxConfigReaderTest {
+
+    private Path dir;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("nginx");
+        Files.createDirectory(dir.resolve("locations"));
+        for (int i = 0; i < 8; i++) {
+            write("locations/" + i + ".conf", "location /{{ prefix }}" + i + " { proxy_pass http://backend; }");
+        }
+        write("nginx.conf", "http {\n"
+                + "    server { listen 80; include locations/*.conf; }\n"
+                + "    server { listen 81; include locations/*.conf; }\n"
+                + "}\n");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(dir.toFile());
+    }
+
+    private void write(String path, String content) throws IOException {
+        Files.write(dir.resolve(path), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private NginxConfigReader reader() {
+        return new NginxConfigReader(path -> false, Collections.singletonMap("prefix", "api"));
+    }
+
+    private static NgxBlock child(NgxBlock block, int index) {
+        return (NgxBlock) new ArrayList<>(block.getEntries()).get(index);
+    }
+
+    private static String dump(NgxEntry entry) {
+        StringBuilder sb = new StringBuilder(entry.getClass().getSimpleName()).append(entry);
+        if (entry instanceof NgxBlock) {
+            sb.append('[');
+            for (NgxEntry child : ((NgxBlock) entry).getEntries()) {
+                sb.append(dump(child)).append(';');
+            }
+            sb.append(']');
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testIncludeOrder() throws IOException {
+        List<String> expected = new ArrayList<>();
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(dir.resolve("locations"), "*.conf")) {
+            for (Path child : children) {
+                expected.add("/api" + child.getFileName().toString().replace(".conf", ""));
+            }
+        }
+
+        NgxConfig config = reader().read(dir.resolve("nginx.conf").toString());
+
+        NgxBlock http = child(config, 0);
+        for (int server = 0; server < 2; server++) {
+            NgxBlock includes = child(child(http, server), 1);
+            Assert.assertEquals(includes.getName(), "include");
+            List<String> locations = new ArrayList<>();
+            for (NgxEntry include : includes.getEntries()) {
+                locations.add(child((NgxBlock) include, 0).getValue());
+            }
+            Assert.assertEquals(locations, expected);
+        }
+    }
+
+    @Test
+    public void testIncludesParsedOnce() throws IOException {
+        AtomicInteger renders = new AtomicInteger();
+        NativeDjangoTemplate engine = new NativeDjangoTemplate();
+        NginxConfigReader reader = new NginxConfigReader(path -> false, Collections.singletonMap("prefix", "api"),
+                (template, context) -> {
+                    renders.incrementAndGet();
+                    return engine.render(template, context);
+                });
+        NgxConfig config = reader.read(dir.resolve("nginx.conf").toString());
+        Assert.assertEquals(renders.get(), 8);
+
+        NgxBlock http = child(config, 0);
+        List<NgxEntry> first = new ArrayList<>(child(child(http, 0), 1).getEntries());
+        List<NgxEntry> second = new ArrayList<>(child(child(http, 1), 1).getEntries());
+        Assert.assertEquals(second.size(), first.size());
+        for (int i = 0; i < first.size(); i++) {
+            Assert.assertNotSame(first.get(i), second.get(i));
+            Assert.assertEquals(dump(second.get(i)), dump(first.get(i)));
+        }
+    }
+
+    @Test
+    public void testChangedFileParsedAgain() throws IOException {
+        NginxConfigReader reader = reader();
+        String path = dir.resolve("locations/0.conf").toString();
+        NgxConfig config = reader.read(path);
+        NgxConfig reread = reader.read(path);
+        Assert.assertNotSame(reread, config);
+        Assert.assertEquals(child(reread, 0).getValue(), child(config, 0).getValue());
+
+        write("locations/0.conf", "listen 8080;");
+        NgxConfig changed = reader.read(path);
+        Assert.assertEquals(((NgxParam) changed.getEntries().iterator().next()).getValue(), "8080");
+    }
+
+    @Test
+    public void testIncludesReadWithContextClassLoader() throws IOException {
+        ClassLoader loader = new URLClassLoader(new URL[0], getClass().getClassLoader());
+        Set<ClassLoader> loaders = ConcurrentHashMap.newKeySet();
+        NginxConfigReader reader = new NginxConfigReader(path -> false, Collections.singletonMap("prefix", "api"),
+                (template, context) -> {
+                    loaders.add(Thread.currentThread().getContextClassLoader());
+                    return template.replace("{{ prefix }}", "api");
+                });
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+        thread.setContextClassLoader(loader);
+        try {
+            reader.read(dir.resolve("nginx.conf").toString());
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+        Assert.assertEquals(loaders, Collections.singleton(loader));
+    }
+
+    @Test
+    public void testIsTemplate() {
+        NginxConfigReader reader = reader();
+        Assert.assertTrue(reader.isTemplate("listen {{ port }};".getBytes(StandardCharsets.UTF_8)));
+        Assert.assertTrue(reader.isTemplate("{% if ssl %}listen 443;{% endif %}".getBytes(StandardCharsets.UTF_8)));
+        Assert.assertTrue(reader.isTemplate("{# note #}".getBytes(StandardCharsets.UTF_8)));
+        Assert.assertFalse(reader.isTemplate("location ~ ^/a{2}/ { }".getBytes(StandardCharsets.UTF_8)));
+        Assert.assertFalse(reader.isTemplate("{".getBytes(StandardCharsets.UTF_8)));
+        Assert.assertTrue(new NginxConfigReader(null, null, new NativeDjangoTemplate(), StandardCharsets.UTF_16)
+                .isTemplate("listen 80;".getBytes(StandardCharsets.UTF_16)));
+    }
+
+    @Test
+    public void testPlainFileNotRendered() throws IOException {
+        write("locations/0.conf", "location /\u00e9t\u00e9 { return 404; }");
+        NginxConfigReader reader = new NginxConfigReader(null, null, (template, context) -> {
+            throw new AssertionError("Rendered " + template);
+        });
+        NgxConfig config = reader.read(dir.resolve("locations/0.conf").toString());
+        Assert.assertEquals(child(config, 0).getValue(), "/\u00e9t\u00e9");
+    }
+
+    @Test
+    public void testCharset() throws IOException {
+        Files.write(dir.resolve("latin.conf"),
+                "location /\u00e9t\u00e9 { return {{ code }}; }".getBytes(StandardCharsets.ISO_8859_1));
+        NginxConfigReader reader = new NginxConfigReader(null, Collections.singletonMap("code", "404"),
+                new NativeDjangoTemplate(), StandardCharsets.ISO_8859_1);
+        NgxConfig config = reader.read(dir.resolve("latin.conf").toString());
+        NgxBlock location = child(config, 0);
+        Assert.assertEquals(location.getValue(), "/\u00e9t\u00e9");
+        Assert.assertEquals(location.findParam("return").getValue(), "404");
+    }
+
+    @Test
+    public void testIncludesSkippedWithoutFilter() throws IOException {
+        NgxConfig config = new NginxConfigReader(null, Collections.singletonMap("prefix", "api"))
+                .read(dir.resolve("nginx.conf").toString());
+
+        NgxBlock http = child(config, 0);
+        for (int server = 0; server < 2; server++) {
+            Assert.assertEquals(child(http, server).getEntries().size(), 1);
+        }
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testMissingInclude() throws IOException {
+        write("locations/bad.conf", "include missing/*.conf;");
+        reader().read(dir.resolve("nginx.conf").toString());
+    }
+}
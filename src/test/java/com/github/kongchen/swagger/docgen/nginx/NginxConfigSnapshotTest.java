@@ -0,0 +1,120 @@
+package com.github.kongchen.swagger.docgen.nginx;
+
+import com.github.kongchen.swagger.docgen.mavenplugin.NginxConfig;
+import com.github.odiszapc.nginxparser.NgxBlock;
+import com.github.odiszapc.nginxparser.NgxConfig;
+import com.github.odiszapc.nginxparser.NgxEntry;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+public class NginxConfigSnapshotTest {
+
+    private Path dir;
+
+    private File snapshots;
+
+    private NginxConfig nginxConfig;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("nginx");
+        snapshots = dir.resolve("target").toFile();
+        Files.createDirectory(dir.resolve("locations"));
+        write("locations/users.conf", "location /{{ prefix }}/users { proxy_pass http://users; }");
+        write("locations/orders.conf", "if ($request_method = POST) { rewrite ^/a$ /b break; }\n# orders");
+        write("nginx.conf", "http {\n"
+                + "    server { listen 80; include locations/*.conf; }\n"
+                + "    server { listen 81; include locations/*.conf; }\n"
+                + "    include /etc/missing/*.conf;\n"
+                + "}\n");
+        nginxConfig = new NginxConfig();
+        nginxConfig.setLocation(dir.resolve("nginx.conf").toString());
+        nginxConfig.setProperties(Collections.singletonMap("prefix", "api"));
+        nginxConfig.setExcludeLocations(Collections.emptyList());
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(dir.toFile());
+    }
+
+    private void write(String path, String content) throws IOException {
+        Files.write(dir.resolve(path), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private NgxConfig readAndSave() throws IOException {
+        NginxConfigReader reader = new NginxConfigReader(path -> false, nginxConfig.getProperties());
+        NgxConfig config = reader.read(nginxConfig.getLocation());
+        new NginxConfigSnapshot(snapshots, nginxConfig).save(config, reader.getInputs());
+        return config;
+    }
+
+    private static String dump(NgxEntry entry) {
+        StringBuilder sb = new StringBuilder(entry.getClass().getSimpleName()).append(entry);
+        if (entry instanceof NgxBlock) {
+            sb.append('[');
+            for (NgxEntry child : ((NgxBlock) entry).getEntries()) {
+                sb.append(dump(child)).append(';');
+            }
+            sb.append(']');
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testLoad() throws IOException {
+        NgxConfig config = readAndSave();
+
+        NgxConfig loaded = new NginxConfigSnapshot(snapshots, nginxConfig).load();
+
+        Assert.assertNotNull(loaded);
+        Assert.assertEquals(dump(loaded), dump(config));
+    }
+
+    @Test
+    public void testChangedFile() throws IOException {
+        readAndSave();
+        write("locations/users.conf", "location /users { proxy_pass http://users; }");
+        Assert.assertNull(new NginxConfigSnapshot(snapshots, nginxConfig).load());
+    }
+
+    @Test
+    public void testAddedInclude() throws IOException {
+        readAndSave();
+        write("locations/items.conf", "location /items { proxy_pass http://items; }");
+        Assert.assertNull(new NginxConfigSnapshot(snapshots, nginxConfig).load());
+    }
+
+    @Test
+    public void testCreatedIncludeDirectory() throws IOException {
+        readAndSave();
+        Files.createDirectories(dir.resolve("missing"));
+        Assert.assertNull(new NginxConfigSnapshot(snapshots, nginxConfig).load());
+    }
+
+    @Test
+    public void testChangedProperties() throws IOException {
+        readAndSave();
+        nginxConfig.setProperties(Collections.singletonMap("prefix", "v2"));
+        Assert.assertNull(new NginxConfigSnapshot(snapshots, nginxConfig).load());
+    }
+
+    @Test
+    public void testUnreadableSnapshot() throws IOException {
+        readAndSave();
+        for (File file : snapshots.listFiles()) {
+            Files.write(file.toPath(), new byte[]{1, 2, 3});
+        }
+        Assert.assertNull(new NginxConfigSnapshot(snapshots, nginxConfig).load());
+    }
+}
@@ -0,0 +1,139 @@
+package com.github.kongchen.swagger.docgen.nginx;
+
+import com.github.kongchen.swagger.docgen.mavenplugin.NginxRewrite;
+import com.github.odiszapc.nginxparser.NgxConfig;
+import io.swagger.models.Operation;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+public class NginxRoutingTableTest {
+
+    private NgxConfig config;
+
+    private NginxRoutingTable table;
+
+    @BeforeClass
+    public void setUp() throws Exception {
+        try (InputStream input = getClass().getResourceAsStream("/nginx/locations.conf")) {
+            config = NgxConfig.read(input);
+        }
+        table = new NginxRoutingTable(config, Collections.emptyList());
+    }
+
+    @DataProvider
+    private Object[][] operations() {
+        return new Object[][]{
+                {"get", "/internal/users/{id}", "/api/users/{id}"},
+                {"get", "/internal/orders/{id}", "/api/orders/{id}"},
+                {"get", "/internal/orders/{orderId}/lines", "/api/orders/{orderId}/lines"},
+                {"get", "/internal/health", "/api/status"},
+                {"get", "/internal/files/{name}", "/api/static/{name}"},
+                {"post", "/internal/items-write/{id}", "/api/items/{id}"},
+                {"get", "/internal/items/{id}", "/api/items/{id}"},
+                // reverted to a path which POST requests rewrite to another upstream path
+                {"post", "/internal/items/{id}", "/internal/items/{id}"},
+                {"get", "/internal/archive/{id}", "/api/items/archive/{id}"},
+                {"get", "/internal/hidden/x", "/internal/hidden/x"},
+                {"get", "/internal/other/{a}/{b}", "/api/other/{a}/{b}"},
+                {"put", "/unrelated/path", "/unrelated/path"},
+        };
+    }
+
+    @Test(dataProvider = "operations")
+    public void testRevertPath(String httpMethod, String path, String expected) {
+        Assert.assertEquals(revert(table, httpMethod, path), expected);
+        // the table is reused by every operation
+        Assert.assertEquals(revert(table, httpMethod, path), expected);
+    }
+
+    @Test(dataProvider = "operations")
+    public void testRevertPathWithAdditionalRewrites(String httpMethod, String path, String expected) {
+        NginxRoutingTable table = new NginxRoutingTable(config,
+                Collections.singletonList(new NginxRewrite("^/external/(.*)$", "/api/$1")));
+        Assert.assertEquals(revert(table, httpMethod, path), expected.replaceFirst("^/api/", "/external/"));
+    }
+
+    @Test(dataProvider = "operations")
+    public void testRevertPathWithSharedTable(String httpMethod, String path, String expected) {
+        NginxRoutingTable rewritten = table.withAdditionalRewrites(
+                Collections.singletonList(new NginxRewrite("^/external/(.*)$", "/api/$1")), null);
+        Assert.assertSame(rewritten.getRoot(), table.getRoot());
+        Assert.assertEquals(revert(rewritten, httpMethod, path), expected.replaceFirst("^/api/", "/external/"));
+        Assert.assertEquals(revert(table, httpMethod, path), expected);
+    }
+
+    @Test(dataProvider = "operations")
+    public void testRevertPathWithResolutionCache(String httpMethod, String path, String expected) {
+        for (boolean verify : new boolean[]{false, true}) {
+            NginxResolutionCache cache = new NginxResolutionCache(verify);
+            NginxRoutingTable table = new NginxRoutingTable(config, Collections.emptyList(), cache);
+            Assert.assertEquals(revert(table, httpMethod, path), expected);
+            long misses = cache.getMisses();
+            // paths of the same shape are resolved by the cached walks
+            Assert.assertEquals(revert(table, httpMethod, path.replace("{id}", "{key}")),
+                    expected.replace("{id}", "{key}"));
+            Assert.assertEquals(cache.getMisses(), misses);
+            Assert.assertEquals(cache.getHits(), misses);
+        }
+    }
+
+    @Test
+    public void testResolutionCacheByMethod() {
+        NginxResolutionCache cache = new NginxResolutionCache(false);
+        NginxRoutingTable table = new NginxRoutingTable(config, Collections.emptyList(), cache);
+        Assert.assertEquals(revert(table, "get", "/internal/items/{id}"), "/api/items/{id}");
+        Assert.assertEquals(revert(table, "post", "/internal/items/{name}"), "/internal/items/{name}");
+        Assert.assertEquals(revert(table, "post", "/internal/items-write/{name}"), "/api/items/{name}");
+        Assert.assertEquals(revert(table, "get", "/internal/items/{name}"), "/api/items/{name}");
+        // POST rewrite of /api/items/{id} is walked while checking the second path, and reused by the third one
+        Assert.assertEquals(cache.getHits(), 3);
+    }
+
+    @Test
+    public void testPrefixIndex() {
+        NginxRoutingTable.Block http = (NginxRoutingTable.Block) table.getRoot().iterator().next();
+        NginxRoutingTable.Block server = (NginxRoutingTable.Block) http.iterator().next();
+        NginxRoutingTable.PrefixIndex index = server.getPrefixIndex();
+
+        Assert.assertEquals(urls(index.match("/api/items/archive/1")),
+                new TreeSet<>(Arrays.asList("/api/", "/api/items/", "/api/items/archive/")));
+        Assert.assertEquals(urls(index.match("/api/status")), new TreeSet<>(Arrays.asList("/api/", "/api/status")));
+        Assert.assertEquals(urls(index.match("/api/statuses")), Collections.singleton("/api/"));
+        Assert.assertEquals(urls(index.match("/api/static/a.css")), new TreeSet<>(Arrays.asList("/api/", "/api/static/")));
+        Assert.assertEquals(urls(index.match("/internal/orders/1")), Collections.emptySet());
+    }
+
+    @Test
+    public void testRegexIndex() {
+        NginxRoutingTable.Block http = (NginxRoutingTable.Block) table.getRoot().iterator().next();
+        NginxRoutingTable.Block server = (NginxRoutingTable.Block) http.iterator().next();
+        NginxRoutingTable.RegexIndex index = server.getRegexIndex();
+
+        Assert.assertEquals(index.firstMatch("/api/orders/1"), 0);
+        Assert.assertEquals(index.firstMatch("/api/orders/a/lines"), 1);
+        Assert.assertEquals(index.firstMatch("/api/orders/a"), -1);
+    }
+
+    private static Set<String> urls(Set<NginxRoutingTable.Location> locations) {
+        return locations.stream().map(NginxRoutingTable.Location::getUrl).collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    private static String revert(NginxRoutingTable table, String httpMethod, String path) {
+        Operation operation = new Operation().operationId("operation");
+        String reverted = new NginxLocationReverser(table, path, httpMethod, operation).process();
+        if (!reverted.equals(path)
+                && !new NginxLocationRewriter(table, reverted, httpMethod, operation).process().equals(path)) {
+            return path;
+        }
+        return reverted;
+    }
+}
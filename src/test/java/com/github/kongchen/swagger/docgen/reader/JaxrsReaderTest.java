@@ -8,9 +8,12 @@ import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.kongchen.swagger.docgen.scan.ClassIndex;
+import com.wordnik.jaxrs.UserResource;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
+import io.swagger.annotations.SwaggerDefinition;
 import io.swagger.jaxrs.ext.SwaggerExtension;
 import io.swagger.jaxrs.ext.SwaggerExtensions;
 import io.swagger.models.ArrayModel;
@@ -31,6 +34,7 @@ import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.plugin.logging.SystemStreamLog;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.reflections.Reflections;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
@@ -44,8 +48,15 @@ import javax.ws.rs.Path;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
@@ -242,6 +253,52 @@ public class JaxrsReaderTest {
         }
     }
 
+    @Test
+    public void scanClasspathForTagsOncePerRead() {
+        final AtomicInteger scans = new AtomicInteger();
+        JaxrsReader countingReader = new JaxrsReader(new Swagger(), log) {
+            @Override
+            protected Map<String, Tag> scanClasspathForTags() {
+                scans.incrementAndGet();
+                return super.scanClasspathForTags();
+            }
+        };
+
+        countingReader.read(new LinkedHashSet<>(Arrays.asList(AnApi.class, SomeResource.class, HiddenApi.class)));
+        assertEquals(scans.get(), 1, "Classpath should be scanned once for all resources and sub-resources");
+
+        countingReader.read(Collections.singleton(AnApiWithOctetStream.class));
+        assertEquals(scans.get(), 2, "Classpath should be scanned once per read");
+    }
+
+    @Test
+    public void lookUpTagsInClassIndex() {
+        JaxrsReader indexedReader = new JaxrsReader(new Swagger(), log);
+        indexedReader.setClassIndex(new ClassIndex(Collections.singleton("com.wordnik.jaxrs")));
+
+        indexedReader.read(Collections.singleton(UserResource.class));
+        assertEquals(indexedReader.getTagClasses(),
+                new Reflections("com.wordnik.jaxrs").getTypesAnnotatedWith(SwaggerDefinition.class));
+        assertTrue(indexedReader.getTagClasses().contains(UserResource.class));
+    }
+
+    @Test
+    public void parallelReadMatchesSequentialRead() throws JsonProcessingException {
+        Set<Class<?>> classes = new TreeSet<>(Comparator.comparing(Class::getName));
+        classes.addAll(new Reflections("com.wordnik.jaxrs").getTypesAnnotatedWith(Api.class));
+        classes.addAll(Arrays.asList(AnApiWithOctetStream.class, SomeResource.class, CommonParametersApi.class,
+                ReferenceCommonParametersApi.class, AnApiWithInheritance.class));
+
+        reader.read(classes);
+
+        JaxrsReader parallelReader = new JaxrsReader(new Swagger(), log);
+        parallelReader.setParallelism(4);
+        parallelReader.read(classes);
+
+        ObjectWriter writer = Json.mapper().writer(new DefaultPrettyPrinter());
+        assertEquals(writer.writeValueAsString(parallelReader.getSwagger()), writer.writeValueAsString(reader.getSwagger()));
+    }
+
     public void discoverSubResource() {
         reader.read(SomeResource.class);
         assertSwaggerPath(reader.getSwagger().getPath("/resource/explicit/name").getGet(), reader.getSwagger(), "/resource/implicit/name");
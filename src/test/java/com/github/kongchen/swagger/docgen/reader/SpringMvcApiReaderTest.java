@@ -2,21 +2,34 @@ package com.github.kongchen.swagger.docgen.reader;
 
 import com.github.kongchen.swagger.docgen.GenerateException;
 import com.github.kongchen.swagger.docgen.spring.SpringResource;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.swagger.annotations.Api;
 import io.swagger.models.Swagger;
+import io.swagger.util.Json;
+import org.apache.commons.io.IOUtils;
 import org.apache.maven.monitor.logging.DefaultLog;
 import org.apache.maven.plugin.logging.Log;
 import org.codehaus.plexus.logging.console.ConsoleLogger;
 import org.codehaus.plexus.logging.console.ConsoleLoggerManager;
+import org.reflections.Reflections;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.testng.annotations.Test;
 import org.codehaus.plexus.logging.Logger;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
 
 public class SpringMvcApiReaderTest {
 
@@ -29,6 +42,41 @@ public class SpringMvcApiReaderTest {
         assertEquals(3, resourceMap.size());
     }
 
+    @Test
+    public void testParallelReadMatchesSequentialRead() throws Exception {
+        Log log = new DefaultLog(new ConsoleLogger(Logger.LEVEL_WARN, "test"));
+        Set<Class<?>> classes = new TreeSet<>(Comparator.comparing(Class::getName));
+        classes.addAll(new Reflections("com.wordnik.springmvc").getTypesAnnotatedWith(Api.class));
+
+        SpringMvcApiReader reader = new SpringMvcApiReader(new Swagger(), log);
+        reader.read(classes);
+
+        SpringMvcApiReader parallelReader = new SpringMvcApiReader(new Swagger(), log);
+        parallelReader.setParallelism(4);
+        assertEquals(new ArrayList<>(reader.generateResourceMap(classes).keySet()),
+                new ArrayList<>(parallelReader.generateResourceMap(classes).keySet()));
+        parallelReader.read(classes);
+
+        ObjectWriter writer = Json.mapper().writer(new DefaultPrettyPrinter());
+        assertEquals(writer.writeValueAsString(reader.getSwagger()), writer.writeValueAsString(parallelReader.getSwagger()));
+    }
+
+    @Test
+    public void testParallelReadKeepsResourcesOfControllersWithMissingTypes() throws Exception {
+        Log log = new DefaultLog(new ConsoleLogger(Logger.LEVEL_DISABLED, "test"));
+        Class<?> controller = new MissingTypeClassLoader().loadClass(ResourceWithMissingFieldType.class.getName());
+        Set<Class<?>> classes = new LinkedHashSet<>();
+        classes.add(controller);
+        classes.add(SomeResourceWithClassOnlyPaths.class);
+
+        Map<String, SpringResource> resourceMap = new SpringMvcApiReader(new Swagger(), log).generateResourceMap(classes);
+        assertTrue(resourceMap.containsKey(controller.getCanonicalName() + "/missing/typeGET"));
+
+        SpringMvcApiReader parallelReader = new SpringMvcApiReader(new Swagger(), log);
+        parallelReader.setParallelism(4);
+        assertEquals(resourceMap.keySet(), parallelReader.generateResourceMap(classes).keySet());
+    }
+
     @RequestMapping("/some/path")
     private static class SomeResourceWithClassOnlyPaths {
 
@@ -44,4 +92,47 @@ public class SpringMvcApiReaderTest {
         @RequestMapping(value="/search", method=RequestMethod.GET)
         public String search() { return null; }
     }
+
+    @RequestMapping("/missing")
+    public static class ResourceWithMissingFieldType {
+
+        private MissingType missing;
+
+        // GET /missing/type
+        @RequestMapping(value="/type", method=RequestMethod.GET)
+        public String get() { return null; }
+    }
+
+    public static class MissingType {
+    }
+
+    /**
+     * Defines {@link ResourceWithMissingFieldType} itself, without {@link MissingType} on its classpath
+     */
+    private static class MissingTypeClassLoader extends ClassLoader {
+
+        MissingTypeClassLoader() {
+            super(SpringMvcApiReaderTest.class.getClassLoader());
+        }
+
+        @Override
+        protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (name.equals(MissingType.class.getName())) {
+                throw new ClassNotFoundException(name);
+            }
+            if (!name.equals(ResourceWithMissingFieldType.class.getName())) {
+                return super.loadClass(name, resolve);
+            }
+            Class<?> loaded = findLoadedClass(name);
+            if (loaded != null) {
+                return loaded;
+            }
+            try (InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+                byte[] bytes = IOUtils.toByteArray(in);
+                return defineClass(name, bytes, 0, bytes.length);
+            } catch (IOException e) {
+                throw new ClassNotFoundException(name, e);
+            }
+        }
+    }
 }
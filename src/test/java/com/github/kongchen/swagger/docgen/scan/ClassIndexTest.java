@@ -0,0 +1,156 @@
+package com.github.kongchen.swagger.docgen.scan;
+
+import com.github.kongchen.swagger.docgen.scan.base.BaseApis;
+import com.github.kongchen.swagger.docgen.scan.baseline.BaselineApis;
+import com.github.kongchen.swagger.docgen.scan.derived.DerivedApis;
+import com.github.kongchen.swagger.docgen.scan.expand.SupertypeApis;
+import io.swagger.annotations.Api;
+import org.reflections.Reflections;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class ClassIndexTest {
+
+    private static final String JAXRS = "com.wordnik.jaxrs";
+    private static final String SPRING = "com.wordnik.springmvc";
+
+    @Test
+    public void testSharedIndexMatchesSingleLocationScan() {
+        ClassIndex index = new ClassIndex(Arrays.asList(JAXRS, SPRING));
+
+        for (String location : Arrays.asList(JAXRS, SPRING)) {
+            Reflections reflections = new Reflections(location);
+            Assert.assertEquals(index.getTypesAnnotatedWith(Api.class, true, location),
+                    reflections.getTypesAnnotatedWith(Api.class, true));
+            Assert.assertEquals(index.getTypesAnnotatedWith(Path.class, false, location),
+                    reflections.getTypesAnnotatedWith(Path.class));
+        }
+    }
+
+    @Test
+    public void testLocationsDoNotResolveAgainstOtherLocations() {
+        String base = BaseApis.class.getPackage().getName();
+        String baseline = BaselineApis.class.getPackage().getName();
+        String derived = DerivedApis.class.getPackage().getName();
+        ClassIndex index = new ClassIndex(Arrays.asList(base, baseline, derived));
+
+        Assert.assertEquals(index.getTypesAnnotatedWith(Path.class, false, base),
+                Collections.singleton(BaseApis.Resource.class));
+        Assert.assertEquals(index.getTypesAnnotatedWith(Api.class, true, base),
+                Collections.singleton(BaseApis.Resource.class));
+        Assert.assertTrue(index.getTypesAnnotatedWith(Path.class, false, derived).isEmpty());
+        Assert.assertTrue(index.getTypesAnnotatedWith(Api.class, true, derived).isEmpty());
+        Assert.assertTrue(index.getTypeNamesAnnotatedWith(Path.class, false, derived).isEmpty());
+
+        Set<Class<?>> union = index.getTypesAnnotatedWith(Path.class, false);
+        Assert.assertTrue(union.contains(DerivedApis.Resource.class));
+        Assert.assertTrue(union.contains(BaselineApis.Resource.class));
+    }
+
+    @Test
+    public void testQueriesAreMemoized() {
+        ClassIndex index = new ClassIndex(Arrays.asList(JAXRS, JAXRS));
+
+        Set<Class<?>> first = index.getTypesAnnotatedWith(Api.class, true);
+        Assert.assertFalse(first.isEmpty());
+        Assert.assertSame(index.getTypesAnnotatedWith(Api.class, true), first);
+        Assert.assertEquals(index.getLocations(), Arrays.asList(JAXRS));
+    }
+
+    @Test
+    public void testPersistedIndexMatchesScan() throws Exception {
+        File cacheFile = new File(Files.createTempDirectory("swagger-scan").toFile(), "index.bin");
+        List<String> locations = Arrays.asList(JAXRS, SPRING);
+        Set<Class<?>> expected = new ClassIndex(locations).getTypesAnnotatedWith(Api.class, false);
+
+        Assert.assertEquals(new ClassIndex(locations, cacheFile).getTypesAnnotatedWith(Api.class, false), expected);
+        Assert.assertTrue(cacheFile.isFile());
+        long written = cacheFile.lastModified();
+
+        Assert.assertEquals(new ClassIndex(locations, cacheFile).getTypesAnnotatedWith(Api.class, false), expected);
+        Assert.assertEquals(cacheFile.lastModified(), written, "Unchanged classpath should not rewrite the cache");
+
+        Assert.assertEquals(new ClassIndex(Arrays.asList(JAXRS), cacheFile).getTypesAnnotatedWith(Api.class, true),
+                new Reflections(JAXRS).getTypesAnnotatedWith(Api.class, true));
+    }
+
+    @Test
+    public void testPersistedIndexExpandsSupertypes() throws Exception {
+        File cacheFile = new File(Files.createTempDirectory("swagger-scan").toFile(), "index.bin");
+        List<String> locations = Arrays.asList(SupertypeApis.class.getPackage().getName());
+        Set<Class<?>> expected = new ClassIndex(locations).getTypesAnnotatedWith(Api.class, false);
+        Assert.assertTrue(expected.contains(SupertypeApis.Resource.class));
+
+        Assert.assertEquals(new ClassIndex(locations, cacheFile).getTypesAnnotatedWith(Api.class, false), expected);
+        Assert.assertEquals(new ClassIndex(locations, cacheFile).getTypesAnnotatedWith(Api.class, false), expected);
+    }
+
+    @Test
+    public void testTypeNamesMatchLoadedTypes() {
+        ClassIndex index = new ClassIndex(Arrays.asList(JAXRS, SPRING));
+
+        for (String location : Arrays.asList(JAXRS, SPRING)) {
+            Reflections reflections = new Reflections(location);
+            Assert.assertEquals(index.loadClasses(index.getTypeNamesAnnotatedWith(Api.class, true, location)),
+                    reflections.getTypesAnnotatedWith(Api.class, true));
+            Assert.assertEquals(index.loadClasses(index.getTypeNamesAnnotatedWith(Api.class, false, location)),
+                    reflections.getTypesAnnotatedWith(Api.class));
+            Assert.assertEquals(index.loadClasses(index.getTypeNamesAnnotatedWith(Path.class, false, location)),
+                    reflections.getTypesAnnotatedWith(Path.class));
+        }
+    }
+
+    @Test
+    public void testDeclaresOperations() {
+        ClassIndex index = new ClassIndex(Arrays.asList(getClass().getPackage().getName()));
+
+        Assert.assertTrue(index.declaresOperations(OperationApi.class.getName()));
+        Assert.assertTrue(index.declaresOperations(InheritedOperationApi.class.getName()));
+        Assert.assertFalse(index.declaresOperations(EmptyApi.class.getName()));
+    }
+
+    @Test
+    public void testCovers() {
+        ClassIndex index = new ClassIndex(new HashSet<>(Arrays.asList(JAXRS)));
+
+        Assert.assertTrue(index.covers(JAXRS));
+        Assert.assertTrue(index.covers(JAXRS + ".sub"));
+        Assert.assertFalse(index.covers(JAXRS + "sub"));
+        Assert.assertFalse(index.covers(SPRING));
+        Assert.assertFalse(index.covers(null));
+        Assert.assertTrue(new ClassIndex(null).covers(SPRING));
+    }
+
+    @Api
+    @Path("/operation")
+    static class OperationApi {
+        @GET
+        public String get() {
+            return null;
+        }
+    }
+
+    @Api
+    static class InheritedOperationApi extends OperationApi {
+    }
+
+    @Api
+    static class EmptyApi {
+        public String get() {
+            return null;
+        }
+    }
+
+    public static class IntermediateApi extends SupertypeApis.BaseApi {
+    }
+}
@@ -0,0 +1,24 @@
+package com.github.kongchen.swagger.docgen.scan.base;
+
+import io.swagger.annotations.Api;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+
+/**
+ * Apis of one api source, extended by apis of another
+ */
+public final class BaseApis {
+
+    private BaseApis() {
+    }
+
+    @Api
+    @Path("/base")
+    public static class Resource {
+        @GET
+        public String get() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.github.kongchen.swagger.docgen.scan.baseline;
+
+import io.swagger.annotations.Api;
+
+import javax.ws.rs.Path;
+
+/**
+ * Apis of a package whose name starts with the name of another api source package
+ */
+public final class BaselineApis {
+
+    private BaselineApis() {
+    }
+
+    @Api
+    @Path("/baseline")
+    public static class Resource {
+    }
+}
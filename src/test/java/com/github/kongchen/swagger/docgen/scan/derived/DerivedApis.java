@@ -0,0 +1,15 @@
+package com.github.kongchen.swagger.docgen.scan.derived;
+
+import com.github.kongchen.swagger.docgen.scan.base.BaseApis;
+
+/**
+ * Apis of an api source, annotated only through a supertype of another api source
+ */
+public final class DerivedApis {
+
+    private DerivedApis() {
+    }
+
+    public static class Resource extends BaseApis.Resource {
+    }
+}
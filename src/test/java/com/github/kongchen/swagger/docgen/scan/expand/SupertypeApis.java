@@ -0,0 +1,20 @@
+package com.github.kongchen.swagger.docgen.scan.expand;
+
+import com.github.kongchen.swagger.docgen.scan.ClassIndexTest;
+import io.swagger.annotations.Api;
+
+/**
+ * Apis of a scanned package, related through a supertype outside of it
+ */
+public final class SupertypeApis {
+
+    private SupertypeApis() {
+    }
+
+    @Api
+    public static class BaseApi {
+    }
+
+    public static class Resource extends ClassIndexTest.IntermediateApi {
+    }
+}